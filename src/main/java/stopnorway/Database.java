@@ -4,6 +4,7 @@ import stopnorway.data.Journey;
 import stopnorway.data.JourneySpecification;
 import stopnorway.geo.Box;
 import stopnorway.geo.Scale;
+import stopnorway.geo.TimeBox;
 import stopnorway.geo.Timespan;
 
 import java.time.temporal.TemporalAmount;
@@ -24,11 +25,19 @@ public interface Database {
 
     Collection<JourneySpecification> getJourneySpecifications(Collection<Box> boxes);
 
-    default Collection<Journey> getJourneys(Timespan... boxes) {
-        return getJourneys(Arrays.asList(boxes));
+    default Collection<Journey> getJourneys(Timespan... timespans) {
+        return getJourneys(Arrays.asList(timespans));
     }
 
-    Collection<Journey> getJourneys(Collection<Timespan> boxes);
+    Collection<Journey> getJourneys(Collection<Timespan> timespans);
+
+    Collection<Journey> getJourneys(Collection<Box> boxes, Collection<Timespan> timespans);
+
+    default Collection<Journey> getJourneys(TimeBox... timeBoxes) {
+        return getJourneysWithin(Arrays.asList(timeBoxes));
+    }
+
+    Collection<Journey> getJourneysWithin(Collection<TimeBox> timeBoxes);
 
     int getSize();
 }
@@ -1,30 +1,45 @@
 package stopnorway;
 
 import com.esotericsoftware.kryo.Kryo;
-import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
-import com.esotericsoftware.kryo.serializers.TimeSerializers;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import stopnorway.data.*;
+import stopnorway.data.DatabaseImpl;
+import stopnorway.data.ImportFilter;
+import stopnorway.data.OperatorEntities;
+import stopnorway.data.TypedEntities;
+import stopnorway.database.Entity;
 import stopnorway.database.Id;
-import stopnorway.database.IdSerializer;
-import stopnorway.entur.*;
-import stopnorway.geo.*;
+import stopnorway.database.IdPool;
+import stopnorway.entur.JourneyPattern;
+import stopnorway.entur.ServiceJourney;
+import stopnorway.geo.Box;
+import stopnorway.geo.Points;
+import stopnorway.geo.Scale;
+import stopnorway.geo.Timespan;
 import stopnorway.in.Importer;
+import stopnorway.index.SpatialIndexing;
+import stopnorway.in.ParseEngine;
 import stopnorway.in.Parser;
 import stopnorway.in.ParserFactory;
+import stopnorway.in.SourceCache;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
 import java.time.Duration;
-import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public final class Databases {
@@ -41,6 +56,14 @@ public final class Databases {
 
     private final Duration temporalScale;
 
+    private final boolean extract;
+
+    private final ImportFilter filter;
+
+    private final SpatialIndexing spatialIndexing;
+
+    private final SourceCache sourceCache;
+
     public Databases(Path zipFile, Class<? extends Enum<?>> operators) {
         this(zipFile, operators, null, null, null);
     }
@@ -51,11 +74,56 @@ public final class Databases {
             Box box,
             Scale scale,
             Duration temporalScale) {
+        this(zipFile, Set.of(operators.getEnumConstants()), box, scale, temporalScale, false, null, null, null);
+    }
+
+    private Databases(
+            Path zipFile,
+            Collection<? extends Enum<?>> operators,
+            Box box,
+            Scale scale,
+            Duration temporalScale,
+            boolean extract,
+            ImportFilter filter,
+            SpatialIndexing spatialIndexing,
+            SourceCache sourceCache) {
         this.zipFile = zipFile;
-        this.operators = Set.of(operators.getEnumConstants());
+        this.operators = operators;
         this.box = box == null ? Points.NORWAY_BOX : box;
         this.scale = scale == null ? Scale.DEFAULT : scale;
         this.temporalScale = temporalScale == null ? Duration.ofHours(1) : temporalScale;
+        this.extract = extract;
+        this.filter = filter == null ? ImportFilter.NONE : filter;
+        this.spatialIndexing = spatialIndexing == null ? SpatialIndexing.GRID : spatialIndexing;
+        this.sourceCache = sourceCache;
+    }
+
+    public Databases withExtraction(boolean extract) {
+        return new Databases(
+                zipFile, operators, box, scale, temporalScale, extract, filter, spatialIndexing, sourceCache);
+    }
+
+    public Databases withImportFilter(ImportFilter filter) {
+        return new Databases(
+                zipFile, operators, box, scale, temporalScale, extract, filter, spatialIndexing, sourceCache);
+    }
+
+    public Databases withSpatialIndexing(SpatialIndexing spatialIndexing) {
+        return new Databases(
+                zipFile, operators, box, scale, temporalScale, extract, filter, spatialIndexing, sourceCache);
+    }
+
+    public Databases withSourceCache(SourceCache sourceCache) {
+        return new Databases(
+                zipFile, operators, box, scale, temporalScale, extract, filter, spatialIndexing, sourceCache);
+    }
+
+    public Databases withRegionFilter() {
+        return withImportFilter(filter.withBox(box));
+    }
+
+    public Databases withWindowFilter(Timespan window) {
+        return withImportFilter(filter.withWindow(window));
     }
 
     public Database get(Enum<?>... operators) {
@@ -75,8 +143,21 @@ public final class Databases {
                 Objects.requireNonNull(zipFile, "zipFile"),
                 true,
                 false,
-                all(operators),
-                resolve(operators));
+                resolve(operators),
+                null);
+    }
+
+    public Database refresh(Database previous, Enum<?>... operators) {
+        return refresh(previous, Arrays.asList(operators));
+    }
+
+    public Database refresh(Database previous, Collection<? extends Enum<?>> operators) {
+        return get(
+                Objects.requireNonNull(zipFile, "zipFile"),
+                true,
+                true,
+                resolve(operators),
+                Objects.requireNonNull(previous, "previous"));
     }
 
     public Database adhoc(Enum<?>... operators) {
@@ -88,8 +169,8 @@ public final class Databases {
                 Objects.requireNonNull(zipFile, "zipFile"),
                 false,
                 false,
-                all(operators),
-                resolve(operators));
+                resolve(operators),
+                null);
     }
 
     public Database get(Box box, Scale scale, Collection<? extends Enum<?>> operators) {
@@ -97,8 +178,8 @@ public final class Databases {
                 Objects.requireNonNull(zipFile, "zipFile"),
                 box == null && scale == null,
                 true,
-                all(operators),
-                resolve(operators));
+                resolve(operators),
+                null);
     }
 
     private Collection<? extends Enum<?>> resolve(Collection<? extends Enum<?>> operators) {
@@ -115,26 +196,156 @@ public final class Databases {
             Path zipFile,
             boolean dump,
             boolean reuse,
-            boolean all,
-            Collection<? extends Enum<?>> operators
+            Collection<? extends Enum<?>> operators,
+            Database previous
     ) {
-        Path serialForm = serialForm(zipFile, all, operators);
-        if (reuse && exists(serialForm)) {
-            log.info("Database will be read from {}", serialForm);
-            return read(serialForm);
+        Map<Enum<?>, String> fingerprints = Importer.fingerprints(zipFile, operators);
+        Map<String, String> storedFingerprints = readFingerprints(zipFile);
+        List<Enum<?>> unchanged = operators.stream()
+                .filter(operator -> fingerprints.get(operator).equals(storedFingerprints.get(operator.name())))
+                .collect(Collectors.toList());
+        IdPool idPool = new IdPool();
+        Map<Enum<?>, TypedEntities> shards = new HashMap<>(
+                reuse ? readShards(zipFile, unchanged, idPool) : Collections.emptyMap());
+        List<Enum<?>> missing = operators.stream()
+                .filter(operator -> !shards.containsKey(operator))
+                .sorted(Comparator.comparing(Enum::ordinal))
+                .collect(Collectors.toList());
+        Set<Id> changedIds = new HashSet<>();
+        if (!missing.isEmpty()) {
+            Map<Enum<?>, TypedEntities> parsed = parse(zipFile, missing, idPool);
+            parsed.values().forEach(shard -> changedIds.addAll(journeyIds(shard)));
+            if (dump) {
+                parsed.forEach((operator, typedEntities) -> {
+                    write(typedEntities, shard(zipFile, operator));
+                    storedFingerprints.put(operator.name(), fingerprints.get(operator));
+                });
+                writeFingerprints(zipFile, storedFingerprints);
+            }
+            shards.putAll(parsed);
         }
-        if (dump) {
-            log.info("Database will be dumped to {}", serialForm);
+        TypedEntities typedEntities = TypedEntities.merge(
+                operators.stream()
+                        .sorted(Comparator.comparing(Enum::ordinal))
+                        .map(shards::get)
+                        .collect(Collectors.toList()));
+        Map<Class<? extends Entity>, Map<Id, Entity>> entities = filter.apply(typedEntities.get());
+        if (!filter.isNone()) {
+            log.info("{} kept {}/{} entities", filter, count(entities), count(typedEntities.get()));
         }
-        Path directory = Importer.unzipped(zipFile, operators);
-        ParserFactory parserFactory = new ParserFactory(directory, operators);
-        try (Parser parser = parserFactory.create(false, true)) {
-            Database database =
-                    new DatabaseImpl(box, scale, temporalScale, parser.entities());
-            if (dump) {
-                write(database, serialForm);
+        if (previous instanceof DatabaseImpl previousImpl && compatible(previousImpl)) {
+            log.info("Refreshing {} for changed operators {}", previous, missing);
+            return previousImpl.refreshed(entities, changedIds);
+        }
+        return new DatabaseImpl(box, scale, temporalScale, spatialIndexing, filter, entities);
+    }
+
+    private boolean compatible(DatabaseImpl database) {
+        return database.getBox().equals(box) &&
+                database.getScale().equals(scale) &&
+                temporalScale.equals(database.getTimescale()) &&
+                database.getSpatialIndexing() == spatialIndexing &&
+                database.getImportFilter().equals(filter);
+    }
+
+    private Map<Enum<?>, TypedEntities> parse(
+            Path zipFile,
+            Collection<? extends Enum<?>> operators,
+            IdPool idPool
+    ) {
+        log.info("Parsing {}", operators);
+        ParserFactory parserFactory = new ParserFactory(documents(zipFile, operators), operators)
+                .withSourceCache(sourceCache);
+        try (Parser parser = parserFactory.create(false, true, ParseEngine.CURSOR, idPool)) {
+            OperatorEntities operatorEntities = new OperatorEntities(operators);
+            parser.entities(operatorEntities);
+            return operatorEntities.get();
+        }
+    }
+
+    private Path documents(Path zipFile, Collection<? extends Enum<?>> operators) {
+        if (extract) {
+            return Importer.unzipped(zipFile, operators);
+        }
+        if (!zipFile.toFile().isFile()) {
+            throw new IllegalArgumentException("Bad zip file: " + zipFile);
+        }
+        log.info("Documents will be read from {}", zipFile);
+        return zipFile;
+    }
+
+    private static Collection<Id> journeyIds(TypedEntities shard) {
+        Map<Class<? extends Entity>, Map<Id, Entity>> entities = shard.get();
+        List<Id> ids = new ArrayList<>(entities.getOrDefault(JourneyPattern.class, Collections.emptyMap()).keySet());
+        ids.addAll(entities.getOrDefault(ServiceJourney.class, Collections.emptyMap()).keySet());
+        return ids;
+    }
+
+    private static int count(Map<Class<? extends Entity>, Map<Id, Entity>> entities) {
+        return entities.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private static Map<Enum<?>, TypedEntities> readShards(
+            Path zipFile,
+            Collection<? extends Enum<?>> operators,
+            IdPool idPool
+    ) {
+        List<Enum<?>> stored = operators.stream()
+                .filter(operator -> exists(shard(zipFile, operator)))
+                .collect(Collectors.toList());
+        if (stored.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(
+                Math.min(stored.size(), Runtime.getRuntime().availableProcessors()),
+                r -> new Thread(r, "shard#" + count.getAndIncrement()));
+        try {
+            Map<Enum<?>, Future<TypedEntities>> futures = new LinkedHashMap<>();
+            stored.forEach(operator -> futures.put(
+                    operator,
+                    executorService.submit(() -> read(shard(zipFile, operator), idPool))));
+            Map<Enum<?>, TypedEntities> shards = new HashMap<>();
+            futures.forEach((operator, future) -> shards.put(operator, await(future)));
+            return shards;
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted: " + future, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed: " + future, e.getCause());
+        }
+    }
+
+    private static Map<String, String> readFingerprints(Path zipFile) {
+        File file = fingerprints(zipFile).toFile();
+        Properties properties = new Properties();
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(in);
+            } catch (Exception e) {
+                log.warn("Ignoring unreadable fingerprints {}", file, e);
+                return new HashMap<>();
             }
-            return database;
+        }
+        return properties.stringPropertyNames().stream()
+                .collect(Collectors.toMap(Function.identity(), properties::getProperty));
+    }
+
+    private static void writeFingerprints(Path zipFile, Map<String, String> fingerprints) {
+        Properties properties = new Properties();
+        properties.putAll(fingerprints);
+        try (OutputStream out = new FileOutputStream(fingerprints(zipFile).toFile())) {
+            properties.store(out, "Imported operators: size/crc");
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to write fingerprints for " + zipFile, e);
         }
     }
 
@@ -142,108 +353,51 @@ public final class Databases {
         return serialForm.toFile().isFile() && serialForm.toFile().length() > 0;
     }
 
-    private static void write(Database database, Path serialForm) {
-        log.info("Writing to {}: {}", serialForm, database);
-        Kryo kryo = kryo();
+    private static void write(TypedEntities typedEntities, Path serialForm) {
+        log.info("Writing to {}: {}", serialForm, typedEntities);
+        Kryo kryo = Kryos.kryo();
+        File directory = serialForm.toFile().getParentFile();
+        if (!(directory.isDirectory() || directory.mkdirs())) {
+            throw new IllegalStateException("Could not establish directory " + directory);
+        }
         try (
                 OutputStream os = new FileOutputStream(serialForm.toFile());
                 Output output = new Output(os)
         ) {
-            kryo.writeObject(
-                    output,
-                    database,
-                    new DatabaseImplSerializer());
+            kryo.writeObject(output, typedEntities);
         } catch (Exception e) {
-            throw new IllegalStateException("Failed to write database to " + serialForm.toAbsolutePath(), e);
+            throw new IllegalStateException("Failed to write shard to " + serialForm.toAbsolutePath(), e);
         } finally {
-            log.info("DB written to {}", serialForm);
+            log.info("Shard written to {}", serialForm);
         }
     }
 
-    private static Database read(Path serialForm) {
-        log.info("Reading db from {}...", serialForm);
-        Kryo kryo = kryo();
+    private static TypedEntities read(Path serialForm, IdPool idPool) {
+        log.info("Reading shard from {}...", serialForm);
+        Kryo kryo = Kryos.kryo(idPool);
         try (
-                InputStream is = new FileInputStream(serialForm.toFile())
+                InputStream is = new FileInputStream(serialForm.toFile());
+                Input input = new Input(is)
         ) {
-            return kryo.readObject(
-                    new Input(is),
-                    DatabaseImpl.class);
+            return kryo.readObject(input, TypedEntities.class);
         } catch (Exception e) {
-            throw new IllegalStateException("Failed to read database from " + serialForm.toAbsolutePath(), e);
+            throw new IllegalStateException("Failed to read shard from " + serialForm.toAbsolutePath(), e);
         } finally {
-            log.info("DB read from {}", serialForm);
+            log.info("Shard read from {}", serialForm);
         }
     }
 
-
-    private static Kryo kryo() {
-        Kryo kryo = new Kryo();
-        kryo.setWarnUnregisteredClasses(true);
-        kryo.setRegistrationRequired(true);
-        register(
-                kryo,
-                Id.class,
-                new IdSerializer(
-                        Operator.class,
-                        StopPointInJourneyPattern.class,
-                        ServiceLinkInJourneyPattern.class,
-                        Route.class,
-                        ServiceLink.class,
-                        JourneyPattern.class,
-                        RoutePoint.class,
-                        TimetabledPassingTime.class,
-                        ServiceJourney.class,
-                        PointOnRoute.class,
-                        PointProjection.class,
-                        ScheduledStopPoint.class,
-                        LinkSequenceProjection.class,
-                        Line.class));
-        register(kryo, DatabaseImpl.class, new DatabaseImplSerializer());
-        register(kryo, Box.class, new BoxSerializer());
-        register(kryo, Scale.class, new ScaleSerializer());
-        register(kryo, Timespan.class, new TimespanSerializer());
-        register(kryo, Duration.class, new TimeSerializers.DurationSerializer());
-        register(kryo, LocalTime.class, new TimeSerializers.LocalTimeSerializer());
-        register(kryo, CodedPoint.class, new CodedPointSerializer());
-        register(kryo, JourneyPattern.class, new JourneyPatternSerializer());
-        register(kryo, Line.class, new LineSerializer());
-        register(
-                kryo,
-                LinkSequenceProjection.class,
-                new LinkSequenceProjectionSerializer());
-        register(kryo, PointOnRoute.class, new PointOnRouteSerializer());
-        register(kryo, PointProjection.class, new PointProjectionSerializer());
-        register(kryo, Route.class, new RouteSerializer());
-        register(kryo, RoutePoint.class, new RoutePointSerializer());
-        register(kryo, ScheduledStopPoint.class, new ScheduledStopPointSerializer());
-        register(kryo, ServiceJourney.class, new ServiceJourneySerializer());
-        register(kryo, ServiceLink.class, new ServiceLinkSerializer());
-        register(kryo, ServiceLinkInJourneyPattern.class, new ServiceLinkInJourneyPatternSerializer());
-        register(kryo, StopPointInJourneyPattern.class, new StopPointInJourneyPatternSerializer());
-        register(kryo, TimetabledPassingTime.class, new TimetabledPassingTimeSerializer());
-
-        register(kryo, JourneySpecification.class, new JourneySpecificationSerializer());
-        register(kryo, ServiceLeg.class, new ServiceLegSerializer());
-
-        return kryo;
-    }
-
-    private static <T> void register(Kryo kryo, Class<T> type, Serializer<T> ser) {
-        kryo.register(type, ser);
-    }
-
-    private static Path serialForm(Path directory, boolean all, Collection<? extends Enum<?>> operators) {
-        String qualifier = all
-                ? ""
-                : operators.stream()
-                        .sorted(Comparator.comparing(Enum::ordinal))
-                        .map(Enum::name)
-                        .map(name -> "-" + name)
-                        .collect(Collectors.joining());
+    private static Path fingerprints(Path zipFile) {
         return Importer
-                .targetPath(directory)
-                .resolve("database" + qualifier + ".ser");
+                .targetPath(zipFile)
+                .resolve("shards")
+                .resolve("fingerprints.properties");
     }
 
+    private static Path shard(Path zipFile, Enum<?> operator) {
+        return Importer
+                .targetPath(zipFile)
+                .resolve("shards")
+                .resolve(operator.name() + ".ser");
+    }
 }
@@ -0,0 +1,123 @@
+package stopnorway;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import stopnorway.database.Entity;
+import stopnorway.database.IdPool;
+import stopnorway.in.OperatorSource;
+import stopnorway.in.SourceCache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public final class KryoSourceCache implements SourceCache {
+
+    private static final Logger log = LoggerFactory.getLogger(KryoSourceCache.class);
+
+    private static final String SUFF = ".ser";
+
+    private final Path directory;
+
+    public KryoSourceCache() {
+        this(null);
+    }
+
+    public KryoSourceCache(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Optional<Collection<Entity>> get(OperatorSource source, String variant, IdPool idPool) {
+        Path cached = cachePath(source, variant);
+        if (cached == null || !cached.toFile().isFile()) {
+            return Optional.empty();
+        }
+        Kryo kryo = Kryos.kryo(idPool);
+        try (
+                InputStream is = new FileInputStream(cached.toFile());
+                Input input = new Input(is)
+        ) {
+            int size = input.readVarInt(true);
+            List<Entity> entities = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                entities.add((Entity) kryo.readClassAndObject(input));
+            }
+            return Optional.of(entities);
+        } catch (Exception e) {
+            log.warn("{} could not read {}, parsing {}", this, cached, source, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(OperatorSource source, String variant, Collection<Entity> entities) {
+        Path cached = cachePath(source, variant);
+        if (cached == null) {
+            return;
+        }
+        File directory = cached.toFile().getParentFile();
+        if (!(directory.isDirectory() || directory.mkdirs())) {
+            throw new IllegalStateException("Could not establish directory " + directory);
+        }
+        Path partFile = cached.resolveSibling(cached.getFileName() + ".part");
+        Kryo kryo = Kryos.kryo();
+        try (
+                OutputStream os = new FileOutputStream(partFile.toFile());
+                Output output = new Output(os)
+        ) {
+            output.writeVarInt(entities.size(), true);
+            entities.forEach(entity -> kryo.writeClassAndObject(output, entity));
+        } catch (Exception e) {
+            throw new IllegalStateException(this + " failed to write " + cached, e);
+        }
+        try {
+            Files.move(partFile, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            throw new IllegalStateException(this + " failed to move " + partFile + " to " + cached, e);
+        }
+        removeStale(cached, prefix(source, variant));
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + (directory == null ? "<sources>" : directory) + "]";
+    }
+
+    private Path cachePath(OperatorSource source, String variant) {
+        Path path = source.getPath();
+        if (path == null) {
+            return null;
+        }
+        Path parent = directory == null ? path.toAbsolutePath().getParent() : directory;
+        return parent.resolve(prefix(source, variant) + source.getContentHash() + SUFF);
+    }
+
+    private static String prefix(OperatorSource source, String variant) {
+        return source.getPath().getFileName() + "." + variant + ".";
+    }
+
+    private static void removeStale(Path cached, String prefix) {
+        File[] stale = cached.toFile().getParentFile().listFiles((dir, name) ->
+                name.startsWith(prefix) && name.endsWith(SUFF) && !name.equals(cached.getFileName().toString()));
+        if (stale != null) {
+            for (File file: stale) {
+                if (!file.delete()) {
+                    log.warn("Could not delete stale cache {}", file);
+                }
+            }
+        }
+    }
+}
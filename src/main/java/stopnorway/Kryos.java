@@ -0,0 +1,82 @@
+package stopnorway;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.serializers.TimeSerializers;
+import stopnorway.data.*;
+import stopnorway.database.Id;
+import stopnorway.database.IdPool;
+import stopnorway.database.IdSerializer;
+import stopnorway.entur.*;
+import stopnorway.geo.*;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+public final class Kryos {
+
+    private Kryos() {
+    }
+
+    public static Kryo kryo() {
+        return kryo(null);
+    }
+
+    public static Kryo kryo(IdPool idPool) {
+        Kryo kryo = new Kryo();
+        kryo.setWarnUnregisteredClasses(true);
+        kryo.setRegistrationRequired(true);
+        register(
+                kryo,
+                Id.class,
+                new IdSerializer(
+                        idPool,
+                        Operator.class,
+                        StopPointInJourneyPattern.class,
+                        ServiceLinkInJourneyPattern.class,
+                        Route.class,
+                        ServiceLink.class,
+                        JourneyPattern.class,
+                        RoutePoint.class,
+                        TimetabledPassingTime.class,
+                        ServiceJourney.class,
+                        PointOnRoute.class,
+                        PointProjection.class,
+                        ScheduledStopPoint.class,
+                        LinkSequenceProjection.class,
+                        Line.class));
+        register(kryo, DatabaseImpl.class, new DatabaseImplSerializer());
+        register(kryo, TypedEntities.class, new TypedEntitiesSerializer());
+        register(kryo, Box.class, new BoxSerializer());
+        register(kryo, Scale.class, new ScaleSerializer());
+        register(kryo, Timespan.class, new TimespanSerializer());
+        register(kryo, Duration.class, new TimeSerializers.DurationSerializer());
+        register(kryo, LocalTime.class, new TimeSerializers.LocalTimeSerializer());
+        register(kryo, CodedPoint.class, new CodedPointSerializer());
+        register(kryo, PointSequence.class, new PointSequenceSerializer());
+        register(kryo, JourneyPattern.class, new JourneyPatternSerializer());
+        register(kryo, Line.class, new LineSerializer());
+        register(
+                kryo,
+                LinkSequenceProjection.class,
+                new LinkSequenceProjectionSerializer());
+        register(kryo, PointOnRoute.class, new PointOnRouteSerializer());
+        register(kryo, PointProjection.class, new PointProjectionSerializer());
+        register(kryo, Route.class, new RouteSerializer());
+        register(kryo, RoutePoint.class, new RoutePointSerializer());
+        register(kryo, ScheduledStopPoint.class, new ScheduledStopPointSerializer());
+        register(kryo, ServiceJourney.class, new ServiceJourneySerializer());
+        register(kryo, ServiceLink.class, new ServiceLinkSerializer());
+        register(kryo, ServiceLinkInJourneyPattern.class, new ServiceLinkInJourneyPatternSerializer());
+        register(kryo, StopPointInJourneyPattern.class, new StopPointInJourneyPatternSerializer());
+
+        register(kryo, JourneySpecification.class, new JourneySpecificationSerializer());
+        register(kryo, ServiceLeg.class, new ServiceLegSerializer());
+
+        return kryo;
+    }
+
+    private static <T> void register(Kryo kryo, Class<T> type, Serializer<T> ser) {
+        kryo.register(type, ser);
+    }
+}
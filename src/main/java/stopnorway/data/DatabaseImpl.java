@@ -9,15 +9,25 @@ import stopnorway.database.Entity;
 import stopnorway.database.Id;
 import stopnorway.entur.*;
 import stopnorway.geo.Box;
+import stopnorway.geo.Cells;
 import stopnorway.geo.Points;
 import stopnorway.geo.Scale;
+import stopnorway.geo.TimeBox;
 import stopnorway.geo.Timespan;
+import stopnorway.index.Bitmap;
+import stopnorway.index.GridIndex;
+import stopnorway.index.QuadTreeIndex;
+import stopnorway.index.RTreeIndex;
+import stopnorway.index.SpaceTimeIndex;
+import stopnorway.index.SpatialIndex;
+import stopnorway.index.SpatialIndexing;
 
 import java.io.Serializable;
 import java.time.Duration;
 import java.time.temporal.TemporalAmount;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -25,6 +35,8 @@ public final class DatabaseImpl implements Database, Serializable {
 
     private static final Logger log = LoggerFactory.getLogger(DatabaseImpl.class);
 
+    private static final Duration DEFAULT_TIMESCALE = Duration.ofHours(1);
+
     private final Box box;
 
     private final Scale scale;
@@ -37,9 +49,19 @@ public final class DatabaseImpl implements Database, Serializable {
 
     private final Map<Id, Journey> journeys;
 
-    private final Map<Box, Collection<JourneySpecification>> boxedJourneySpecification;
+    private final SpatialIndexing spatialIndexing;
+
+    private final ImportFilter importFilter;
+
+    private final SpatialIndex<JourneySpecification> journeySpecificationIndex;
+
+    private final JourneyIntervals journeyIntervals;
+
+    private final Bitmap[] journeysBySpecification;
+
+    private final Passages[] passages;
 
-    private final Map<Timespan, Collection<Journey>> timespannedJourneys;
+    private final SpaceTimeIndex journeyIndex;
 
     private final int size;
 
@@ -52,45 +74,121 @@ public final class DatabaseImpl implements Database, Serializable {
             Scale scale,
             Duration timescale,
             Map<Class<? extends Entity>, Map<Id, Entity>> typedEntities
+    ) {
+        this(box, scale, timescale, null, typedEntities);
+    }
+
+    public DatabaseImpl(
+            Box box,
+            Scale scale,
+            Duration timescale,
+            SpatialIndexing spatialIndexing,
+            Map<Class<? extends Entity>, Map<Id, Entity>> typedEntities
+    ) {
+        this(box, scale, timescale, spatialIndexing, null, typedEntities);
+    }
+
+    public DatabaseImpl(
+            Box box,
+            Scale scale,
+            Duration timescale,
+            SpatialIndexing spatialIndexing,
+            ImportFilter importFilter,
+            Map<Class<? extends Entity>, Map<Id, Entity>> typedEntities
+    ) {
+        this(box, scale, timescale, spatialIndexing, importFilter, typedEntities, null, Collections.emptySet());
+    }
+
+    private DatabaseImpl(
+            Box box,
+            Scale scale,
+            Duration timescale,
+            SpatialIndexing spatialIndexing,
+            ImportFilter importFilter,
+            Map<Class<? extends Entity>, Map<Id, Entity>> typedEntities,
+            DatabaseImpl previous,
+            Set<Id> changedIds
     ) {
         this.box = box == null ? Points.NORWAY_BOX : box;
         this.scale = scale == null ? Scale.DEFAULT : scale;
-        this.timescale = timescale;
+        this.timescale = timescale == null ? DEFAULT_TIMESCALE : timescale;
+        this.spatialIndexing = spatialIndexing == null ? SpatialIndexing.GRID : spatialIndexing;
+        this.importFilter = importFilter == null ? ImportFilter.NONE : importFilter;
         this.typedEntities = typedEntities;
         this.size = (int) this.typedEntities.values().stream().mapToLong(Map::size).sum();
 
         log.info("{} built from {} entities", this, size);
 
+        Map<Id, JourneySpecification> previousSpecifications = previous == null
+                ? Collections.emptyMap()
+                : previous.journeySpecifications;
         this.journeySpecifications = stream(JourneyPattern.class)
-                .map(this::journeySpecification)
+                .map(journeyPattern -> reused(
+                        previousSpecifications,
+                        journeyPattern.getId(),
+                        !changedIds.contains(journeyPattern.getId()),
+                        () -> journeySpecification(journeyPattern)))
                 .collect(Collectors.toMap(
                         JourneySpecification::getJourneyPatternId,
                         Function.identity()));
 
-        this.boxedJourneySpecification = new HashMap<>();
-        this.journeySpecifications.values()
-                .forEach(spec -> spec.scaledBoxes(scale)
-                        .forEach(scaledBox -> add(this.boxedJourneySpecification, scaledBox, spec)));
+        // Ordinals are shared: spatial index ordinal == position in orderedSpecifications ==
+        // index into journeysBySpecification. getJourneys(boxes, timespans) depends on it.
+        List<JourneySpecification> orderedSpecifications = this.journeySpecifications.values().stream()
+                .sorted(Comparator.comparingLong(this::cellCode))
+                .collect(Collectors.toList());
+        this.journeySpecificationIndex = ordered(
+                previous != null &&
+                        previous.journeySpecificationIndex instanceof GridIndex<JourneySpecification> grid &&
+                        this.spatialIndexing == SpatialIndexing.GRID
+                        ? grid.refreshed(orderedSpecifications, spec -> spec.cellCodes(this.scale))
+                        : index(orderedSpecifications),
+                orderedSpecifications);
         log.info(
-                "{} indexed {} trips in {} boxes",
+                "{} indexed {} trips: {}",
                 this,
                 journeySpecifications.size(),
-                boxedJourneySpecification.size());
+                journeySpecificationIndex);
 
+        Map<Id, Journey> previousJourneys = previous == null
+                ? Collections.emptyMap()
+                : previous.journeys;
         this.journeys = stream(ServiceJourney.class)
-                .map(serviceJourney -> journey(
-                        serviceJourney,
-                        journeySpecifications::get))
+                .map(serviceJourney -> reused(
+                        previousJourneys,
+                        serviceJourney.getId(),
+                        !changedIds.contains(serviceJourney.getId()) &&
+                                previousSpecifications.get(serviceJourney.getJourneyPatternRef()) ==
+                                        journeySpecifications.get(serviceJourney.getJourneyPatternRef()),
+                        () -> journey(serviceJourney, journeySpecifications::get)))
                 .collect(Collectors.toMap(
                         Journey::getId,
                         Function.identity()));
 
-        this.timespannedJourneys = new HashMap<>();
-        this.journeys.values()
-                .forEach(journey -> journey.scaledTimespans(timescale)
-                        .forEach(timespan -> add(this.timespannedJourneys, timespan, journey)));
+        this.journeyIntervals = new JourneyIntervals(this.journeys.values());
+        this.journeysBySpecification = journeysBySpecification(orderedSpecifications, this.journeyIntervals);
 
         log.info("{} collected {} scheduled trips", this, this.journeys.size());
+
+        this.passages = passages(this.journeyIntervals);
+        this.journeyIndex = journeyIndex(this.passages);
+
+        log.info("{} indexed {} scheduled trips: {}", this, this.journeyIntervals.size(), journeyIndex);
+    }
+
+    public DatabaseImpl refreshed(
+            Map<Class<? extends Entity>, Map<Id, Entity>> typedEntities,
+            Collection<Id> changedIds
+    ) {
+        return new DatabaseImpl(
+                box,
+                scale,
+                timescale,
+                spatialIndexing,
+                importFilter,
+                typedEntities,
+                this,
+                Set.copyOf(changedIds));
     }
 
     @Override
@@ -102,30 +200,56 @@ public final class DatabaseImpl implements Database, Serializable {
         return scale;
     }
 
+    public SpatialIndexing getSpatialIndexing() {
+        return spatialIndexing;
+    }
+
+    public ImportFilter getImportFilter() {
+        return importFilter;
+    }
+
     @Override
     public Box getBox() {
         return box;
     }
 
     @Override
-    public Collection<Journey> getJourneys(Collection<Timespan> boxes) {
-        return null;
-        //        temporallySpatiallyScaled(boxes)
-        //                .flatMap(scaledBox ->
-        //                        boxed(this.temporallyBoxedJourney, scaledBox))
-        //                .filter(journey ->
-        //                        overlapping(boxes, journey))
-        //                .collect(Collectors.toList());
+    public Collection<Journey> getJourneys(Collection<Timespan> timespans) {
+        return journeyIntervals.overlapping(timespans);
+    }
+
+    @Override
+    public Collection<Journey> getJourneys(Collection<Box> boxes, Collection<Timespan> timespans) {
+        Bitmap spatial = new Bitmap();
+        journeySpecificationIndex.ordinals(boxes).forEach(ordinal -> {
+            Bitmap journeys = journeysBySpecification[ordinal];
+            if (journeys != null && overlapping(boxes, journeySpecificationIndex.get(ordinal))) {
+                spatial.addAll(journeys);
+            }
+        });
+        return spatial.isEmpty()
+                ? Collections.emptyList()
+                : journeyIntervals.journeys(spatial.and(journeyIntervals.ordinals(timespans)));
+    }
+
+    @Override
+    public Collection<Journey> getJourneysWithin(Collection<TimeBox> timeBoxes) {
+        Bitmap passing = new Bitmap();
+        for (TimeBox timeBox: timeBoxes) {
+            journeyIndex.ordinals(timeBox.getBox(), timeBox.getTimespan()).forEach(ordinal -> {
+                if (!passing.contains(ordinal) && passages[ordinal].passes(timeBox.getBox(), timeBox.getTimespan())) {
+                    passing.add(ordinal);
+                }
+            });
+        }
+        return journeyIntervals.journeys(passing);
     }
 
     @Override
     public Collection<JourneySpecification> getJourneySpecifications(Collection<Box> boxes) {
-        return spatiallyScaled(boxes)
-                .flatMap(scaledBox ->
-                                 boxed(this.boxedJourneySpecification, scaledBox))
+        return journeySpecificationIndex.candidates(boxes).stream()
                 .filter(journeySpecification ->
                                 overlapping(boxes, journeySpecification))
-                .distinct()
                 .collect(Collectors.toList());
     }
 
@@ -150,37 +274,47 @@ public final class DatabaseImpl implements Database, Serializable {
         return typedEntities;
     }
 
+    Collection<Journey> journeys() {
+        return journeys.values();
+    }
+
     private Journey journey(ServiceJourney serviceJourney, Function<Id, JourneySpecification> patterns) {
+        PassingTimes passingTimes = serviceJourney.getPassingTimes();
+        List<ScheduledStop> scheduledStops = new ArrayList<>(passingTimes.size());
+        for (int i = 0; i < passingTimes.size(); i++) {
+            ScheduledStop scheduledStop = scheduledStop(serviceJourney.getId(), passingTimes, i);
+            if (scheduledStop != null) {
+                scheduledStops.add(scheduledStop);
+            }
+        }
         return new Journey(
                 serviceJourney.getId(),
                 patterns.apply(serviceJourney.getJourneyPatternRef()),
-                serviceJourney.getPassingTimes().stream()
-                        .map(this::scheduledStop)
-                        .collect(Collectors.toList()));
+                scheduledStops);
     }
 
-    private ScheduledStop scheduledStop(TimetabledPassingTime timetabledPassingTime) {
+    private ScheduledStop scheduledStop(Id journeyId, PassingTimes passingTimes, int index) {
+        Id stopPointRef = passingTimes.getStopPointRef(index);
         StopPointInJourneyPattern stopPointInJourneyPattern =
-                getEntity(StopPointInJourneyPattern.class, timetabledPassingTime.getStopPointInJourneyPatternRef());
+                getEntity(StopPointInJourneyPattern.class, stopPointRef);
         ScheduledStopPoint scheduledStopPoint = stopPointInJourneyPattern == null
                 ? null
                 : getEntity(ScheduledStopPoint.class, stopPointInJourneyPattern.getScheduledStopPointRef());
+        if (scheduledStopPoint == null) {
+            return null;
+        }
         return new ScheduledStop(
-                timetabledPassingTime.getId(),
+                passingTimes.hasIds() ? passingTimes.getId(index) : scheduledStopId(journeyId, index),
                 scheduledStopPoint,
-                new Timespan(
-                        timetabledPassingTime.getArrivalTime(),
-                        timetabledPassingTime.getArrivalDayOffset(),
-                        timetabledPassingTime.getDepartureTime(),
-                        timetabledPassingTime.getDepartureDayOffset()));
+                passingTimes.getTimespan(index));
     }
 
-    private boolean overlapping(Collection<Box> boxes, Boxed boxable) {
-        return boxes.stream().anyMatch(boxable::overlaps);
+    private static Id scheduledStopId(Id journeyId, int index) {
+        return Id.id(journeyId.getOperator(), ScheduledStop.class.getSimpleName(), journeyId.getId() + "#" + index);
     }
 
-    private boolean overlapping(Collection<Timespan> boxes, Journey journey) {
-        return boxes.stream().anyMatch(journey::overlaps);
+    private boolean overlapping(Collection<Box> boxes, Boxed boxable) {
+        return boxes.stream().anyMatch(boxable::overlaps);
     }
 
     private <E extends Entity> Stream<E> stream(Class<E> type) {
@@ -193,7 +327,7 @@ public final class DatabaseImpl implements Database, Serializable {
 
     @SuppressWarnings("unchecked")
     private <E extends Entity> Map<Id, E> getEntityMap(Class<E> type) {
-        return (Map<Id, E>) typedEntities.get(type);
+        return (Map<Id, E>) typedEntities.getOrDefault(type, Collections.emptyMap());
     }
 
     private <E extends Entity> E getEntity(Class<E> type, Id id) {
@@ -201,7 +335,7 @@ public final class DatabaseImpl implements Database, Serializable {
             return null;
         }
         if (id.is(type)) {
-            Entity obj = typedEntities.get(type).get(id);
+            Entity obj = getEntityMap(type).get(id);
             if (obj == null) {
                 return null;
             }
@@ -239,35 +373,110 @@ public final class DatabaseImpl implements Database, Serializable {
     }
 
     private Collection<Map.Entry<ServiceLinkInJourneyPattern, ServiceLeg>> serviceLegs(JourneyPattern journeyPattern) {
-        return journeyPattern.getLinksInSequence().stream().sorted().map(sequencedInJourneyPattern -> {
+        List<Map.Entry<ServiceLinkInJourneyPattern, ServiceLeg>> serviceLegs = new ArrayList<>();
+        journeyPattern.getLinksInSequence().stream().sorted().forEach(sequencedInJourneyPattern -> {
             ServiceLink serviceLink =
                     getEntity(ServiceLink.class, sequencedInJourneyPattern.getServiceLinkRef());
             if (serviceLink == null) {
-                log.warn("No service link found: {} => {}", journeyPattern, sequencedInJourneyPattern);
+                log.debug("No service link found: {} => {}", journeyPattern, sequencedInJourneyPattern);
+                return;
             }
-            return new AbstractMap.SimpleEntry<>(
+            serviceLegs.add(new AbstractMap.SimpleEntry<>(
                     sequencedInJourneyPattern,
-                    serviceLink == null ? null : new ServiceLeg(
+                    new ServiceLeg(
                             serviceLink.getId(),
                             getEntity(ScheduledStopPoint.class, serviceLink.getFromPoint()),
                             getEntity(ScheduledStopPoint.class, serviceLink.getToPoint()),
                             serviceLink,
-                            sequencedInJourneyPattern.getOrder()));
-        }).collect(Collectors.toList());
+                            sequencedInJourneyPattern.getOrder())));
+        });
+        return serviceLegs;
+    }
+
+
+    private long cellCode(JourneySpecification journeySpecification) {
+        return journeySpecification.getBox()
+                .map(box -> Cells.code(scale, box.min()))
+                .orElse(Long.MAX_VALUE);
+    }
+
+    private SpatialIndex<JourneySpecification> index(Collection<JourneySpecification> journeySpecifications) {
+        switch (spatialIndexing) {
+            case RTREE:
+                return new RTreeIndex<>(journeySpecifications, JourneySpecification::legBoxes);
+            case QUADTREE:
+                return new QuadTreeIndex<>(scale, journeySpecifications, JourneySpecification::cellCodes);
+        }
+        return new GridIndex<>(scale, journeySpecifications, spec -> spec.cellCodes(scale));
+    }
+
+    private static SpatialIndex<JourneySpecification> ordered(
+            SpatialIndex<JourneySpecification> index,
+            List<JourneySpecification> orderedSpecifications
+    ) {
+        for (int ordinal = 0; ordinal < orderedSpecifications.size(); ordinal++) {
+            if (index.get(ordinal) != orderedSpecifications.get(ordinal)) {
+                throw new IllegalStateException(index + " reordered specification #" + ordinal);
+            }
+        }
+        return index;
     }
 
+    private SpaceTimeIndex journeyIndex(Passages[] passages) {
+        SpaceTimeIndex journeyIndex = new SpaceTimeIndex(scale, timescale);
+        for (int ordinal = 0; ordinal < passages.length; ordinal++) {
+            int journeyOrdinal = ordinal;
+            passages[ordinal].forEachCell(
+                    scale,
+                    (cell, startSeconds, endSeconds) ->
+                            journeyIndex.add(journeyOrdinal, cell, startSeconds, endSeconds));
+        }
+        journeyIndex.trim();
+        return journeyIndex;
+    }
 
-    private Stream<Box> spatiallyScaled(Collection<Box> boxes) {
-        return boxes.stream().flatMap(box -> box.getScaledBoxes(scale));
+    private static Passages[] passages(JourneyIntervals journeyIntervals) {
+        Passages[] passages = new Passages[journeyIntervals.size()];
+        for (int ordinal = 0; ordinal < passages.length; ordinal++) {
+            passages[ordinal] = Passages.of(journeyIntervals.get(ordinal));
+        }
+        return passages;
     }
 
-    //
-    //    private Stream<Timespan> temporallySpatiallyScaled(Collection<Timespan> boxes) {
-    //        return boxes.stream().flatMap(box -> box.scaledBoxes(scale, timescale));
-    //    }
+    private static Bitmap[] journeysBySpecification(
+            List<JourneySpecification> journeySpecifications,
+            JourneyIntervals journeyIntervals
+    ) {
+        Map<JourneySpecification, Integer> ordinals = new IdentityHashMap<>(journeySpecifications.size());
+        for (int ordinal = 0; ordinal < journeySpecifications.size(); ordinal++) {
+            ordinals.put(journeySpecifications.get(ordinal), ordinal);
+        }
+        Bitmap[] journeys = new Bitmap[journeySpecifications.size()];
+        for (int ordinal = 0; ordinal < journeyIntervals.size(); ordinal++) {
+            Integer specification = ordinals.get(journeyIntervals.get(ordinal).getJourneySpecification());
+            if (specification != null) {
+                if (journeys[specification] == null) {
+                    journeys[specification] = new Bitmap();
+                }
+                journeys[specification].add(ordinal);
+            }
+        }
+        for (Bitmap bitmap: journeys) {
+            if (bitmap != null) {
+                bitmap.trim();
+            }
+        }
+        return journeys;
+    }
 
-    private <K, T> Stream<T> boxed(Map<K, Collection<T>> boxed, K box) {
-        return Optional.ofNullable(boxed.get(box)).map(Collection::stream).stream().flatMap(s -> s);
+    private static <T> T reused(
+            Map<Id, T> previous,
+            Id id,
+            boolean reusable,
+            Supplier<T> rebuilt
+    ) {
+        T existing = reusable ? previous.get(id) : null;
+        return existing == null ? rebuilt.get() : existing;
     }
 
     private static HashMap<Class<? extends Entity>, Map<Id, Entity>> map(Stream<Entity> entities) {
@@ -279,8 +488,4 @@ public final class DatabaseImpl implements Database, Serializable {
                         Function.identity()
                 )));
     }
-
-    private static <K, V> void add(Map<K, Collection<V>> map, K key, V item) {
-        map.computeIfAbsent(key, __ -> new HashSet<>()).add(item);
-    }
 }
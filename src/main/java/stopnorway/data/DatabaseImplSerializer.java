@@ -4,48 +4,26 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import stopnorway.database.AbstractSerializer;
-import stopnorway.database.Entity;
-import stopnorway.database.Id;
-import stopnorway.entur.*;
 import stopnorway.geo.Box;
 import stopnorway.geo.Scale;
+import stopnorway.geo.Timespan;
+import stopnorway.index.SpatialIndexing;
 
 import java.time.Duration;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public final class DatabaseImplSerializer extends AbstractSerializer<DatabaseImpl> {
 
-    private static final List<Class<? extends Entity>> ENTITY_TYPES = Arrays.asList(
-            StopPointInJourneyPattern.class,
-            ServiceLinkInJourneyPattern.class,
-            Route.class,
-            ServiceLink.class,
-            JourneyPattern.class,
-            RoutePoint.class,
-            TimetabledPassingTime.class,
-            ServiceJourney.class,
-            PointOnRoute.class,
-            PointProjection.class,
-            ScheduledStopPoint.class,
-            LinkSequenceProjection.class,
-            Line.class);
+    private final TypedEntitiesSerializer typedEntitiesSerializer = new TypedEntitiesSerializer();
 
     @Override
     public void write(Kryo kryo, Output output, DatabaseImpl object) {
         kryo.writeObject(output, object.getBox());
         kryo.writeObject(output, object.getScale());
         kryo.writeObject(output, object.getTimescale());
-        Map<Class<? extends Entity>, Map<Id, Entity>> typedEntities = object.getTypedEntities();
-        ENTITY_TYPES.forEach(
-                entityType -> writeList(
-                        kryo,
-                        output,
-                        typedEntities.get(entityType).values()));
+        output.writeVarInt(object.getSpatialIndexing().ordinal(), true);
+        kryo.writeObjectOrNull(output, object.getImportFilter().getBox().orElse(null), Box.class);
+        kryo.writeObjectOrNull(output, object.getImportFilter().getWindow().orElse(null), Timespan.class);
+        typedEntitiesSerializer.write(kryo, output, new TypedEntities(object.getTypedEntities()));
     }
 
     @Override
@@ -53,15 +31,12 @@ public final class DatabaseImplSerializer extends AbstractSerializer<DatabaseImp
         Box box = kryo.readObject(input, Box.class);
         Scale scale = kryo.readObject(input, Scale.class);
         Duration timescale = kryo.readObject(input, Duration.class);
-        Map<Class<? extends Entity>, Map<Id, Entity>> typedEntities = new HashMap<>();
-        ENTITY_TYPES.forEach(
-                entityType -> typedEntities.put(
-                        entityType,
-                        readStream(kryo, input, entityType)
-                                .collect(Collectors.toMap(
-                                        Entity::getId,
-                                        Function.identity()))));
-        return new DatabaseImpl(box, scale, timescale, typedEntities);
+        SpatialIndexing spatialIndexing = SpatialIndexing.values()[input.readVarInt(true)];
+        ImportFilter importFilter = ImportFilter.NONE
+                .withBox(kryo.readObjectOrNull(input, Box.class))
+                .withWindow(kryo.readObjectOrNull(input, Timespan.class));
+        TypedEntities typedEntities = typedEntitiesSerializer.read(kryo, input, TypedEntities.class);
+        return new DatabaseImpl(box, scale, timescale, spatialIndexing, importFilter, typedEntities.get());
     }
 
 }
@@ -0,0 +1,264 @@
+package stopnorway.data;
+
+import stopnorway.database.Entity;
+import stopnorway.database.Id;
+import stopnorway.entur.*;
+import stopnorway.geo.Box;
+import stopnorway.geo.PointSequence;
+import stopnorway.geo.Timespan;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public final class ImportFilter {
+
+    public static final ImportFilter NONE = new ImportFilter(null, null);
+
+    private final Box box;
+
+    private final Timespan window;
+
+    private ImportFilter(Box box, Timespan window) {
+        this.box = box;
+        this.window = window;
+    }
+
+    public ImportFilter withBox(Box box) {
+        return new ImportFilter(box, window);
+    }
+
+    public ImportFilter withWindow(Timespan window) {
+        return new ImportFilter(box, window);
+    }
+
+    public Optional<Box> getBox() {
+        return Optional.ofNullable(box);
+    }
+
+    public Optional<Timespan> getWindow() {
+        return Optional.ofNullable(window);
+    }
+
+    public boolean isNone() {
+        return box == null && window == null;
+    }
+
+    public Map<Class<? extends Entity>, Map<Id, Entity>> apply(Map<Class<? extends Entity>, Map<Id, Entity>> entities) {
+        if (isNone()) {
+            return entities;
+        }
+        Map<Id, ServiceLink> linksInBox = filtered(entities, ServiceLink.class, this::inBox);
+        Map<Id, JourneyPattern> journeyPatterns = filtered(
+                entities,
+                JourneyPattern.class,
+                pattern -> box == null || pattern.getLinksInSequence().stream()
+                        .map(ServiceLinkInJourneyPattern::getServiceLinkRef)
+                        .anyMatch(linksInBox::containsKey));
+        Map<Id, ServiceJourney> serviceJourneys = filtered(
+                entities,
+                ServiceJourney.class,
+                journey -> journeyPatterns.containsKey(journey.getJourneyPatternRef()) && inWindow(journey));
+        if (window != null) {
+            Set<Id> travelledPatterns = serviceJourneys.values().stream()
+                    .map(ServiceJourney::getJourneyPatternRef)
+                    .collect(Collectors.toSet());
+            journeyPatterns.keySet().retainAll(travelledPatterns);
+        }
+        Set<Id> serviceLinkRefs = journeyPatterns.values().stream()
+                .flatMap(pattern -> pattern.getLinksInSequence().stream())
+                .map(ServiceLinkInJourneyPattern::getServiceLinkRef)
+                .collect(Collectors.toSet());
+        Map<Id, ServiceLink> serviceLinks = filtered(
+                entities,
+                ServiceLink.class,
+                serviceLink -> serviceLinkRefs.contains(serviceLink.getId()));
+        Set<Id> routeRefs = journeyPatterns.values().stream()
+                .map(JourneyPattern::getRouteRef)
+                .collect(Collectors.toSet());
+        Map<Id, Route> routes = filtered(entities, Route.class, route -> routeRefs.contains(route.getId()));
+
+        Set<Id> lineRefs = new HashSet<>();
+        routes.values().forEach(route -> lineRefs.add(route.getLineRef()));
+        serviceJourneys.values().forEach(journey -> lineRefs.add(journey.getLineRef()));
+
+        Set<Id> scheduledStopPointRefs = new HashSet<>();
+        serviceLinks.values().forEach(serviceLink -> {
+            scheduledStopPointRefs.add(serviceLink.getFromPoint());
+            scheduledStopPointRefs.add(serviceLink.getToPoint());
+        });
+        journeyPatterns.values().forEach(pattern -> pattern.getPointsInSequence().forEach(stopPoint ->
+                scheduledStopPointRefs.add(stopPoint.getScheduledStopPointRef())));
+
+        Set<Id> routePointRefs = routes.values().stream()
+                .flatMap(route -> route.getPointsInSequence().stream())
+                .map(PointOnRoute::getRoutePoint)
+                .collect(Collectors.toSet());
+        Map<Id, RoutePoint> routePoints = filtered(
+                entities,
+                RoutePoint.class,
+                routePoint -> routePointRefs.contains(routePoint.getId()));
+
+        Map<Class<? extends Entity>, Map<Id, Entity>> result = new HashMap<>();
+        put(result, ServiceLink.class, serviceLinks);
+        put(result, JourneyPattern.class, journeyPatterns);
+        put(result, ServiceJourney.class, serviceJourneys);
+        put(result, Route.class, routes);
+        put(result, RoutePoint.class, routePoints);
+        put(result, Line.class, filtered(entities, Line.class, line -> lineRefs.contains(line.getId())));
+        put(result, ScheduledStopPoint.class, filtered(
+                entities,
+                ScheduledStopPoint.class,
+                stopPoint -> scheduledStopPointRefs.contains(stopPoint.getId())));
+        put(result, StopPointInJourneyPattern.class, owned(
+                entities,
+                StopPointInJourneyPattern.class,
+                journeyPatterns.values(),
+                JourneyPattern::getPointsInSequence));
+        put(result, ServiceLinkInJourneyPattern.class, owned(
+                entities,
+                ServiceLinkInJourneyPattern.class,
+                journeyPatterns.values(),
+                JourneyPattern::getLinksInSequence));
+        put(result, PointOnRoute.class, owned(
+                entities,
+                PointOnRoute.class,
+                routes.values(),
+                Route::getPointsInSequence));
+        put(result, PointProjection.class, owned(
+                entities,
+                PointProjection.class,
+                routePoints.values(),
+                RoutePoint::getProjections));
+        put(result, LinkSequenceProjection.class, owned(
+                entities,
+                LinkSequenceProjection.class,
+                serviceLinks.values(),
+                ServiceLink::getProjections));
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof ImportFilter &&
+                Objects.equals(box, ((ImportFilter) o).box) &&
+                Objects.equals(window, ((ImportFilter) o).window);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(box, window);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" +
+                (box == null ? "" : box) +
+                (box == null || window == null ? "" : " ") +
+                (window == null ? "" : window) +
+                "]";
+    }
+
+    private boolean inBox(ServiceLink serviceLink) {
+        if (box == null) {
+            return true;
+        }
+        int minLat = box.min().intLat();
+        int minLon = box.min().intLon();
+        int maxLat = box.max().intLat();
+        int maxLon = box.max().intLon();
+        double[] range = new double[2];
+        for (LinkSequenceProjection projection: serviceLink.getProjections()) {
+            PointSequence points = projection.getPoints();
+            if (points.isEmpty()) {
+                continue;
+            }
+            for (int i = 0; i < Math.max(1, points.size() - 1); i++) {
+                int next = Math.min(i + 1, points.size() - 1);
+                if (Passages.crosses(
+                        points.intLat(i),
+                        points.intLon(i),
+                        points.intLat(next),
+                        points.intLon(next),
+                        minLat,
+                        minLon,
+                        maxLat,
+                        maxLon,
+                        range)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean inWindow(ServiceJourney serviceJourney) {
+        if (window == null) {
+            return true;
+        }
+        PassingTimes passingTimes = serviceJourney.getPassingTimes();
+        int start = Integer.MAX_VALUE;
+        int end = Integer.MIN_VALUE;
+        for (int i = 0; i < passingTimes.size(); i++) {
+            int arrival = passingTimes.getArrivalSeconds(i);
+            int departure = passingTimes.getDepartureSeconds(i);
+            if (arrival != Timespan.NO_TIME) {
+                start = Math.min(start, arrival);
+                end = Math.max(end, arrival);
+            }
+            if (departure != Timespan.NO_TIME) {
+                start = Math.min(start, departure);
+                end = Math.max(end, departure);
+            }
+        }
+        if (start > end) {
+            return false;
+        }
+        return overlaps(start, end) ||
+                end >= Timespan.SECONDS_PER_DAY &&
+                        overlaps(start - Timespan.SECONDS_PER_DAY, end - Timespan.SECONDS_PER_DAY);
+    }
+
+    private boolean overlaps(int start, int end) {
+        return start <= window.getEndSeconds() && window.getStartSeconds() <= end;
+    }
+
+    private static <O extends Entity, E extends Entity> Map<Id, E> owned(
+            Map<Class<? extends Entity>, Map<Id, Entity>> entities,
+            Class<E> type,
+            Collection<O> owners,
+            Function<O, Collection<? extends Entity>> children
+    ) {
+        Set<Id> ids = owners.stream()
+                .flatMap(owner -> children.apply(owner).stream())
+                .map(Entity::getId)
+                .collect(Collectors.toSet());
+        return filtered(entities, type, entity -> ids.contains(entity.getId()));
+    }
+
+    private static <E extends Entity> Map<Id, E> filtered(
+            Map<Class<? extends Entity>, Map<Id, Entity>> entities,
+            Class<E> type,
+            Predicate<E> predicate
+    ) {
+        Map<Id, E> filtered = new HashMap<>();
+        entities.getOrDefault(type, Collections.emptyMap()).forEach((id, entity) -> {
+            E typed = type.cast(entity);
+            if (predicate.test(typed)) {
+                filtered.put(id, typed);
+            }
+        });
+        return filtered;
+    }
+
+    private static void put(
+            Map<Class<? extends Entity>, Map<Id, Entity>> result,
+            Class<? extends Entity> type,
+            Map<Id, ? extends Entity> entities
+    ) {
+        if (!entities.isEmpty()) {
+            result.put(type, new HashMap<>(entities));
+        }
+    }
+}
@@ -10,12 +10,10 @@ import stopnorway.geo.Box;
 import stopnorway.geo.Timespan;
 import stopnorway.util.Safe;
 
-import java.time.Duration;
 import java.time.LocalTime;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public final class Journey extends AbstractIdentified implements Boxed, Named, Comparable<Journey> {
 
@@ -44,7 +42,9 @@ public final class Journey extends AbstractIdentified implements Boxed, Named, C
                 scheduledStop -> scheduledStop.getStopPoint().getId());
 
         this.scheduledStops = scheduledStopPointRefs.stream()
-                .map(id -> groups.get(id).removeFirst())
+                .map(groups::get)
+                .filter(group -> group != null && !group.isEmpty())
+                .map(LinkedList::removeFirst)
                 .collect(Collectors.toCollection(LinkedList::new));
         this.box = this.journeySpecification.getBox().orElse(null);
     }
@@ -54,6 +54,10 @@ public final class Journey extends AbstractIdentified implements Boxed, Named, C
         return Optional.ofNullable(box);
     }
 
+    public JourneySpecification getJourneySpecification() {
+        return journeySpecification;
+    }
+
     public Optional<LocalTime> getStartTime() {
         return departureStop()
                 .map(ScheduledStop::getTimespan)
@@ -91,24 +95,18 @@ public final class Journey extends AbstractIdentified implements Boxed, Named, C
                         : getStartTime().flatMap(localTime -> o.getStartTime().map(localTime::compareTo)).orElse(0);
     }
 
-    public Stream<Timespan> scaledTimespans(Duration duration) {
+    public Optional<Timespan> getTimespan() {
         return departureStop()
-                .flatMap(depatureStop -> lastStop()
-                        .map(lastStop -> depatureStop.getTimespan().combined(lastStop.getTimespan())))
-                .stream()
-                .flatMap(timespan -> timespan.timespans(duration));
+                .flatMap(departureStop -> lastStop()
+                        .map(lastStop -> departureStop.getTimespan().combined(lastStop.getTimespan())));
     }
 
-    boolean overlaps(Timespan temporalBox) {
-        return getStartTime()
-                .flatMap(start -> getEndTime()
-                        .map(end -> {
-                            LocalTime boxStart = temporalBox.getStart();
-                            LocalTime boxEnd = temporalBox.getEnd();
-                            return start.isBefore(boxStart) && end.isAfter(boxStart) ||
-                                    start.isBefore(boxEnd) && end.isAfter(boxEnd);
-                        })
-                ).isPresent();
+    boolean overlaps(Timespan timespan) {
+        return getTimespan()
+                .filter(span -> span.overlaps(timespan) || span.overlaps(new Timespan(
+                        timespan.getStartSeconds() + Timespan.SECONDS_PER_DAY,
+                        timespan.getEndSeconds() + Timespan.SECONDS_PER_DAY)))
+                .isPresent();
     }
 
 
@@ -118,7 +116,7 @@ public final class Journey extends AbstractIdentified implements Boxed, Named, C
 
 
     private Optional<ScheduledStop> lastStop() {
-        return Optional.ofNullable(this.scheduledStops.getLast());
+        return scheduledStops.isEmpty() ? Optional.empty() : Optional.ofNullable(scheduledStops.getLast());
     }
 
     private static <K, V extends Comparable<V>> Map<K, LinkedList<V>> group(
@@ -0,0 +1,110 @@
+package stopnorway.data;
+
+import stopnorway.geo.Timespan;
+import stopnorway.index.Bitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+final class JourneyIntervals {
+
+    private final Journey[] journeys;
+
+    private final int[] starts;
+
+    private final int[] ends;
+
+    private final int[] maxEnds;
+
+    JourneyIntervals(Collection<Journey> journeys) {
+        List<Journey> spanned = new ArrayList<>(journeys.size());
+        List<Timespan> timespans = new ArrayList<>(journeys.size());
+        journeys.forEach(journey -> journey.getTimespan().ifPresent(timespan -> {
+            spanned.add(journey);
+            timespans.add(timespan);
+        }));
+        long[] order = new long[spanned.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = (long) timespans.get(i).getStartSeconds() << 32 | i;
+        }
+        Arrays.sort(order);
+
+        this.journeys = new Journey[order.length];
+        this.starts = new int[order.length];
+        this.ends = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            int index = (int) order[i];
+            this.journeys[i] = spanned.get(index);
+            this.starts[i] = timespans.get(index).getStartSeconds();
+            this.ends[i] = timespans.get(index).getEndSeconds();
+        }
+        this.maxEnds = new int[order.length];
+        maxEnd(0, order.length);
+    }
+
+    Collection<Journey> overlapping(Collection<Timespan> timespans) {
+        return journeys(ordinals(timespans));
+    }
+
+    Bitmap ordinals(Collection<Timespan> timespans) {
+        Bitmap hits = new Bitmap();
+        for (Timespan timespan: timespans) {
+            collect(0, journeys.length, timespan.getStartSeconds(), timespan.getEndSeconds(), hits);
+            collect(
+                    0,
+                    journeys.length,
+                    timespan.getStartSeconds() + Timespan.SECONDS_PER_DAY,
+                    timespan.getEndSeconds() + Timespan.SECONDS_PER_DAY,
+                    hits);
+        }
+        return hits;
+    }
+
+    Collection<Journey> journeys(Bitmap ordinals) {
+        List<Journey> journeys = new ArrayList<>(ordinals.cardinality());
+        ordinals.forEach(ordinal -> journeys.add(this.journeys[ordinal]));
+        return journeys;
+    }
+
+    Journey get(int ordinal) {
+        return journeys[ordinal];
+    }
+
+    int size() {
+        return journeys.length;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + journeys.length + "]";
+    }
+
+    private int maxEnd(int from, int to) {
+        if (from >= to) {
+            return Integer.MIN_VALUE;
+        }
+        int mid = (from + to) >>> 1;
+        maxEnds[mid] = Math.max(ends[mid], Math.max(maxEnd(from, mid), maxEnd(mid + 1, to)));
+        return maxEnds[mid];
+    }
+
+    private void collect(int from, int to, int start, int end, Bitmap hits) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        if (maxEnds[mid] < start) {
+            return;
+        }
+        collect(from, mid, start, end, hits);
+        if (starts[mid] > end) {
+            return;
+        }
+        if (ends[mid] >= start) {
+            hits.add(mid);
+        }
+        collect(mid + 1, to, start, end, hits);
+    }
+}
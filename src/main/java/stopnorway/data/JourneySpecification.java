@@ -6,15 +6,17 @@ import stopnorway.database.Id;
 import stopnorway.database.Named;
 import stopnorway.entur.*;
 import stopnorway.geo.Box;
-import stopnorway.geo.Point;
+import stopnorway.geo.PointSequence;
 import stopnorway.geo.Scale;
 import stopnorway.util.Accept;
 
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public class JourneySpecification extends AbstractIdentified implements Serializable, Boxed, Named {
@@ -47,6 +49,7 @@ public class JourneySpecification extends AbstractIdentified implements Serializ
         this.serviceLegs = Accept.list(serviceLegs);
         this.box = this.serviceLegs.stream()
                 .map(Map.Entry::getValue)
+                .filter(Objects::nonNull)
                 .map(Boxed::getBox)
                 .flatMap(Optional::stream)
                 .reduce(Box::combined)
@@ -77,23 +80,30 @@ public class JourneySpecification extends AbstractIdentified implements Serializ
         return getId();
     }
 
-    public Collection<Point> points() {
-        return serviceLegs.stream()
+    public PointSequence points() {
+        return PointSequence.concat(serviceLegs.stream()
                 .map(Map.Entry::getValue)
                 .map(ServiceLeg::getServiceLink)
                 .map(ServiceLink::getProjections)
                 .flatMap(Collection::stream)
-                .map(LinkSequenceProjection::getTrajectory)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+                .map(LinkSequenceProjection::getPoints)
+                .collect(Collectors.toList()));
+    }
+
+    public Stream<Box> legBoxes() {
+        return serviceLegs.stream()
+                .map(Map.Entry::getValue)
+                .filter(Objects::nonNull)
+                .map(ServiceLeg::getBox)
+                .flatMap(Optional::stream);
     }
 
-    public Stream<Box> scaledBoxes(Scale scale) {
+    public LongStream cellCodes(Scale scale) {
         return serviceLegs.stream()
                 .map(Map.Entry::getValue)
-                .flatMap(serviceLeg -> serviceLeg.scaledBoxes(scale))
-                .distinct()
-                .sorted();
+                .filter(Objects::nonNull)
+                .flatMapToLong(serviceLeg -> serviceLeg.cellCodes(scale))
+                .distinct();
     }
 
     @Override
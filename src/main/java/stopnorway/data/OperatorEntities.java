@@ -0,0 +1,31 @@
+package stopnorway.data;
+
+import stopnorway.database.Entity;
+import stopnorway.database.EntitySink;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class OperatorEntities implements EntitySink {
+
+    private final Map<Enum<?>, TypedEntities> operatorEntities = new LinkedHashMap<>();
+
+    public OperatorEntities(Collection<? extends Enum<?>> operators) {
+        operators.forEach(operator -> operatorEntities.put(operator, new TypedEntities()));
+    }
+
+    @Override
+    public void accept(Enum<?> operator, Collection<Entity> entities) {
+        operatorEntities.computeIfAbsent(operator, __ -> new TypedEntities()).accept(operator, entities);
+    }
+
+    public Map<Enum<?>, TypedEntities> get() {
+        return operatorEntities;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + operatorEntities + "]";
+    }
+}
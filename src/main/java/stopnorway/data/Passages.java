@@ -0,0 +1,283 @@
+package stopnorway.data;
+
+import stopnorway.database.Id;
+import stopnorway.entur.ServiceLinkInJourneyPattern;
+import stopnorway.geo.Box;
+import stopnorway.geo.Cells;
+import stopnorway.geo.CodedPoint;
+import stopnorway.geo.PointSequence;
+import stopnorway.geo.Scale;
+import stopnorway.geo.SegmentCursor;
+import stopnorway.geo.Timespan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+final class Passages {
+
+    private final int[] lats;
+
+    private final int[] lons;
+
+    private final int[] seconds;
+
+    private final int size;
+
+    private Passages(int[] lats, int[] lons, int[] seconds, int size) {
+        this.lats = lats;
+        this.lons = lons;
+        this.seconds = seconds;
+        this.size = size;
+    }
+
+    static Passages of(Journey journey) {
+        List<ScheduledStop> stops = new ArrayList<>(journey.getScheduledStops());
+        Builder builder = new Builder();
+        int stopIndex = 0;
+        for (Map.Entry<ServiceLinkInJourneyPattern, ServiceLeg> entry:
+                journey.getJourneySpecification().getServiceLegs()) {
+            ServiceLeg serviceLeg = entry.getValue();
+            if (serviceLeg == null) {
+                continue;
+            }
+            int from = indexOf(stops, serviceLeg.getFrom().getId(), stopIndex);
+            int to = from < 0 ? -1 : indexOf(stops, serviceLeg.getTo().getId(), from + 1);
+            if (to < 0) {
+                continue;
+            }
+            stopIndex = to;
+            Timespan departure = stops.get(from).getTimespan();
+            Timespan arrival = stops.get(to).getTimespan();
+            if (departure != null && arrival != null) {
+                builder.add(
+                        serviceLeg.getTrajectory(),
+                        departure.getEndSeconds(),
+                        Math.max(departure.getEndSeconds(), arrival.getStartSeconds()));
+            }
+        }
+        return builder.build();
+    }
+
+    int size() {
+        return size;
+    }
+
+    int intLat(int index) {
+        return lats[index];
+    }
+
+    int intLon(int index) {
+        return lons[index];
+    }
+
+    int seconds(int index) {
+        return seconds[index];
+    }
+
+    void forEachCell(Scale scale, CellVisitor visitor) {
+        if (size == 0) {
+            return;
+        }
+        if (size == 1) {
+            visitor.visit(Cells.code(scale, lats[0], lons[0]), seconds[0], seconds[0]);
+            return;
+        }
+        Run run = new Run(visitor);
+        SegmentCursor cursor = new SegmentCursor(scale);
+        for (int i = 0; i < size - 1; i++) {
+            int duration = seconds[i + 1] - seconds[i];
+            cursor.over(lats[i], lons[i], lats[i + 1], lons[i + 1]);
+            while (cursor.next()) {
+                run.add(
+                        cursor.code(),
+                        seconds[i] + (int) Math.floor(cursor.entry() * duration),
+                        seconds[i] + (int) Math.ceil(cursor.exit() * duration));
+            }
+        }
+        run.flush();
+    }
+
+    boolean passes(Box box, Timespan timespan) {
+        return passes(box, timespan.getStartSeconds(), timespan.getEndSeconds()) || passes(
+                box,
+                timespan.getStartSeconds() + Timespan.SECONDS_PER_DAY,
+                timespan.getEndSeconds() + Timespan.SECONDS_PER_DAY);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + size + (size == 0 ? "" : " " +
+                new Timespan(seconds[0], seconds[size - 1])) + "]";
+    }
+
+    private boolean passes(Box box, int startSeconds, int endSeconds) {
+        int minLat = box.min().intLat();
+        int minLon = box.min().intLon();
+        int maxLat = box.max().intLat();
+        int maxLon = box.max().intLon();
+        if (size == 1) {
+            return minLat <= lats[0] && lats[0] <= maxLat && minLon <= lons[0] && lons[0] <= maxLon &&
+                    startSeconds <= seconds[0] && seconds[0] <= endSeconds;
+        }
+        double[] range = new double[2];
+        for (int i = 0; i < size - 1; i++) {
+            if (seconds[i + 1] < startSeconds || seconds[i] > endSeconds) {
+                continue;
+            }
+            if (crosses(lats[i], lons[i], lats[i + 1], lons[i + 1], minLat, minLon, maxLat, maxLon, range)) {
+                int duration = seconds[i + 1] - seconds[i];
+                double entered = seconds[i] + range[0] * duration;
+                double exited = seconds[i] + range[1] * duration;
+                if (entered <= endSeconds && startSeconds <= exited) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static boolean crosses(
+            int fromLat,
+            int fromLon,
+            int toLat,
+            int toLon,
+            int minLat,
+            int minLon,
+            int maxLat,
+            int maxLon,
+            double[] range
+    ) {
+        double latDelta = toLat - fromLat;
+        double lonDelta = toLon - fromLon;
+        range[0] = 0.0d;
+        range[1] = 1.0d;
+        return clip(-latDelta, fromLat - minLat, range) &&
+                clip(latDelta, maxLat - fromLat, range) &&
+                clip(-lonDelta, fromLon - minLon, range) &&
+                clip(lonDelta, maxLon - fromLon, range);
+    }
+
+    private static boolean clip(double direction, double distance, double[] range) {
+        if (direction == 0.0d) {
+            return distance >= 0.0d;
+        }
+        double ratio = distance / direction;
+        if (direction < 0.0d) {
+            if (ratio > range[1]) {
+                return false;
+            }
+            range[0] = Math.max(range[0], ratio);
+        } else {
+            if (ratio < range[0]) {
+                return false;
+            }
+            range[1] = Math.min(range[1], ratio);
+        }
+        return true;
+    }
+
+    private static int indexOf(List<ScheduledStop> stops, Id stopPointId, int from) {
+        for (int i = from; i < stops.size(); i++) {
+            if (stops.get(i).getStopPoint().getId().equals(stopPointId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @FunctionalInterface
+    interface CellVisitor {
+
+        void visit(long cell, int startSeconds, int endSeconds);
+    }
+
+    private static final class Run {
+
+        private final CellVisitor visitor;
+
+        private boolean active;
+
+        private long cell;
+
+        private int startSeconds;
+
+        private int endSeconds;
+
+        private Run(CellVisitor visitor) {
+            this.visitor = visitor;
+        }
+
+        private void add(long cell, int startSeconds, int endSeconds) {
+            if (active && this.cell == cell) {
+                this.startSeconds = Math.min(this.startSeconds, startSeconds);
+                this.endSeconds = Math.max(this.endSeconds, endSeconds);
+                return;
+            }
+            flush();
+            this.active = true;
+            this.cell = cell;
+            this.startSeconds = startSeconds;
+            this.endSeconds = endSeconds;
+        }
+
+        private void flush() {
+            if (active) {
+                visitor.visit(cell, startSeconds, endSeconds);
+                active = false;
+            }
+        }
+    }
+
+    private static final class Builder {
+
+        private int[] lats = new int[16];
+
+        private int[] lons = new int[16];
+
+        private int[] seconds = new int[16];
+
+        private int size;
+
+        private void add(PointSequence trajectory, int departure, int arrival) {
+            if (trajectory.isEmpty()) {
+                return;
+            }
+            double lonFactor = Math.cos(Math.toRadians(1.0d * trajectory.intLat(0) / CodedPoint.DEFAULT_DIMENSION));
+            double[] distances = new double[trajectory.size()];
+            for (int i = 1; i < trajectory.size(); i++) {
+                double latDelta = trajectory.intLat(i) - trajectory.intLat(i - 1);
+                double lonDelta = (trajectory.intLon(i) - trajectory.intLon(i - 1)) * lonFactor;
+                distances[i] = distances[i - 1] + Math.sqrt(latDelta * latDelta + lonDelta * lonDelta);
+            }
+            double total = distances[trajectory.size() - 1];
+            for (int i = 0; i < trajectory.size(); i++) {
+                int passed = total == 0.0d
+                        ? departure
+                        : departure + (int) Math.round((arrival - departure) * distances[i] / total);
+                add(trajectory.intLat(i), trajectory.intLon(i), passed);
+            }
+        }
+
+        private void add(int lat, int lon, int passed) {
+            if (size == lats.length) {
+                lats = Arrays.copyOf(lats, size * 2);
+                lons = Arrays.copyOf(lons, size * 2);
+                seconds = Arrays.copyOf(seconds, size * 2);
+            }
+            lats[size] = lat;
+            lons[size] = lon;
+            seconds[size] = size == 0 ? passed : Math.max(seconds[size - 1], passed);
+            size++;
+        }
+
+        private Passages build() {
+            return new Passages(
+                    Arrays.copyOf(lats, size),
+                    Arrays.copyOf(lons, size),
+                    Arrays.copyOf(seconds, size),
+                    size);
+        }
+    }
+}
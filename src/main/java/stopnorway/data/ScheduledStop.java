@@ -30,10 +30,9 @@ public final class ScheduledStop extends AbstractIdentified implements Named, Co
     }
 
     @Override
-    public int compareTo( ScheduledStop stop) {
-        return timespan.isBefore(stop.getTimespan()) ? -1
-                : timespan.isAfter(stop.getTimespan()) ? 1
-                : 0;
+    public int compareTo(ScheduledStop stop) {
+        int start = Integer.compare(timespan.getStartSeconds(), stop.timespan.getStartSeconds());
+        return start != 0 ? start : Integer.compare(timespan.getEndSeconds(), stop.timespan.getEndSeconds());
     }
 
     @Override
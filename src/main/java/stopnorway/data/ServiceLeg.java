@@ -9,17 +9,14 @@ import stopnorway.entur.ScheduledStopPoint;
 import stopnorway.entur.ServiceLink;
 import stopnorway.geo.Box;
 import stopnorway.geo.Point;
+import stopnorway.geo.PointSequence;
 import stopnorway.geo.Scale;
-import stopnorway.geo.Timespan;
 
 import java.io.Serializable;
-import java.time.Duration;
-import java.time.LocalTime;
-import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Function;
-import java.util.stream.Stream;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 public final class ServiceLeg extends AbstractIdentified implements Serializable, Ordered, Boxed {
 
@@ -79,25 +76,10 @@ public final class ServiceLeg extends AbstractIdentified implements Serializable
         return this.serviceLink.getEndPoint();
     }
 
-    public Stream<Timespan> getTemporalBoxes(
-            LocalTime start,
-            LocalTime end,
-            Duration temporalAccuracy
-    ) {
-        long segments = this.serviceLink.getProjections()
-                .stream()
-                .map(LinkSequenceProjection::getTrajectory)
-                .mapToLong(Collection::size)
-                .sum();
-        long msPerPart = Duration.between(start, end).toNanos() / (segments - 1);
-        return null;
-        //        IntStream.range(0, points.size())
-        //                .mapToObj(i -> points.get(i)
-        //                        .scaledBox(spatialAccuray)
-        //                        .during(
-        //                                start,
-        //                                start.plus(millisPerEdge * i, ChronoUnit.MILLIS))
-        //                        .scaledBoxes(temporalAccuracy));
+    public PointSequence getTrajectory() {
+        return PointSequence.concat(serviceLink.getProjections().stream()
+                                            .map(LinkSequenceProjection::getPoints)
+                                            .collect(Collectors.toList()));
     }
 
     public int getOrder() {
@@ -122,15 +104,9 @@ public final class ServiceLeg extends AbstractIdentified implements Serializable
         return Optional.ofNullable(box);
     }
 
-    Stream<Box> scaledBoxes(Scale scale) {
+    LongStream cellCodes(Scale scale) {
         return serviceLink.getProjections().stream()
-                .flatMap(toScaled(scale))
-                .distinct();
-    }
-
-    private Function<LinkSequenceProjection, Stream<Box>> toScaled(Scale scale) {
-        return linkSequenceProjection -> linkSequenceProjection.getTrajectory().stream()
-                .map(p -> p.scaledBox(scale))
+                .flatMapToLong(linkSequenceProjection -> linkSequenceProjection.getPoints().cellCodes(scale))
                 .distinct();
     }
 }
@@ -0,0 +1,83 @@
+package stopnorway.data;
+
+import stopnorway.database.Entity;
+import stopnorway.database.EntitySink;
+import stopnorway.database.Id;
+import stopnorway.entur.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public final class TypedEntities implements EntitySink {
+
+    static final List<Class<? extends Entity>> ENTITY_TYPES = Arrays.asList(
+            StopPointInJourneyPattern.class,
+            ServiceLinkInJourneyPattern.class,
+            Route.class,
+            ServiceLink.class,
+            JourneyPattern.class,
+            RoutePoint.class,
+            ServiceJourney.class,
+            PointOnRoute.class,
+            PointProjection.class,
+            ScheduledStopPoint.class,
+            LinkSequenceProjection.class,
+            Line.class);
+
+    private final Map<Class<? extends Entity>, Map<Id, Entity>> typedEntities;
+
+    public TypedEntities() {
+        this(null);
+    }
+
+    TypedEntities(Map<Class<? extends Entity>, Map<Id, Entity>> typedEntities) {
+        this.typedEntities = typedEntities == null ? new HashMap<>() : typedEntities;
+    }
+
+    public static TypedEntities merge(Collection<TypedEntities> shards) {
+        TypedEntities merged = new TypedEntities();
+        shards.forEach(shard -> shard.typedEntities.forEach((type, entities) -> {
+            Map<Id, Entity> mergedEntities = merged.typedEntities.computeIfAbsent(
+                    type,
+                    __ -> new HashMap<>(entities.size()));
+            entities.forEach((id, entity) -> {
+                Entity existing = mergedEntities.putIfAbsent(id, entity);
+                if (existing != null && type != ScheduledStopPoint.class) {
+                    throw new IllegalStateException(
+                            merged + " received duplicate " + id + " from " + shard + ": " + existing);
+                }
+            });
+        }));
+        return merged;
+    }
+
+    @Override
+    public void accept(Enum<?> operator, Collection<Entity> entities) {
+        for (Entity entity: entities) {
+            Entity existing = typedEntities
+                    .computeIfAbsent(entity.getClass(), __ -> new HashMap<>())
+                    .putIfAbsent(entity.getId(), entity);
+            if (existing != null) {
+                throw new IllegalStateException(
+                        this + " received duplicate " + entity.getId() + " from " + operator + ": " + existing);
+            }
+        }
+    }
+
+    public Map<Class<? extends Entity>, Map<Id, Entity>> get() {
+        return typedEntities;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" +
+                typedEntities.entrySet().stream()
+                        .map(e -> e.getKey().getSimpleName() + ":" + e.getValue().size())
+                        .collect(Collectors.joining(", ")) +
+                "]";
+    }
+}
@@ -0,0 +1,40 @@
+package stopnorway.data;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import stopnorway.database.AbstractSerializer;
+import stopnorway.database.Entity;
+import stopnorway.database.Id;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public final class TypedEntitiesSerializer extends AbstractSerializer<TypedEntities> {
+
+    @Override
+    public void write(Kryo kryo, Output output, TypedEntities object) {
+        Map<Class<? extends Entity>, Map<Id, Entity>> typedEntities = object.get();
+        TypedEntities.ENTITY_TYPES.forEach(
+                entityType -> writeList(
+                        kryo,
+                        output,
+                        typedEntities.getOrDefault(entityType, Collections.emptyMap()).values()));
+    }
+
+    @Override
+    public TypedEntities read(Kryo kryo, Input input, Class<? extends TypedEntities> type) {
+        Map<Class<? extends Entity>, Map<Id, Entity>> typedEntities = new HashMap<>();
+        TypedEntities.ENTITY_TYPES.forEach(
+                entityType -> typedEntities.put(
+                        entityType,
+                        readStream(kryo, input, entityType)
+                                .collect(Collectors.toMap(
+                                        Entity::getId,
+                                        Function.identity()))));
+        return new TypedEntities(typedEntities);
+    }
+}
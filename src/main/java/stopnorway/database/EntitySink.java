@@ -0,0 +1,9 @@
+package stopnorway.database;
+
+import java.util.Collection;
+
+@FunctionalInterface
+public interface EntitySink {
+
+    void accept(Enum<?> operator, Collection<Entity> entities);
+}
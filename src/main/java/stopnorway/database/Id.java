@@ -4,6 +4,7 @@ import stopnorway.hash.AbstractHashable;
 
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 public final class Id extends AbstractHashable {
 
@@ -16,10 +17,14 @@ public final class Id extends AbstractHashable {
     }
 
     public static Id parse(String attribute) {
+        return parse(attribute, UnaryOperator.identity());
+    }
+
+    static Id parse(String attribute, UnaryOperator<String> names) {
         int idMark = attribute.indexOf(':', OP_MARK + 1);
         return new Id(
-            attribute.substring(0, OP_MARK),
-            attribute.substring(OP_MARK + 1, idMark),
+            names.apply(attribute.substring(0, OP_MARK)),
+            names.apply(attribute.substring(OP_MARK + 1, idMark)),
             attribute.substring(idMark + 1)
         );
     }
@@ -0,0 +1,85 @@
+package stopnorway.database;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class IdPool {
+
+    public static final Set<String> SHARED_TYPES = Set.of(
+            "ScheduledStopPoint",
+            "StopPointInJourneyPattern",
+            "ServiceLink",
+            "RoutePoint",
+            "Route",
+            "JourneyPattern",
+            "Line");
+
+    private final Set<String> types;
+
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+
+    private final Map<String, Id> parsed = new ConcurrentHashMap<>();
+
+    private final Map<Id, Id> interned = new ConcurrentHashMap<>();
+
+    public IdPool() {
+        this(SHARED_TYPES);
+    }
+
+    public IdPool(Collection<String> types) {
+        this.types = Set.copyOf(Objects.requireNonNull(types, "types"));
+    }
+
+    public Id parse(String attribute) {
+        Id id = parsed.get(Objects.requireNonNull(attribute, "attribute"));
+        if (id != null) {
+            return id;
+        }
+        Id parsedId = Id.parse(attribute, this::name);
+        if (!types.contains(parsedId.getType())) {
+            return parsedId;
+        }
+        return parsed.computeIfAbsent(attribute, __ -> intern(parsedId));
+    }
+
+    public Id id(String operator, String type, String id) {
+        return intern(Id.id(operator, type, id));
+    }
+
+    public Id intern(Id id) {
+        if (!types.contains(Objects.requireNonNull(id, "id").getType())) {
+            return named(id);
+        }
+        Id existing = interned.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        Id named = named(id);
+        existing = interned.putIfAbsent(named, named);
+        return existing == null ? named : existing;
+    }
+
+    public int size() {
+        return interned.size();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + types.size() + " types: " +
+                interned.size() + " ids/" + parsed.size() + " refs]";
+    }
+
+    private Id named(Id id) {
+        String operator = name(id.getOperator());
+        String type = name(id.getType());
+        return operator == id.getOperator() && type == id.getType() ? id : new Id(operator, type, id.getId());
+    }
+
+    private String name(String name) {
+        String existing = names.putIfAbsent(name, name);
+        return existing == null ? name : existing;
+    }
+}
@@ -20,7 +20,14 @@ public final class IdSerializer extends AbstractSerializer<Id> {
 
     private final Map<Integer, String> byteClasses;
 
+    private final IdPool idPool;
+
     public IdSerializer(Class<? extends Enum<?>> opType, Class<?>... classes) {
+        this(null, opType, classes);
+    }
+
+    public IdSerializer(IdPool idPool, Class<? extends Enum<?>> opType, Class<?>... classes) {
+        this.idPool = idPool;
 
         Enum<?>[] ops = Objects.requireNonNull(opType, "opType").getEnumConstants();
         opOrdinals = Arrays.stream(ops)
@@ -59,11 +66,11 @@ public final class IdSerializer extends AbstractSerializer<Id> {
         int classNo = input.readVarInt(true);
         String id = readString(input);
         try {
-            return Id.id(
-                opNames.get(opNo),
-                byteClasses.get(classNo),
-                id
-            );
+            String opName = opNames.get(opNo);
+            String className = byteClasses.get(classNo);
+            return idPool == null
+                ? Id.id(opName, className, id)
+                : idPool.id(opName, className, id);
         } catch (Exception e) {
             throw new IllegalStateException(
                 "Failed to find " +
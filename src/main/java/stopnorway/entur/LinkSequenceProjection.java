@@ -4,28 +4,31 @@ package stopnorway.entur;
 import stopnorway.database.Entity;
 import stopnorway.database.Id;
 import stopnorway.geo.Box;
+import stopnorway.geo.CodedPoint;
 import stopnorway.geo.Point;
-import stopnorway.util.Accept;
+import stopnorway.geo.PointSequence;
 
 import java.util.*;
 import java.util.function.Consumer;
 
 public final class LinkSequenceProjection extends Entity {
 
-    private final List<Point> trajectory;
+    private final PointSequence trajectory;
 
     private final Box box;
 
     public LinkSequenceProjection(Id id, Point... trajectory) {
-        this(id, Arrays.asList(trajectory));
+        this(id, PointSequence.of(trajectory));
     }
 
     public LinkSequenceProjection(Id id, Collection<Point> trajectory) {
+        this(id, PointSequence.of(trajectory));
+    }
+
+    public LinkSequenceProjection(Id id, PointSequence trajectory) {
         super(id);
-        this.trajectory = Accept.list(trajectory);
-        this.box = computeMin()
-                .flatMap(min -> computeMax().map(min::box))
-                .orElse(null);
+        this.trajectory = trajectory == null ? PointSequence.EMPTY : trajectory;
+        this.box = this.trajectory.box();
     }
 
     public Optional<Box> getBox() {
@@ -35,32 +38,25 @@ public final class LinkSequenceProjection extends Entity {
     @Override
     public void hashTo(Consumer<byte[]> h) {
         super.hashTo(h);
-        trajectory.forEach(point -> hash(h, point.lat(), point.lon()));
+        trajectory.forEach((lat, lon) -> hash(
+                h,
+                1.0d * lat / CodedPoint.DEFAULT_DIMENSION,
+                1.0d * lon / CodedPoint.DEFAULT_DIMENSION));
     }
 
-    public Collection<Point> getTrajectory() {
+    public PointSequence getPoints() {
         return trajectory;
     }
 
-    public Optional<Point> getStart() {
-        return trajectory.stream().findFirst();
-    }
-
-    public Optional<Point> getEnd() {
-        return trajectory.isEmpty() ? Optional.empty() : Optional.of(trajectory.get(trajectory.size() - 1));
+    public Collection<Point> getTrajectory() {
+        return trajectory.asList();
     }
 
-
-    private Optional<Point> computeMax() {
-        return this.trajectory.stream()
-                .max(Comparator.comparing(Point::lat))
-                .flatMap(lat -> this.trajectory.stream().max(Comparator.comparing(Point::lon)).map(lat::lon));
+    public Optional<Point> getStart() {
+        return trajectory.getFirst();
     }
 
-
-    private Optional<Point> computeMin() {
-        return this.trajectory.stream()
-                .min(Comparator.comparing(Point::lat))
-                .flatMap(lat -> this.trajectory.stream().min(Comparator.comparing(Point::lon)).map(lat::lon));
+    public Optional<Point> getEnd() {
+        return trajectory.getLast();
     }
 }
@@ -0,0 +1,113 @@
+package stopnorway.entur;
+
+import stopnorway.database.Id;
+import stopnorway.geo.Timespan;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+public final class PassingTimes implements Serializable {
+
+    public static final PassingTimes NONE = new PassingTimes(new Id[0], new int[0], new int[0], null);
+
+    private final Id[] stopPointRefs;
+
+    private final int[] arrivals;
+
+    private final int[] departures;
+
+    private final Id[] ids;
+
+    PassingTimes(Id[] stopPointRefs, int[] arrivals, int[] departures, Id[] ids) {
+        this.stopPointRefs = Objects.requireNonNull(stopPointRefs, "stopPointRefs");
+        this.arrivals = Objects.requireNonNull(arrivals, "arrivals");
+        this.departures = Objects.requireNonNull(departures, "departures");
+        this.ids = ids;
+        if (arrivals.length != stopPointRefs.length || departures.length != stopPointRefs.length) {
+            throw new IllegalArgumentException(
+                    "Mismatched columns: " + stopPointRefs.length + "/" + arrivals.length + "/" + departures.length);
+        }
+        if (ids != null && ids.length != stopPointRefs.length) {
+            throw new IllegalArgumentException("Mismatched ids: " + ids.length + "/" + stopPointRefs.length);
+        }
+    }
+
+    public static PassingTimes of(Collection<TimetabledPassingTime> passingTimes, boolean keepIds) {
+        if (passingTimes == null || passingTimes.isEmpty()) {
+            return NONE;
+        }
+        int size = passingTimes.size();
+        Id[] stopPointRefs = new Id[size];
+        int[] arrivals = new int[size];
+        int[] departures = new int[size];
+        Id[] ids = keepIds ? new Id[size] : null;
+        int i = 0;
+        for (TimetabledPassingTime passingTime: passingTimes) {
+            stopPointRefs[i] = passingTime.getStopPointInJourneyPatternRef();
+            arrivals[i] = passingTime.getArrivalSeconds();
+            departures[i] = passingTime.getDepartureSeconds();
+            if (ids != null) {
+                ids[i] = passingTime.getId();
+            }
+            i++;
+        }
+        return new PassingTimes(stopPointRefs, arrivals, departures, ids);
+    }
+
+    public int size() {
+        return stopPointRefs.length;
+    }
+
+    public boolean isEmpty() {
+        return stopPointRefs.length == 0;
+    }
+
+    public boolean hasIds() {
+        return ids != null;
+    }
+
+    public Id getId(int index) {
+        return ids == null ? null : ids[index];
+    }
+
+    public Id getStopPointRef(int index) {
+        return stopPointRefs[index];
+    }
+
+    public int getArrivalSeconds(int index) {
+        return arrivals[index];
+    }
+
+    public int getDepartureSeconds(int index) {
+        return departures[index];
+    }
+
+    public Timespan getTimespan(int index) {
+        return new Timespan(arrivals[index], departures[index]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof PassingTimes &&
+                Arrays.equals(stopPointRefs, ((PassingTimes) o).stopPointRefs) &&
+                Arrays.equals(arrivals, ((PassingTimes) o).arrivals) &&
+                Arrays.equals(departures, ((PassingTimes) o).departures) &&
+                Arrays.equals(ids, ((PassingTimes) o).ids);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                Arrays.hashCode(stopPointRefs),
+                Arrays.hashCode(arrivals),
+                Arrays.hashCode(departures),
+                Arrays.hashCode(ids));
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + size() + (ids == null ? "" : " with ids") + "]";
+    }
+}
@@ -2,9 +2,7 @@ package stopnorway.entur;
 
 import stopnorway.database.Entity;
 import stopnorway.database.Id;
-import stopnorway.util.Accept;
 
-import java.util.Collection;
 import java.util.function.Consumer;
 
 public final class ServiceJourney extends Entity {
@@ -17,7 +15,7 @@ public final class ServiceJourney extends Entity {
 
     private final Id lineRef;
 
-    private final Collection<TimetabledPassingTime> passingTimes;
+    private final PassingTimes passingTimes;
 
     public ServiceJourney(
             Id id,
@@ -25,14 +23,14 @@ public final class ServiceJourney extends Entity {
             String name,
             Id journeyPatternRef,
             Id lineRef,
-            Collection<TimetabledPassingTime> passingTimes
+            PassingTimes passingTimes
     ) {
         super(id);
         this.transportMode = transportMode;
         this.name = name;
         this.journeyPatternRef = journeyPatternRef;
         this.lineRef = lineRef;
-        this.passingTimes = Accept.list(passingTimes);
+        this.passingTimes = passingTimes == null ? PassingTimes.NONE : passingTimes;
     }
 
     @Override
@@ -40,7 +38,10 @@ public final class ServiceJourney extends Entity {
         super.hashTo(h);
         hash(h, name, transportMode);
         hash(h, journeyPatternRef);
-        hash(h, passingTimes);
+        for (int i = 0; i < passingTimes.size(); i++) {
+            hash(h, passingTimes.getStopPointRef(i));
+            hash(h, passingTimes.getArrivalSeconds(i), passingTimes.getDepartureSeconds(i));
+        }
     }
 
     public String getName() {
@@ -55,7 +56,7 @@ public final class ServiceJourney extends Entity {
         return journeyPatternRef;
     }
 
-    public Collection<TimetabledPassingTime> getPassingTimes() {
+    public PassingTimes getPassingTimes() {
         return passingTimes;
     }
 
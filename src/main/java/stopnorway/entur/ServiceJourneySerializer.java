@@ -4,6 +4,7 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import stopnorway.database.AbstractSerializer;
+import stopnorway.database.Id;
 
 public final class ServiceJourneySerializer extends AbstractSerializer<ServiceJourney> {
 
@@ -14,7 +15,7 @@ public final class ServiceJourneySerializer extends AbstractSerializer<ServiceJo
         writeString(output, object.getName());
         writeNullableId(kryo, output, object.getJourneyPatternRef());
         writeNullableId(kryo, output, object.getLineRef());
-        writeList(kryo, output, object.getPassingTimes());
+        writePassingTimes(kryo, output, object.getPassingTimes());
     }
 
     @Override
@@ -25,6 +26,38 @@ public final class ServiceJourneySerializer extends AbstractSerializer<ServiceJo
                 readString(input),
                 readNullableId(kryo, input),
                 readNullableId(kryo, input),
-                readList(kryo, input, TimetabledPassingTime.class));
+                readPassingTimes(kryo, input));
+    }
+
+    private void writePassingTimes(Kryo kryo, Output output, PassingTimes passingTimes) {
+        int size = passingTimes.size();
+        output.writeVarInt(size, true);
+        output.writeBoolean(passingTimes.hasIds());
+        for (int i = 0; i < size; i++) {
+            writeNullableId(kryo, output, passingTimes.getStopPointRef(i));
+            output.writeVarInt(passingTimes.getArrivalSeconds(i) + 1, true);
+            output.writeVarInt(passingTimes.getDepartureSeconds(i) + 1, true);
+            if (passingTimes.hasIds()) {
+                writeId(kryo, output, passingTimes.getId(i));
+            }
+        }
+    }
+
+    private PassingTimes readPassingTimes(Kryo kryo, Input input) {
+        int size = input.readVarInt(true);
+        boolean hasIds = input.readBoolean();
+        Id[] stopPointRefs = new Id[size];
+        int[] arrivals = new int[size];
+        int[] departures = new int[size];
+        Id[] ids = hasIds ? new Id[size] : null;
+        for (int i = 0; i < size; i++) {
+            stopPointRefs[i] = readNullableId(kryo, input);
+            arrivals[i] = input.readVarInt(true) - 1;
+            departures[i] = input.readVarInt(true) - 1;
+            if (hasIds) {
+                ids[i] = readId(kryo, input);
+            }
+        }
+        return size == 0 && !hasIds ? PassingTimes.NONE : new PassingTimes(stopPointRefs, arrivals, departures, ids);
     }
 }
@@ -2,6 +2,7 @@ package stopnorway.entur;
 
 import stopnorway.database.Entity;
 import stopnorway.database.Id;
+import stopnorway.geo.Timespan;
 
 import java.time.LocalTime;
 import java.util.function.Consumer;
@@ -10,13 +11,7 @@ public final class TimetabledPassingTime extends Entity {
 
     private final Id stopPointInJourneyPatternRef;
 
-    private final LocalTime departureTime;
-
-    private final int departureDayOffset;
-
-    private final LocalTime arrivalTime;
-
-    private final int arrivalDayOffset;
+    private final long times;
 
     public TimetabledPassingTime(
             Id id,
@@ -29,10 +24,8 @@ public final class TimetabledPassingTime extends Entity {
         this(
                 id,
                 stopPointInJourneyPatternRef,
-                toLocalTime(arrivalTime),
-                arrivalDayOffset,
-                toLocalTime(departureTime),
-                departureDayOffset
+                toSeconds(arrivalTime, arrivalDayOffset),
+                toSeconds(departureTime, departureDayOffset)
         );
     }
 
@@ -43,29 +36,52 @@ public final class TimetabledPassingTime extends Entity {
             int arrivalDayOffset,
             LocalTime departureTime,
             int departureDayOffset
+    ) {
+        this(
+                id,
+                stopPointInJourneyPatternRef,
+                Timespan.seconds(arrivalTime, arrivalDayOffset),
+                Timespan.seconds(departureTime, departureDayOffset)
+        );
+    }
+
+    public TimetabledPassingTime(
+            Id id,
+            Id stopPointInJourneyPatternRef,
+            int arrivalSeconds,
+            int departureSeconds
     ) {
         super(id);
         this.stopPointInJourneyPatternRef = stopPointInJourneyPatternRef;
-        this.arrivalTime = arrivalTime;
-        this.arrivalDayOffset = arrivalDayOffset;
-        this.departureTime = departureTime;
-        this.departureDayOffset = departureDayOffset;
+        this.times = (long) arrivalSeconds << 32 | departureSeconds & 0xFFFFFFFFL;
+    }
+
+    public int getArrivalSeconds() {
+        return (int) (times >> 32);
+    }
+
+    public int getDepartureSeconds() {
+        return (int) times;
     }
 
     public LocalTime getArrivalTime() {
-        return arrivalTime;
+        return Timespan.localTime(getArrivalSeconds());
     }
 
     public int getArrivalDayOffset() {
-        return arrivalDayOffset;
+        return dayOffset(getArrivalSeconds());
     }
 
     public LocalTime getDepartureTime() {
-        return departureTime;
+        return Timespan.localTime(getDepartureSeconds());
     }
 
     public int getDepartureDayOffset() {
-        return departureDayOffset;
+        return dayOffset(getDepartureSeconds());
+    }
+
+    public Timespan getTimespan() {
+        return new Timespan(getArrivalSeconds(), getDepartureSeconds());
     }
 
     public Id getStopPointInJourneyPatternRef() {
@@ -81,16 +97,20 @@ public final class TimetabledPassingTime extends Entity {
     @Override
     protected StringBuilder withStringBody(StringBuilder sb) {
         return super.withStringBody(sb)
-                .append(stopPointInJourneyPatternRef).append("@").append(departureTime);
+                .append(stopPointInJourneyPatternRef).append("@").append(getDepartureTime());
+    }
+
+    private static int dayOffset(int seconds) {
+        return seconds < 0 ? 0 : seconds / Timespan.SECONDS_PER_DAY;
     }
 
-    private static LocalTime toLocalTime(String data) {
+    private static int toSeconds(String data, int dayOffset) {
         if (data == null) {
-            return null;
+            return Timespan.NO_TIME;
         }
         int length = data.length();
         if (length == 0) {
-            return null;
+            return Timespan.NO_TIME;
         }
         if (data.endsWith(":00")) {
             int relevantLength = length - 3;
@@ -113,10 +133,10 @@ public final class TimetabledPassingTime extends Entity {
                 }
             }
             if (hours < 24 && minutes < 60) {
-                return LocalTime.of(hours, minutes);
+                return hours * 3600 + minutes * 60 + dayOffset * Timespan.SECONDS_PER_DAY;
             }
 
         }
-        return LocalTime.parse(data);
+        return Timespan.seconds(LocalTime.parse(data), dayOffset);
     }
 }
@@ -1,7 +1,5 @@
 package stopnorway.geo;
 
-import java.util.Objects;
-
 import static java.lang.Math.*;
 import static stopnorway.geo.Unit.MM;
 
@@ -22,7 +20,7 @@ public abstract class AbstractPoint implements Point {
 
     @Override
     public int hashCode() {
-        return Objects.hash(lat(), lon());
+        return 31 * (31 + Double.hashCode(lat())) + Double.hashCode(lon());
     }
 
     @Override
@@ -0,0 +1,62 @@
+package stopnorway.geo;
+
+import java.util.Objects;
+
+public final class CellCursor {
+
+    private final Scale scale;
+
+    private int minLonCell;
+
+    private int maxLatCell;
+
+    private int maxLonCell;
+
+    private int latCell;
+
+    private int lonCell;
+
+    public CellCursor(Scale scale) {
+        this.scale = Objects.requireNonNull(scale, "scale");
+    }
+
+    public CellCursor over(Box box) {
+        return over(box.min().intLat(), box.min().intLon(), box.max().intLat(), box.max().intLon());
+    }
+
+    public CellCursor over(int minLat, int minLon, int maxLat, int maxLon) {
+        this.minLonCell = Cells.lonCell(scale, minLon);
+        this.maxLatCell = Cells.latCell(scale, maxLat);
+        this.maxLonCell = Cells.lonCell(scale, maxLon);
+        this.latCell = Cells.latCell(scale, minLat);
+        this.lonCell = minLonCell - 1;
+        return this;
+    }
+
+    public boolean next() {
+        if (lonCell < maxLonCell) {
+            lonCell++;
+        } else {
+            lonCell = minLonCell;
+            latCell++;
+        }
+        return latCell <= maxLatCell && lonCell <= maxLonCell;
+    }
+
+    public int latCell() {
+        return latCell;
+    }
+
+    public int lonCell() {
+        return lonCell;
+    }
+
+    public long code() {
+        return Cells.code(latCell, lonCell);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + scale + " " + latCell + "/" + lonCell + "]";
+    }
+}
@@ -0,0 +1,72 @@
+package stopnorway.geo;
+
+public final class Cells {
+
+    private static final int BIAS = 0x80000000;
+
+    private Cells() {
+
+    }
+
+    public static long code(Scale scale, Point point) {
+        return code(scale, point.intLat(), point.intLon());
+    }
+
+    public static long code(Scale scale, int intLat, int intLon) {
+        return code(latCell(scale, intLat), lonCell(scale, intLon));
+    }
+
+    public static long code(int latCell, int lonCell) {
+        return (spread(latCell ^ BIAS) << 1 | spread(lonCell ^ BIAS)) ^ Long.MIN_VALUE;
+    }
+
+    public static int latCell(Scale scale, int intLat) {
+        return cell(intLat, scale == Scale.INTEGER ? 1 : scale.getLat());
+    }
+
+    public static int lonCell(Scale scale, int intLon) {
+        return cell(intLon, scale == Scale.INTEGER ? 1 : scale.getLon());
+    }
+
+    public static int latCell(long code) {
+        return compact((code ^ Long.MIN_VALUE) >>> 1) ^ BIAS;
+    }
+
+    public static int lonCell(long code) {
+        return compact(code ^ Long.MIN_VALUE) ^ BIAS;
+    }
+
+    public static Box box(Scale scale, long code) {
+        int latCell = latCell(code);
+        int lonCell = lonCell(code);
+        return Points.point(edge(latCell, scale, true), edge(lonCell, scale, false))
+                .box(Points.point(edge(latCell + 1, scale, true), edge(lonCell + 1, scale, false)));
+    }
+
+    private static int cell(int coordinate, int scale) {
+        return (int) Math.floorDiv((long) coordinate * scale, CodedPoint.DEFAULT_DIMENSION);
+    }
+
+    private static int edge(int cell, Scale scale, boolean lat) {
+        int perDegree = scale == Scale.INTEGER ? 1 : lat ? scale.getLat() : scale.getLon();
+        return (int) -Math.floorDiv(-(long) cell * CodedPoint.DEFAULT_DIMENSION, perDegree);
+    }
+
+    private static long spread(int value) {
+        long spread = value & 0xFFFFFFFFL;
+        spread = (spread | spread << 16) & 0x0000FFFF0000FFFFL;
+        spread = (spread | spread << 8) & 0x00FF00FF00FF00FFL;
+        spread = (spread | spread << 4) & 0x0F0F0F0F0F0F0F0FL;
+        spread = (spread | spread << 2) & 0x3333333333333333L;
+        return (spread | spread << 1) & 0x5555555555555555L;
+    }
+
+    private static int compact(long spread) {
+        long compact = spread & 0x5555555555555555L;
+        compact = (compact | compact >>> 1) & 0x3333333333333333L;
+        compact = (compact | compact >>> 2) & 0x0F0F0F0F0F0F0F0FL;
+        compact = (compact | compact >>> 4) & 0x00FF00FF00FF00FFL;
+        compact = (compact | compact >>> 8) & 0x0000FFFF0000FFFFL;
+        return (int) ((compact | compact >>> 16) & 0xFFFFFFFFL);
+    }
+}
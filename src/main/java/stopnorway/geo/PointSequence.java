@@ -0,0 +1,239 @@
+package stopnorway.geo;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+public final class PointSequence implements Serializable {
+
+    public static final PointSequence EMPTY = new PointSequence(new int[0], 0);
+
+    private final int[] coordinates;
+
+    private final int size;
+
+    private PointSequence(int[] coordinates, int size) {
+        this.coordinates = coordinates;
+        this.size = size;
+    }
+
+    public static PointSequence of(Point... points) {
+        return of(Arrays.asList(points));
+    }
+
+    public static PointSequence of(Collection<? extends Point> points) {
+        if (points == null || points.isEmpty()) {
+            return EMPTY;
+        }
+        if (points instanceof PointList list) {
+            return list.sequence;
+        }
+        int[] coordinates = new int[points.size() * 2];
+        int index = 0;
+        for (Point point: points) {
+            coordinates[index++] = point.intLat();
+            coordinates[index++] = point.intLon();
+        }
+        return new PointSequence(coordinates, points.size());
+    }
+
+    public static PointSequence concat(Collection<PointSequence> sequences) {
+        int size = sequences.stream().mapToInt(PointSequence::size).sum();
+        if (size == 0) {
+            return EMPTY;
+        }
+        int[] coordinates = new int[size * 2];
+        int index = 0;
+        for (PointSequence sequence: sequences) {
+            System.arraycopy(sequence.coordinates, 0, coordinates, index, sequence.size * 2);
+            index += sequence.size * 2;
+        }
+        return new PointSequence(coordinates, size);
+    }
+
+    static PointSequence packed(int[] coordinates, int size) {
+        if (size == 0) {
+            return EMPTY;
+        }
+        if (coordinates.length < size * 2) {
+            throw new IllegalArgumentException("Need " + size * 2 + " coordinates: " + coordinates.length);
+        }
+        return new PointSequence(
+                coordinates.length == size * 2 ? coordinates : Arrays.copyOf(coordinates, size * 2),
+                size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int intLat(int index) {
+        return coordinates[checked(index) * 2];
+    }
+
+    public int intLon(int index) {
+        return coordinates[checked(index) * 2 + 1];
+    }
+
+    public Point get(int index) {
+        return Points.point(intLat(index), intLon(index));
+    }
+
+    public Optional<Point> getFirst() {
+        return size == 0 ? Optional.empty() : Optional.of(get(0));
+    }
+
+    public Optional<Point> getLast() {
+        return size == 0 ? Optional.empty() : Optional.of(get(size - 1));
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < size * 2; i += 2) {
+            visitor.visit(coordinates[i], coordinates[i + 1]);
+        }
+    }
+
+    public Box box() {
+        if (size == 0) {
+            return null;
+        }
+        int minLat = Integer.MAX_VALUE;
+        int minLon = Integer.MAX_VALUE;
+        int maxLat = Integer.MIN_VALUE;
+        int maxLon = Integer.MIN_VALUE;
+        for (int i = 0; i < size * 2; i += 2) {
+            int lat = coordinates[i];
+            int lon = coordinates[i + 1];
+            minLat = Math.min(minLat, lat);
+            minLon = Math.min(minLon, lon);
+            maxLat = Math.max(maxLat, lat);
+            maxLon = Math.max(maxLon, lon);
+        }
+        return Points.point(minLat, minLon).box(Points.point(maxLat, maxLon));
+    }
+
+    public Stream<Box> scaledBoxes(Scale scale) {
+        Stream.Builder<Box> boxes = Stream.builder();
+        long previousCell = 0L;
+        for (int i = 0; i < size; i++) {
+            long cell = cell(scale, coordinates[i * 2], coordinates[i * 2 + 1]);
+            if (i == 0 || cell != previousCell) {
+                boxes.add(get(i).scaledBox(scale));
+                previousCell = cell;
+            }
+        }
+        return boxes.build().distinct();
+    }
+
+    public LongStream cellCodes(Scale scale) {
+        LongStream.Builder codes = LongStream.builder();
+        if (size == 1) {
+            codes.add(Cells.code(scale, coordinates[0], coordinates[1]));
+        }
+        SegmentCursor cursor = new SegmentCursor(scale);
+        boolean coded = false;
+        long previousCode = 0L;
+        for (int i = 0; i < size - 1; i++) {
+            cursor.over(coordinates[i * 2], coordinates[i * 2 + 1], coordinates[i * 2 + 2], coordinates[i * 2 + 3]);
+            while (cursor.next()) {
+                long code = cursor.code();
+                if (!coded || code != previousCode) {
+                    codes.add(code);
+                    previousCode = code;
+                    coded = true;
+                }
+            }
+        }
+        return codes.build().distinct();
+    }
+
+    public List<Point> asList() {
+        return new PointList(this);
+    }
+
+    public Stream<Point> stream() {
+        return asList().stream();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof PointSequence &&
+                size == ((PointSequence) o).size &&
+                Arrays.equals(coordinates, 0, size * 2, ((PointSequence) o).coordinates, 0, size * 2);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size * 2; i++) {
+            hash = 31 * hash + coordinates[i];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + size + (size == 0 ? "" : ": " + getFirst().get() + " => " +
+                getLast().get()) + "]";
+    }
+
+    private int checked(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(this + ": " + index);
+        }
+        return index;
+    }
+
+    private static long cell(Scale scale, int lat, int lon) {
+        if (scale == Scale.INTEGER) {
+            return cell(lat / CodedPoint.DEFAULT_DIMENSION, lon / CodedPoint.DEFAULT_DIMENSION);
+        }
+        return cell(
+                edges(1.0d * lat / CodedPoint.DEFAULT_DIMENSION * scale.getLat()),
+                edges(1.0d * lon / CodedPoint.DEFAULT_DIMENSION * scale.getLon()));
+    }
+
+    private static long edges(double scaled) {
+        double floor = Math.floor(scaled);
+        return 2 * (long) floor + (floor == scaled ? 0 : 1);
+    }
+
+    private static long cell(long lat, long lon) {
+        return lat << 32 | lon & 0xFFFFFFFFL;
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+
+        void visit(int lat, int lon);
+    }
+
+    private static final class PointList extends AbstractList<Point> implements RandomAccess, Serializable {
+
+        private final PointSequence sequence;
+
+        private PointList(PointSequence sequence) {
+            this.sequence = sequence;
+        }
+
+        @Override
+        public Point get(int index) {
+            return sequence.get(index);
+        }
+
+        @Override
+        public int size() {
+            return sequence.size();
+        }
+    }
+}
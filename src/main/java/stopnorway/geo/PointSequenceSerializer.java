@@ -0,0 +1,36 @@
+package stopnorway.geo;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+public final class PointSequenceSerializer extends Serializer<PointSequence> {
+
+    @Override
+    public void write(Kryo kryo, Output output, PointSequence object) {
+        output.writeVarInt(object.size(), true);
+        int[] previous = new int[2];
+        object.forEach((lat, lon) -> {
+            output.writeVarInt(lat - previous[0], false);
+            output.writeVarInt(lon - previous[1], false);
+            previous[0] = lat;
+            previous[1] = lon;
+        });
+    }
+
+    @Override
+    public PointSequence read(Kryo kryo, Input input, Class<? extends PointSequence> type) {
+        int size = input.readVarInt(true);
+        int[] coordinates = new int[size * 2];
+        int lat = 0;
+        int lon = 0;
+        for (int i = 0; i < size * 2; i += 2) {
+            lat += input.readVarInt(false);
+            lon += input.readVarInt(false);
+            coordinates[i] = lat;
+            coordinates[i + 1] = lon;
+        }
+        return PointSequence.packed(coordinates, size);
+    }
+}
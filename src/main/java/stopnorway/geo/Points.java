@@ -1,6 +1,5 @@
 package stopnorway.geo;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -38,7 +37,27 @@ public final class Points {
     }
 
     public static List<Point> sequence(String str) {
-        return str == null || str.isBlank() ? Collections.emptyList() : points(str.trim());
+        if (str == null) {
+            return Collections.emptyList();
+        }
+        char[] chars = str.toCharArray();
+        return sequence(chars, 0, chars.length);
+    }
+
+    public static List<Point> sequence(char[] chars, int offset, int length) {
+        return pointSequence(chars, offset, length).asList();
+    }
+
+    public static PointSequence pointSequence(char[] chars, int offset, int length) {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        return start == end ? PointSequence.EMPTY : points(chars, start, end);
     }
 
     public static Point charPoint(char[] lat, int latIndex, char[] lon, int lonIndex) {
@@ -82,25 +101,25 @@ public final class Points {
         return value;
     }
 
-    private static List<Point> points(String str) {
-        int length = str.length();
-        List<Point> points = new ArrayList<>(str.length() / 10);
+    private static PointSequence points(char[] chars, int start, int end) {
+        int[] coordinates = new int[Math.max(2, (end - start) / 10)];
+        int size = 0;
         char[] lat = new char[30];
         char[] lon = new char[30];
         int latIndex = 0;
         int lonIndex = 0;
         boolean buildingLat = true;
         boolean buildingLon = false;
-        for (int i = 0; i < length; i++) {
-            char c = str.charAt(i);
-            if (c == ' ' || c == '\t') {
-                if (buildingLon) {
-                    points.add(charPoint(lat, latIndex, lon, lonIndex));
+        for (int i = start; i < end; i++) {
+            char c = chars[i];
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                if (buildingLon && lonIndex > 0) {
+                    coordinates = added(coordinates, size++, lat, latIndex, lon, lonIndex);
                     buildingLat = true;
                     buildingLon = false;
                     latIndex = 0;
                     lonIndex = 0;
-                } else if (buildingLat) {
+                } else if (buildingLat && latIndex > 0) {
                     buildingLat = false;
                     buildingLon = true;
                 }
@@ -111,9 +130,23 @@ public final class Points {
             }
         }
         if (buildingLon) {
-            points.add(charPoint(lat, latIndex, lon, lonIndex));
+            coordinates = added(coordinates, size++, lat, latIndex, lon, lonIndex);
+        }
+        return PointSequence.packed(coordinates, size);
+    }
+
+    private static int[] added(int[] coordinates, int index, char[] lat, int latIndex, char[] lon, int lonIndex) {
+        int[] target = coordinates.length < index * 2 + 2
+                ? Arrays.copyOf(coordinates, coordinates.length * 2)
+                : coordinates;
+        try {
+            target[index * 2] = toInt(lat, latIndex);
+            target[index * 2 + 1] = toInt(lon, lonIndex);
+        } catch (Exception e) {
+            throw new IllegalArgumentException
+                    ("Failed to point out " + Arrays.toString(lat) + " " + Arrays.toString(lon), e);
         }
-        return points;
+        return target;
     }
 
     private static int toInt(String string) {
@@ -0,0 +1,184 @@
+package stopnorway.geo;
+
+import java.util.Objects;
+
+public final class SegmentCursor {
+
+    private static final double NEVER = Double.POSITIVE_INFINITY;
+
+    private final Scale scale;
+
+    private int latCell;
+
+    private int lonCell;
+
+    private int latStep;
+
+    private int lonStep;
+
+    private int latSteps;
+
+    private int lonSteps;
+
+    private double nextLat;
+
+    private double nextLon;
+
+    private double latDelta;
+
+    private double lonDelta;
+
+    private boolean started;
+
+    private double entry;
+
+    private double exit;
+
+    private int queued;
+
+    private final int[] queuedLatCells = new int[2];
+
+    private final int[] queuedLonCells = new int[2];
+
+    private final double[] queuedEntries = new double[2];
+
+    private final double[] queuedExits = new double[2];
+
+    public SegmentCursor(Scale scale) {
+        this.scale = Objects.requireNonNull(scale, "scale");
+    }
+
+    public SegmentCursor over(int fromLat, int fromLon, int toLat, int toLon) {
+        this.latCell = Cells.latCell(scale, fromLat);
+        this.lonCell = Cells.lonCell(scale, fromLon);
+        int toLatCell = Cells.latCell(scale, toLat);
+        int toLonCell = Cells.lonCell(scale, toLon);
+        this.latStep = Integer.signum(toLatCell - latCell);
+        this.lonStep = Integer.signum(toLonCell - lonCell);
+        this.latSteps = Math.abs(toLatCell - latCell);
+        this.lonSteps = Math.abs(toLonCell - lonCell);
+
+        double latFrom = scaled(fromLat, perDegree(true));
+        double lonFrom = scaled(fromLon, perDegree(false));
+        double latSpan = scaled(toLat, perDegree(true)) - latFrom;
+        double lonSpan = scaled(toLon, perDegree(false)) - lonFrom;
+        this.latDelta = latSpan == 0.0d ? NEVER : Math.abs(1.0d / latSpan);
+        this.lonDelta = lonSpan == 0.0d ? NEVER : Math.abs(1.0d / lonSpan);
+        this.nextLat = latSpan == 0.0d ? NEVER : (latCell + (latStep > 0 ? 1 : 0) - latFrom) / latSpan;
+        this.nextLon = lonSpan == 0.0d ? NEVER : (lonCell + (lonStep > 0 ? 1 : 0) - lonFrom) / lonSpan;
+
+        this.started = false;
+        this.queued = 0;
+        return this;
+    }
+
+    public boolean next() {
+        if (queued > 0) {
+            latCell = queuedLatCells[0];
+            lonCell = queuedLonCells[0];
+            entry = queuedEntries[0];
+            exit = queuedExits[0];
+            queuedLatCells[0] = queuedLatCells[1];
+            queuedLonCells[0] = queuedLonCells[1];
+            queuedEntries[0] = queuedEntries[1];
+            queuedExits[0] = queuedExits[1];
+            queued--;
+            return true;
+        }
+        if (!started) {
+            started = true;
+            entry = 0.0d;
+            exit = exit(entry);
+            return true;
+        }
+        boolean stepLat = latSteps > 0 && (lonSteps == 0 || nextLat <= nextLon);
+        boolean stepLon = lonSteps > 0 && (latSteps == 0 || nextLon <= nextLat);
+        if (!(stepLat || stepLon)) {
+            return false;
+        }
+        double crossing = clamped(stepLat ? nextLat : nextLon);
+        if (stepLat && stepLon) {
+            int sideLatCell = latCell + latStep;
+            int sideLonCell = lonCell + lonStep;
+            queue(latCell, sideLonCell, crossing, crossing);
+            latCell = sideLatCell;
+            entry = crossing;
+            exit = crossing;
+            advanceLat();
+            advanceLon();
+            queue(sideLatCell, sideLonCell, crossing, exit(crossing));
+            return true;
+        }
+        if (stepLat) {
+            latCell += latStep;
+            advanceLat();
+        } else {
+            lonCell += lonStep;
+            advanceLon();
+        }
+        entry = crossing;
+        exit = exit(crossing);
+        return true;
+    }
+
+    public int latCell() {
+        return latCell;
+    }
+
+    public int lonCell() {
+        return lonCell;
+    }
+
+    public long code() {
+        return Cells.code(latCell, lonCell);
+    }
+
+    public double entry() {
+        return entry;
+    }
+
+    public double exit() {
+        return exit;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + scale + " " + latCell + "/" + lonCell + " " + entry + "-" + exit +
+                "]";
+    }
+
+    private void advanceLat() {
+        latSteps--;
+        nextLat += latDelta;
+    }
+
+    private void advanceLon() {
+        lonSteps--;
+        nextLon += lonDelta;
+    }
+
+    private void queue(int latCell, int lonCell, double entry, double exit) {
+        queuedLatCells[queued] = latCell;
+        queuedLonCells[queued] = lonCell;
+        queuedEntries[queued] = entry;
+        queuedExits[queued] = exit;
+        queued++;
+    }
+
+    private double exit(double entry) {
+        double exit = Math.min(latSteps > 0 ? nextLat : NEVER, lonSteps > 0 ? nextLon : NEVER);
+        return Math.max(entry, clamped(exit));
+    }
+
+    private int perDegree(boolean lat) {
+        return scale == Scale.INTEGER ? 1 : lat ? scale.getLat() : scale.getLon();
+    }
+
+    private static double scaled(int coordinate, int perDegree) {
+        return 1.0d * coordinate * perDegree / CodedPoint.DEFAULT_DIMENSION;
+    }
+
+    private static double clamped(double fraction) {
+        return Math.max(0.0d, Math.min(1.0d, fraction));
+    }
+}
@@ -2,21 +2,18 @@ package stopnorway.geo;
 
 import java.time.Duration;
 import java.time.LocalTime;
-import java.util.Objects;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public final class Timespan {
 
-    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    public static final int SECONDS_PER_DAY = 24 * 60 * 60;
 
-    private final LocalTime start;
+    public static final int NO_TIME = -1;
 
-    private final LocalTime end;
+    private final int startSeconds;
 
-    private final int startOffset;
-
-    private final int endOffset;
+    private final int endSeconds;
 
     public Timespan(LocalTime start, LocalTime end) {
         this(start, 0, end, 0);
@@ -27,42 +24,48 @@ public final class Timespan {
     }
 
     public Timespan(LocalTime start, int startOffset, LocalTime end, int endOffset) {
-        if (start == null && end == null) {
-            throw new IllegalStateException("Expected start and/or end");
-        }
-        this.start = start == null ? end : start;
-        this.startOffset = start == null ? endOffset : startOffset;
-        this.end = end == null ? start : end;
-        this.endOffset = end == null ? startOffset : endOffset;
-        if (this.startOffset < 0) {
+        this(seconds(start, startOffset), seconds(end, endOffset));
+        if (start != null && startOffset < 0) {
             throw new IllegalArgumentException("Invalid start offset: " + startOffset);
         }
-        if (this.endOffset < startOffset) {
+        if (start != null && end != null && endOffset < startOffset) {
             throw new IllegalArgumentException("Invalid end offset < startOffset " + startOffset + ": " + endOffset);
         }
     }
 
+    public Timespan(int startSeconds, int endSeconds) {
+        if (startSeconds < 0 && endSeconds < 0) {
+            throw new IllegalStateException("Expected start and/or end");
+        }
+        this.startSeconds = startSeconds < 0 ? endSeconds : startSeconds;
+        this.endSeconds = endSeconds < 0 ? startSeconds : endSeconds;
+        if (this.endSeconds / SECONDS_PER_DAY < this.startSeconds / SECONDS_PER_DAY) {
+            throw new IllegalArgumentException(
+                    "Invalid end offset < startOffset " + getStartOffset() + ": " + getEndOffset());
+        }
+    }
+
     @Override
     public String toString() {
+        int startOffset = getStartOffset();
+        int endOffset = getEndOffset();
         return getClass().getSimpleName() + "[" +
-                start + "/" + (startOffset > 0 ? startOffset : "") +
+                getStart() + "/" + (startOffset > 0 ? startOffset : "") +
                 "->" +
-                end + "/" + (endOffset > 0 ? endOffset : "") +
+                getEnd() + "/" + (endOffset > 0 ? endOffset : "") +
                 "]";
     }
 
     @Override
     public boolean equals(Object o) {
         return this == o || o instanceof Timespan &&
-                startOffset == ((Timespan) o).startOffset &&
-                endOffset == ((Timespan) o).endOffset &&
-                Objects.equals(start, ((Timespan) o).start) &&
-                Objects.equals(end, ((Timespan) o).end);
+                startSeconds == ((Timespan) o).startSeconds &&
+                endSeconds == ((Timespan) o).endSeconds;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(start, end, startOffset, endOffset);
+        return 31 * startSeconds + endSeconds;
     }
 
     public Timespan earliest(Timespan other) {
@@ -76,73 +79,67 @@ public final class Timespan {
     public Timespan combined(Timespan timespan) {
         Timespan earliest = earliest(timespan);
         Timespan latest = earliest != this ? this : timespan;
-        return new Timespan(
-                earliest.start, earliest.startOffset, latest.end, latest.endOffset);
+        return new Timespan(earliest.startSeconds, latest.endSeconds);
     }
 
     public Stream<Timespan> timespans(Duration temporalAccuracy) {
         int secondsAccuracy = Math.toIntExact(temporalAccuracy.toSeconds());
-        int secondsStart = Math.toIntExact(secondsAccuracy * ((long) seconds(start) / secondsAccuracy)) +
-                startOffset * SECONDS_PER_DAY;
-        int secondsEnd = Math.toIntExact((1 + seconds(end) / secondsAccuracy) * secondsAccuracy) +
-                endOffset * SECONDS_PER_DAY;
-        int timespans = Math.toIntExact((secondsEnd - secondsStart) / secondsAccuracy);
+        int secondsStart = secondsAccuracy * (startSeconds % SECONDS_PER_DAY / secondsAccuracy) +
+                startSeconds / SECONDS_PER_DAY * SECONDS_PER_DAY;
+        int secondsEnd = (1 + endSeconds % SECONDS_PER_DAY / secondsAccuracy) * secondsAccuracy +
+                endSeconds / SECONDS_PER_DAY * SECONDS_PER_DAY;
+        int timespans = (secondsEnd - secondsStart) / secondsAccuracy;
         return IntStream.range(0, timespans)
-                .mapToObj(i -> {
-                    int start = secondsStart + i * secondsAccuracy;
-                    int end = secondsStart + (1 + i) * secondsAccuracy;
-                    return new Timespan(
-                            localTime(start), offset(start),
-                            localTime(end), offset(end));
-                });
+                .mapToObj(i -> new Timespan(
+                        secondsStart + i * secondsAccuracy,
+                        secondsStart + (1 + i) * secondsAccuracy));
+    }
+
+    public int getStartSeconds() {
+        return startSeconds;
+    }
+
+    public int getEndSeconds() {
+        return endSeconds;
     }
 
     public int getStartOffset() {
-        return startOffset;
+        return startSeconds / SECONDS_PER_DAY;
     }
 
     public int getEndOffset() {
-        return endOffset;
+        return endSeconds / SECONDS_PER_DAY;
     }
 
     public LocalTime getStart() {
-        return start;
+        return localTime(startSeconds);
     }
 
     public LocalTime getEnd() {
-        return end;
+        return localTime(endSeconds);
     }
 
     public Duration getDuration() {
-        return Duration.ofSeconds(endSeconds() - startSeconds());
+        return Duration.ofSeconds(endSeconds - startSeconds);
     }
 
     public boolean isBefore(Timespan other) {
-        return startSeconds() < other.startSeconds();
+        return startSeconds < other.startSeconds;
     }
 
     public boolean isAfter(Timespan other) {
-        return endSeconds() > other.endSeconds();
-    }
-
-    private int endSeconds() {
-        return seconds(end) + endOffset * SECONDS_PER_DAY;
-    }
-
-    private int startSeconds() {
-        return seconds(start) + startOffset * SECONDS_PER_DAY;
+        return endSeconds > other.endSeconds;
     }
 
-    private LocalTime localTime(int seconds) {
-        return LocalTime.ofSecondOfDay(seconds % SECONDS_PER_DAY);
+    public boolean overlaps(Timespan other) {
+        return startSeconds <= other.endSeconds && other.startSeconds <= endSeconds;
     }
 
-    private int offset(int seconds) {
-        return seconds / SECONDS_PER_DAY;
+    public static int seconds(LocalTime time, int dayOffset) {
+        return time == null ? NO_TIME : time.toSecondOfDay() + dayOffset * SECONDS_PER_DAY;
     }
 
-    private int seconds(LocalTime start) {
-        return start.getHour() * 3600 + start.getMinute() * 60 + start.getSecond();
+    public static LocalTime localTime(int seconds) {
+        return seconds < 0 ? null : LocalTime.ofSecondOfDay(seconds % SECONDS_PER_DAY);
     }
-
 }
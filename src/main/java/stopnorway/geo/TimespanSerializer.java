@@ -5,28 +5,21 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import stopnorway.database.AbstractSerializer;
 
-import java.time.LocalTime;
-
 public final class TimespanSerializer extends AbstractSerializer<Timespan> {
 
     @Override
     public void write(
             Kryo kryo, Output output, Timespan object
     ) {
-        kryo.writeObject(output, object.getStart());
-        output.writeVarInt(object.getStartOffset(), true);
-        kryo.writeObject(output, object.getEnd());
-        output.writeVarInt(object.getEndOffset(), true);
+        output.writeVarInt(object.getStartSeconds(), true);
+        output.writeVarInt(object.getEndSeconds() - object.getStartSeconds(), false);
     }
 
     @Override
     public Timespan read(
             Kryo kryo, Input input, Class<? extends Timespan> type
     ) {
-        return new Timespan(
-                kryo.readObject(input, LocalTime.class),
-                input.readVarInt(true),
-                kryo.readObject(input, LocalTime.class),
-                input.readVarInt(true));
+        int startSeconds = input.readVarInt(true);
+        return new Timespan(startSeconds, startSeconds + input.readVarInt(false));
     }
 }
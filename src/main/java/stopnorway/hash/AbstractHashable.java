@@ -39,7 +39,6 @@ import stopnorway.util.Print;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
@@ -51,15 +50,7 @@ import java.util.stream.Stream;
 public abstract class AbstractHashable
         implements Hashable, Serializable {
 
-    private static final String HASH = "MD5";
-
-    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
-        try {
-            return MessageDigest.getInstance(HASH);
-        } catch (Exception e) {
-            throw new IllegalStateException("Expected " + HASH + " implementation", e);
-        }
-    });
+    private static final HashAlgorithm HASH = HashAlgorithm.configured();
 
     private static final long serialVersionUID = -2993413752909173835L;
 
@@ -99,18 +90,82 @@ public abstract class AbstractHashable
         }
     }
 
+    protected static void hash(Consumer<byte[]> hash, String string) {
+
+        if (string == null) {
+            return;
+        }
+        if (hash instanceof Hasher hasher) {
+            hasher.putString(string);
+        } else {
+            hash.accept(string.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    protected static void hash(Consumer<byte[]> hash, String string1, String string2) {
+
+        hash(hash, string1);
+        hash(hash, string2);
+    }
+
+    protected static void hash(Consumer<byte[]> hash, String string1, String string2, String string3) {
+
+        hash(hash, string1);
+        hash(hash, string2);
+        hash(hash, string3);
+    }
+
     protected static void hash(Consumer<byte[]> hash, String... strings) {
 
+        if (hash instanceof Hasher hasher) {
+            for (String string : strings) {
+                if (string != null) {
+                    hasher.putString(string);
+                }
+            }
+            return;
+        }
         hashStrings(hash, Arrays.asList(strings));
     }
 
     protected static void hash(Consumer<byte[]> hash, Enum<?>... enums) {
 
+        if (hash instanceof Hasher hasher) {
+            for (Enum<?> e : enums) {
+                hasher.putEnum(e);
+            }
+            return;
+        }
         hashStrings(hash, Arrays.stream(enums).map(e -> e.getClass() + "." + e.name()));
     }
 
+    protected static void hash(Consumer<byte[]> hash, int value) {
+
+        if (hash instanceof Hasher hasher) {
+            hasher.putInt(value);
+            return;
+        }
+        hash.accept(ByteBuffer.allocate(Integer.BYTES).putInt(value).array());
+    }
+
+    protected static void hash(Consumer<byte[]> hash, int value1, int value2) {
+
+        if (hash instanceof Hasher hasher) {
+            hasher.putInt(value1);
+            hasher.putInt(value2);
+            return;
+        }
+        hash.accept(ByteBuffer.allocate(Integer.BYTES * 2).putInt(value1).putInt(value2).array());
+    }
+
     protected static void hash(Consumer<byte[]> hash, int... values) {
 
+        if (hash instanceof Hasher hasher) {
+            for (int value : values) {
+                hasher.putInt(value);
+            }
+            return;
+        }
         ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * values.length);
         for (Integer value : values) {
             if (value != null) {
@@ -122,6 +177,12 @@ public abstract class AbstractHashable
 
     protected static void hash(Consumer<byte[]> hash, float... values) {
 
+        if (hash instanceof Hasher hasher) {
+            for (float value : values) {
+                hasher.putFloat(value);
+            }
+            return;
+        }
         ByteBuffer buffer = ByteBuffer.allocate(Float.BYTES * values.length);
         for (float value : values) {
             buffer.putFloat(value);
@@ -129,8 +190,24 @@ public abstract class AbstractHashable
         hash.accept(buffer.array());
     }
 
+    protected static void hash(Consumer<byte[]> hash, double value1, double value2) {
+
+        if (hash instanceof Hasher hasher) {
+            hasher.putDouble(value1);
+            hasher.putDouble(value2);
+            return;
+        }
+        hash.accept(ByteBuffer.allocate(Double.BYTES * 2).putDouble(value1).putDouble(value2).array());
+    }
+
     protected static void hash(Consumer<byte[]> hash, double... values) {
 
+        if (hash instanceof Hasher hasher) {
+            for (double value : values) {
+                hasher.putDouble(value);
+            }
+            return;
+        }
         ByteBuffer buffer = ByteBuffer.allocate(Double.BYTES * values.length);
         for (double value : values) {
             buffer.putDouble(value);
@@ -138,6 +215,13 @@ public abstract class AbstractHashable
         hash.accept(buffer.array());
     }
 
+    protected static void hash(Consumer<byte[]> h, Hashable hashable) {
+
+        if (hashable != null) {
+            hashable.hashTo(h);
+        }
+    }
+
     protected static void hash(Consumer<byte[]> h, Hashable... hasheds) {
 
         hash(h, Arrays.asList(hasheds));
@@ -171,13 +255,7 @@ public abstract class AbstractHashable
 
     private UUID uuid() {
 
-        MessageDigest md5 = md5();
-        try {
-            hashTo(md5::update);
-            return UUID.nameUUIDFromBytes(md5.digest());
-        } finally {
-            md5.reset();
-        }
+        return HASH.uuid(this);
     }
 
     private StringBuilder withStringContents(StringBuilder sb) {
@@ -191,10 +269,6 @@ public abstract class AbstractHashable
         return sb2;
     }
 
-    private static MessageDigest md5() {
-        return MD5.get();
-    }
-
     private static void hashStrings(Consumer<byte[]> hash, Collection<String> strings) {
 
         hashStrings(hash, strings.stream());
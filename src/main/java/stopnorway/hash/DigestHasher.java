@@ -0,0 +1,78 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package stopnorway.hash;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+final class DigestHasher implements Hasher {
+
+    private final MessageDigest digest;
+
+    private final byte[] scratch = new byte[Long.BYTES];
+
+    DigestHasher(String algorithm) {
+        try {
+            this.digest = MessageDigest.getInstance(algorithm);
+        } catch (Exception e) {
+            throw new IllegalStateException("Expected " + algorithm + " implementation", e);
+        }
+    }
+
+    @Override
+    public void accept(byte[] bytes) {
+        digest.update(bytes);
+    }
+
+    @Override
+    public void putInt(int value) {
+        for (int i = 0; i < Integer.BYTES; i++) {
+            scratch[i] = (byte) (value >>> (24 - 8 * i));
+        }
+        digest.update(scratch, 0, Integer.BYTES);
+    }
+
+    @Override
+    public void putLong(long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            scratch[i] = (byte) (value >>> (56 - 8 * i));
+        }
+        digest.update(scratch, 0, Long.BYTES);
+    }
+
+    @Override
+    public void putString(String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public UUID uuid() {
+        return UUID.nameUUIDFromBytes(digest.digest());
+    }
+
+    @Override
+    public void reset() {
+        digest.reset();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + digest.getAlgorithm() + "]";
+    }
+}
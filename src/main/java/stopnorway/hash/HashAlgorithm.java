@@ -0,0 +1,65 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package stopnorway.hash;
+
+import java.util.Locale;
+import java.util.UUID;
+
+public enum HashAlgorithm {
+
+    MURMUR3 {
+        @Override
+        Hasher hasher() {
+            return new Murmur3Hasher();
+        }
+    },
+
+    MD5 {
+        @Override
+        Hasher hasher() {
+            return new DigestHasher("MD5");
+        }
+    };
+
+    public static final String PROPERTY = "stopnorway.hash";
+
+    private final ThreadLocal<Hasher> hashers = ThreadLocal.withInitial(this::hasher);
+
+    public static HashAlgorithm configured() {
+        String configured = System.getProperty(PROPERTY);
+        try {
+            return configured == null || configured.isBlank()
+                    ? MURMUR3
+                    : valueOf(configured.trim().toUpperCase(Locale.ROOT));
+        } catch (Exception e) {
+            throw new IllegalStateException("Bad -D" + PROPERTY + ": " + configured, e);
+        }
+    }
+
+    public UUID uuid(Hashable hashable) {
+        Hasher hasher = hashers.get();
+        try {
+            hashable.hashTo(hasher);
+            return hasher.uuid();
+        } finally {
+            hasher.reset();
+        }
+    }
+
+    abstract Hasher hasher();
+}
@@ -0,0 +1,46 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package stopnorway.hash;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface Hasher extends Consumer<byte[]> {
+
+    void putInt(int value);
+
+    void putLong(long value);
+
+    default void putFloat(float value) {
+        putInt(Float.floatToRawIntBits(value));
+    }
+
+    default void putDouble(double value) {
+        putLong(Double.doubleToRawLongBits(value));
+    }
+
+    void putString(String value);
+
+    default void putEnum(Enum<?> value) {
+        putString(value.getClass() + "." + value.name());
+    }
+
+    UUID uuid();
+
+    void reset();
+}
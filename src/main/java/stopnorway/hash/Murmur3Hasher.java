@@ -0,0 +1,169 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package stopnorway.hash;
+
+import java.util.UUID;
+
+final class Murmur3Hasher implements Hasher {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private long h1;
+
+    private long h2;
+
+    private long k1;
+
+    private long k2;
+
+    private int position;
+
+    private long length;
+
+    @Override
+    public void accept(byte[] bytes) {
+        for (byte b: bytes) {
+            putByte(b);
+        }
+    }
+
+    @Override
+    public void putInt(int value) {
+        for (int i = 0; i < Integer.BYTES; i++) {
+            putByte((byte) (value >>> 8 * i));
+        }
+    }
+
+    @Override
+    public void putLong(long value) {
+        if (position == 0) {
+            k1 = value;
+            advance(Long.BYTES);
+        } else if (position == Long.BYTES) {
+            k2 = value;
+            advance(Long.BYTES);
+        } else {
+            for (int i = 0; i < Long.BYTES; i++) {
+                putByte((byte) (value >>> 8 * i));
+            }
+        }
+    }
+
+    @Override
+    public void putString(String value) {
+        int length = value.length();
+        putInt(length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            putByte((byte) c);
+            putByte((byte) (c >>> 8));
+        }
+    }
+
+    @Override
+    public void putEnum(Enum<?> value) {
+        putString(value.getDeclaringClass().getName());
+        putInt(value.ordinal());
+    }
+
+    @Override
+    public UUID uuid() {
+        if (position > Long.BYTES) {
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+        }
+        if (position > 0) {
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+        }
+        long f1 = h1 ^ length;
+        long f2 = h2 ^ length;
+        f1 += f2;
+        f2 += f1;
+        f1 = fmix(f1);
+        f2 = fmix(f2);
+        f1 += f2;
+        f2 += f1;
+        return new UUID(f1, f2);
+    }
+
+    @Override
+    public void reset() {
+        h1 = 0L;
+        h2 = 0L;
+        k1 = 0L;
+        k2 = 0L;
+        position = 0;
+        length = 0L;
+    }
+
+    private void putByte(byte b) {
+        long value = b & 0xFFL;
+        if (position < Long.BYTES) {
+            k1 |= value << 8 * position;
+        } else {
+            k2 |= value << 8 * (position - Long.BYTES);
+        }
+        advance(1);
+    }
+
+    private void advance(int bytes) {
+        position += bytes;
+        length += bytes;
+        if (position == 2 * Long.BYTES) {
+            mix();
+        }
+    }
+
+    private void mix() {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        h1 ^= k1;
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        h2 ^= k2;
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+
+        k1 = 0L;
+        k2 = 0L;
+        position = 0;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
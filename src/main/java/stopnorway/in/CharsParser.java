@@ -0,0 +1,7 @@
+package stopnorway.in;
+
+@FunctionalInterface
+public interface CharsParser<T> {
+
+    T parse(char[] chars, int offset, int length);
+}
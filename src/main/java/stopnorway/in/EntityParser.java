@@ -2,10 +2,12 @@ package stopnorway.in;
 
 import stopnorway.database.Entity;
 import stopnorway.database.Id;
+import stopnorway.database.IdPool;
 import stopnorway.util.Accept;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.EndElement;
 import javax.xml.stream.events.StartElement;
@@ -32,10 +34,14 @@ public final class EntityParser<E extends Entity> {
 
     private final Map<Sublist, EntityParser<?>> subParsers;
 
+    private final Set<Sublist> inlinedSublists;
+
     private final ParseState<E> state;
 
     private final QName name;
 
+    private final IdPool idPool;
+
     public EntityParser(Class<E> type, EntityMaker<E> entityMaker, Field... fields) {
         this(type, entityMaker, Arrays.asList(fields));
     }
@@ -57,6 +63,8 @@ public final class EntityParser<E extends Entity> {
                 null,
                 fields,
                 attributes,
+                null,
+                null,
                 null);
     }
 
@@ -67,7 +75,9 @@ public final class EntityParser<E extends Entity> {
             ParseState<E> state,
             Collection<Field> fields,
             Collection<Attr> attributes,
-            Map<Sublist, EntityParser<?>> subParsers
+            Map<Sublist, EntityParser<?>> subParsers,
+            Set<Sublist> inlinedSublists,
+            IdPool idPool
     ) {
         this.type = Objects.requireNonNull(type, "type");
         this.name = Objects.requireNonNull(name, "name");
@@ -82,7 +92,11 @@ public final class EntityParser<E extends Entity> {
                 ? null
                 : subParsers.keySet().toArray(Sublist[]::new);
         this.subParsers = Accept.map(subParsers);
+        this.inlinedSublists = inlinedSublists == null || inlinedSublists.isEmpty()
+                ? Collections.emptySet()
+                : EnumSet.copyOf(inlinedSublists);
         this.state = state == null ? new ParseState<>() : state;
+        this.idPool = idPool;
     }
 
     public void digest(XMLEvent event) {
@@ -99,26 +113,50 @@ public final class EntityParser<E extends Entity> {
                 processContents(event);
             }
         } catch (Exception e) {
-            Location loc = event.getLocation();
-            String locString = loc.toString().replaceAll("\n", ", ");
-            throw new IllegalStateException(this + ": Failed @ line " + loc.getLineNumber() + " : " + locString, e);
+            throw failed(event.getLocation(), e);
         }
     }
 
-    public <S extends Entity> EntityParser<E> withSublist(Sublist sublist, EntityParser<S> entityParser) {
-        LinkedHashMap<Sublist, EntityParser<?>> newSublists = new LinkedHashMap<>(subParsers);
-        EntityParser<?> existing = newSublists.put(sublist, entityParser);
-        if (existing == null) {
-            return new EntityParser<>(
-                    type,
-                    name,
-                    entityMaker,
-                    state,
-                    fields == null ? null : Arrays.asList(fields),
-                    attributes == null ? null : Arrays.asList(attributes),
-                    newSublists);
+    public void digest(XMLStreamReader reader) {
+        try {
+            int type = reader.getEventType();
+            if (state.isBuildingList()) {
+                delegate(reader);
+            }
+            if (type == END_ELEMENT) {
+                processEnd(reader.getNamespaceURI(), reader.getLocalName());
+            } else if (type == START_ELEMENT) {
+                processStart(reader);
+            } else if (type == CHARACTERS) {
+                processContents(reader);
+            }
+        } catch (Exception e) {
+            throw failed(reader.getLocation(), e);
         }
-        throw new IllegalStateException("Already contained " + sublist + " -> " + existing);
+    }
+
+    public <S extends Entity> EntityParser<E> withSublist(Sublist sublist, EntityParser<S> entityParser) {
+        return withSublist(sublist, entityParser, false);
+    }
+
+    public <S extends Entity> EntityParser<E> withInlinedSublist(Sublist sublist, EntityParser<S> entityParser) {
+        return withSublist(sublist, entityParser, true);
+    }
+
+    public EntityParser<E> withIdPool(IdPool idPool) {
+        Map<Sublist, EntityParser<?>> pooledSublists = new LinkedHashMap<>();
+        subParsers.forEach((sublist, subParser) ->
+                pooledSublists.put(sublist, subParser.withIdPool(idPool)));
+        return new EntityParser<>(
+                type,
+                name,
+                entityMaker,
+                state,
+                fields == null ? null : Arrays.asList(fields),
+                attributes == null ? null : Arrays.asList(attributes),
+                pooledSublists,
+                inlinedSublists,
+                Objects.requireNonNull(idPool, "idPool"));
     }
 
     @Override
@@ -126,6 +164,18 @@ public final class EntityParser<E extends Entity> {
         return getClass().getSimpleName() + "[" + name + "/" + Arrays.toString(fields) + "]";
     }
 
+    Class<E> getType() {
+        return type;
+    }
+
+    String getLocalName() {
+        return name.getLocalPart();
+    }
+
+    boolean isBuildingEntity() {
+        return state.isBuildingEntity();
+    }
+
     Collection<Entity> get() {
         return get(false);
     }
@@ -134,6 +184,33 @@ public final class EntityParser<E extends Entity> {
         return state.get(reset);
     }
 
+    private <S extends Entity> EntityParser<E> withSublist(
+            Sublist sublist,
+            EntityParser<S> entityParser,
+            boolean inlined
+    ) {
+        LinkedHashMap<Sublist, EntityParser<?>> newSublists = new LinkedHashMap<>(subParsers);
+        EntityParser<?> existing = newSublists.put(sublist, entityParser);
+        if (existing == null) {
+            Set<Sublist> newInlinedSublists = EnumSet.noneOf(Sublist.class);
+            newInlinedSublists.addAll(inlinedSublists);
+            if (inlined) {
+                newInlinedSublists.add(sublist);
+            }
+            return new EntityParser<>(
+                    type,
+                    name,
+                    entityMaker,
+                    state,
+                    fields == null ? null : Arrays.asList(fields),
+                    attributes == null ? null : Arrays.asList(attributes),
+                    newSublists,
+                    newInlinedSublists,
+                    idPool);
+        }
+        throw new IllegalStateException("Already contained " + sublist + " -> " + existing);
+    }
+
     private void delegate(XMLEvent event) {
         EntityParser<?> entityParser = subParsers.get(state.getActiveSublist());
         if (entityParser != null) {
@@ -141,25 +218,57 @@ public final class EntityParser<E extends Entity> {
         }
     }
 
+    private void delegate(XMLStreamReader reader) {
+        EntityParser<?> entityParser = subParsers.get(state.getActiveSublist());
+        if (entityParser != null) {
+            entityParser.digest(reader);
+        }
+    }
+
     private void processStart(StartElement startElement) {
         QName elementName = startElement.getName();
-        if (isEntity(elementName)) {
-            state.startBuildingEntity(Id.parse(getAttribute(startElement, id)));
+        if (isEntity(elementName.getNamespaceURI(), elementName.getLocalPart())) {
+            state.startBuildingEntity(id(getAttribute(startElement, id)));
             if (attributes != null) {
                 collectAttributes(startElement);
             }
             return;
         }
         if (state.isBuildingEntity()) {
-            Field matchingField = match(this.fields, elementName);
-            if (matchingField != null) {
-                intializeField(startElement, matchingField);
+            Field matchingField = startMatching(elementName.getLocalPart());
+            if (matchingField != null && state.isLookingForField(DataType.Ref)) {
+                state.setFieldId(id(getAttribute(startElement, ref)));
             }
-            Sublist matchingSublist = match(sublists, elementName);
-            if (matchingSublist != null) {
-                state.startBuildingList(matchingSublist);
+        }
+    }
+
+    private void processStart(XMLStreamReader reader) {
+        String localName = reader.getLocalName();
+        if (isEntity(reader.getNamespaceURI(), localName)) {
+            state.startBuildingEntity(id(getAttribute(reader, id)));
+            if (attributes != null) {
+                collectAttributes(reader);
             }
+            return;
+        }
+        if (state.isBuildingEntity()) {
+            Field matchingField = startMatching(localName);
+            if (matchingField != null && state.isLookingForField(DataType.Ref)) {
+                state.setFieldId(id(getAttribute(reader, ref)));
+            }
+        }
+    }
+
+    private Field startMatching(String localName) {
+        Field matchingField = match(this.fields, localName);
+        if (matchingField != null) {
+            state.startLookingForField(matchingField);
+        }
+        Sublist matchingSublist = match(sublists, localName);
+        if (matchingSublist != null) {
+            state.startBuildingList(matchingSublist);
         }
+        return matchingField;
     }
 
     private void processContents(XMLEvent event) {
@@ -169,17 +278,27 @@ public final class EntityParser<E extends Entity> {
         }
     }
 
+    private void processContents(XMLStreamReader reader) {
+        if (state.isLookingForField(DataType.Content)) {
+            state.setContents(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+        }
+    }
+
     private void processEnd(EndElement endElement) {
         QName elementName = endElement.getName();
-        if (this.name.equals(elementName)) {
+        processEnd(elementName.getNamespaceURI(), elementName.getLocalPart());
+    }
+
+    private void processEnd(String namespace, String localName) {
+        if (isEntity(namespace, localName)) {
             state.completeEntityBuild(entityMaker);
             return;
         }
-        Field matchingField = match(fields, elementName);
+        Field matchingField = match(fields, localName);
         if (matchingField != null) {
             state.stopLookingForField(matchingField);
         }
-        Sublist sublist = match(sublists, elementName);
+        Sublist sublist = match(sublists, localName);
         if (state.isBuildingList(sublist)) {
             processSublistEnd(sublist);
         }
@@ -189,7 +308,9 @@ public final class EntityParser<E extends Entity> {
         try {
             EntityParser<?> listParser = subParsers.get(sublist);
             Collection<Entity> subEntities = listParser.get(true);
-            state.absorb(subEntities);
+            if (!inlinedSublists.contains(sublist)) {
+                state.absorb(subEntities);
+            }
             state.completeList(sublist, subEntities);
             listParser.reset();
         } catch (Exception e) {
@@ -197,13 +318,6 @@ public final class EntityParser<E extends Entity> {
         }
     }
 
-    private void intializeField(StartElement startElement, Field matchingField) {
-        state.startLookingForField(matchingField);
-        if (state.isLookingForField(DataType.Ref)) {
-            state.setFieldId(Id.parse(getAttribute(startElement, ref)));
-        }
-    }
-
     private void collectAttributes(StartElement startElement) {
         for (Attr attr: attributes) {
             Attribute attribute = startElement.getAttributeByName(QName.valueOf(attr.name()));
@@ -213,20 +327,38 @@ public final class EntityParser<E extends Entity> {
         }
     }
 
+    private void collectAttributes(XMLStreamReader reader) {
+        for (Attr attr: attributes) {
+            String value = getAttribute(reader, attr);
+            if (value != null) {
+                state.setAttribute(attr, value);
+            }
+        }
+    }
+
     private void reset() {
         state.reset();
     }
 
-    private boolean isEntity(QName name) {
-        return this.name.equals(name);
+    private boolean isEntity(String namespace, String localName) {
+        return name.getLocalPart().equals(localName) && name.getNamespaceURI().equals(namespace);
     }
 
-    private static <M extends EnumMatch> M match(M[] matches, QName name) {
+    private Id id(String attribute) {
+        return idPool == null ? Id.parse(attribute) : idPool.parse(attribute);
+    }
+
+    private IllegalStateException failed(Location loc, Exception e) {
+        String locString = loc.toString().replaceAll("\n", ", ");
+        return new IllegalStateException(this + ": Failed @ line " + loc.getLineNumber() + " : " + locString, e);
+    }
+
+    private static <M extends EnumMatch> M match(M[] matches, String localName) {
         if (matches == null) {
             return null;
         }
         for (M match: matches) {
-            if (match.matches(name)) {
+            if (match.matches(localName)) {
                 return match;
             }
         }
@@ -236,4 +368,8 @@ public final class EntityParser<E extends Entity> {
     private static String getAttribute(StartElement startElement, Attr attr) {
         return startElement.getAttributeByName(attr.qname()).getValue();
     }
+
+    private static String getAttribute(XMLStreamReader reader, Attr attr) {
+        return reader.getAttributeValue(null, attr.name());
+    }
 }
@@ -3,6 +3,7 @@ package stopnorway.in;
 import stopnorway.database.Entity;
 import stopnorway.entur.*;
 import stopnorway.geo.Point;
+import stopnorway.geo.PointSequence;
 import stopnorway.geo.Points;
 
 import java.util.Collection;
@@ -20,6 +21,13 @@ public final class EntityParsers {
     }
 
     static List<EntityParser<? extends Entity>> all(BiFunction<String, String, Point> pointMaker) {
+        return all(pointMaker, false);
+    }
+
+    static List<EntityParser<? extends Entity>> all(
+        BiFunction<String, String, Point> pointMaker,
+        boolean passingTimeIds
+    ) {
         return List.of(
             lineParser(),
             serviceLinkParser(),
@@ -27,7 +35,7 @@ public final class EntityParsers {
             routePointParser(),
             routeParser(),
             journeyPatternParser(),
-            serviceJourneyParser()
+            serviceJourneyParser(passingTimeIds)
         );
     }
 
@@ -44,6 +52,10 @@ public final class EntityParsers {
     }
 
     static EntityParser<ServiceJourney> serviceJourneyParser() {
+        return serviceJourneyParser(false);
+    }
+
+    static EntityParser<ServiceJourney> serviceJourneyParser(boolean passingTimeIds) {
         return new EntityParser<>(
             ServiceJourney.class,
             data -> new ServiceJourney(
@@ -52,10 +64,13 @@ public final class EntityParsers {
                 data.getContent(TransportMode),
                 data.getId(JourneyPatternRef),
                 data.getId(LineRef),
-                (Collection<TimetabledPassingTime>) data.getSublist(Sublist.passingTimes)
+                PassingTimes.of(
+                    (Collection<TimetabledPassingTime>) data.getSublist(Sublist.passingTimes),
+                    passingTimeIds
+                )
             ),
             List.of(Name, TransportMode, JourneyPatternRef, LineRef)
-        ).withSublist(
+        ).withInlinedSublist(
             Sublist.passingTimes,
             new EntityParser<>(
                 TimetabledPassingTime.class,
@@ -171,7 +186,7 @@ public final class EntityParsers {
                 data ->
                     new LinkSequenceProjection(
                         data.getId(),
-                        Points.sequence(data.getContent(posList))
+                        data.<PointSequence>getContent(posList, Points::pointSequence)
                     ),
                 posList
             )
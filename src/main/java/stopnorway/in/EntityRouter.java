@@ -0,0 +1,123 @@
+package stopnorway.in;
+
+import org.codehaus.stax2.XMLStreamReader2;
+import stopnorway.database.Entity;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.XMLEvent;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+final class EntityRouter {
+
+    private final Map<String, EntityParser<? extends Entity>> parsers;
+
+    private final Set<String> skippedElements;
+
+    private final Map<String, Set<String>> skippedWithinEntities;
+
+    private EntityParser<? extends Entity> active;
+
+    EntityRouter(Collection<EntityParser<? extends Entity>> parsers, ParseProfile profile) {
+        this.parsers = parsers.stream()
+            .collect(Collectors.toMap(
+                EntityParser::getLocalName,
+                Function.identity()
+            ));
+        this.skippedElements = profile.skippedElements();
+        this.skippedWithinEntities = profile.skippedWithinEntities();
+    }
+
+    void route(XMLEvent event, XMLEventReader reader) throws XMLStreamException {
+        if (event.getEventType() == START_ELEMENT && skipped(event.asStartElement().getName().getLocalPart())) {
+            skip(reader);
+            return;
+        }
+        route(event);
+    }
+
+    void route(XMLStreamReader reader) throws XMLStreamException {
+        if (reader.getEventType() == START_ELEMENT && skipped(reader.getLocalName())) {
+            skip(reader);
+            return;
+        }
+        if (active == null) {
+            if (reader.getEventType() != START_ELEMENT) {
+                return;
+            }
+            active = parsers.get(reader.getLocalName());
+            if (active == null) {
+                return;
+            }
+        }
+        active.digest(reader);
+        if (!active.isBuildingEntity()) {
+            active = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + parsers.keySet() + (active == null ? "" : " -> " + active) + "]";
+    }
+
+    private void route(XMLEvent event) {
+        if (active == null) {
+            if (event.getEventType() != START_ELEMENT) {
+                return;
+            }
+            active = parsers.get(event.asStartElement().getName().getLocalPart());
+            if (active == null) {
+                return;
+            }
+        }
+        active.digest(event);
+        if (!active.isBuildingEntity()) {
+            active = null;
+        }
+    }
+
+    private boolean skipped(String localName) {
+        if (active == null) {
+            return skippedElements.contains(localName);
+        }
+        Set<String> skipped = skippedWithinEntities.get(active.getLocalName());
+        return skipped != null && skipped.contains(localName);
+    }
+
+    private static void skip(XMLStreamReader reader) throws XMLStreamException {
+        if (reader instanceof XMLStreamReader2 reader2) {
+            reader2.skipElement();
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            int type = reader.next();
+            if (type == START_ELEMENT) {
+                depth++;
+            } else if (type == END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static void skip(XMLEventReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int type = reader.nextEvent().getEventType();
+            if (type == START_ELEMENT) {
+                depth++;
+            } else if (type == END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
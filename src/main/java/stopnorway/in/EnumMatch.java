@@ -17,6 +17,10 @@ public interface EnumMatch {
     }
 
     default boolean matches(QName name) {
-        return name.getLocalPart().equalsIgnoreCase(name());
+        return matches(name.getLocalPart());
+    }
+
+    default boolean matches(String localName) {
+        return localName.equalsIgnoreCase(name());
     }
 }
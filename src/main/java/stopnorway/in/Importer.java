@@ -3,12 +3,22 @@ package stopnorway.in;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-import java.nio.file.*;
-import java.util.Arrays;
-import java.util.Collection;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 public final class Importer {
 
@@ -40,76 +50,180 @@ public final class Importer {
         if (!(targetDirectory.isDirectory() || targetDirectory.mkdirs())) {
             throw new IllegalArgumentException("Could not establish directory " + targetPath);
         }
-        try (
-            FileSystem fileSystem = FileSystems.newFileSystem(zipFile, ClassLoader.getSystemClassLoader())
-        ) {
-            log.info("{}: Copying to {} ...", zipFile, targetPath);
-            fileSystem.getRootDirectories()
-                .forEach(path -> {
-                    log.info("Copying root {} to {} ...", path, targetPath);
-                    copyAll(path, targetPath, sources);
-                });
-        } catch (Exception e) {
+        try (ZipFile zip = new ZipFile(zipFile.toFile())) {
+            log.info("{}: Extracting to {} ...", zipFile, targetPath);
+            extractAll(zip, targetPath, sources);
+        } catch (IOException e) {
             throw new IllegalArgumentException("Failed to open " + zipFile, e);
         }
         return targetPath;
     }
 
+    public static Map<Enum<?>, String> fingerprints(Path zipFile, Collection<? extends Enum<?>> sources) {
+        if (!zipFile.toFile().isFile()) {
+            throw new IllegalArgumentException("Bad zip file: " + zipFile);
+        }
+        try (ZipFile zip = new ZipFile(zipFile.toFile())) {
+            List<ZipEntry> entries = ZipOperatorSources.xmlEntries(zip);
+            Map<Enum<?>, String> fingerprints = new LinkedHashMap<>();
+            for (Enum<?> source: sources) {
+                fingerprints.put(source, fingerprint(ZipOperatorSources.entries(entries, source).stream()
+                    .sorted(Comparator.comparing(Importer::fileName))
+                    .collect(Collectors.toList())));
+            }
+            return fingerprints;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to open " + zipFile, e);
+        }
+    }
+
     private Importer() {
 
     }
 
     static final String SUFF = ".zip";
 
-    private static void copyAll(Path path, Path target, Collection<? extends Enum<?>> sources) {
+    static final String MANIFEST = "extracted.properties";
+
+    private static final long MB = 1024L * 1024;
+
+    private static void extractAll(ZipFile zip, Path target, Collection<? extends Enum<?>> sources) {
+        List<ZipEntry> xmlEntries = ZipOperatorSources.xmlEntries(zip);
+        List<ZipEntry> entries = sources.isEmpty()
+            ? xmlEntries
+            : sources.stream()
+                .flatMap(source -> ZipOperatorSources.entries(xmlEntries, source).stream())
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, String> manifest = readManifest(target);
+        Map<String, String> updatedManifest = new ConcurrentHashMap<>(manifest);
+        AtomicInteger counter = new AtomicInteger();
+        AtomicInteger copied = new AtomicInteger();
+        AtomicLong bytes = new AtomicLong();
+        Instant start = Instant.now();
+        ExecutorService executorService = executorService();
         try {
-            AtomicInteger counter = new AtomicInteger();
-            AtomicInteger copied = new AtomicInteger();
-            try (Stream<Path> walk = Files.walk(path)) {
-                walk.filter(file -> file.getFileName() != null)
-                    .filter(file -> sources.isEmpty() || sourceMatch(file, sources))
-                    .filter(file -> file.getFileName().toString().endsWith(".xml"))
-                    .forEach(file -> {
-                        int count = counter.incrementAndGet();
-                        if (copy(file, target, count)) {
-                            copied.incrementAndGet();
-                        }
-                    });
-            }
-            log.info("Copied {}/{} files to {}", copied, counter, target);
+            List<Future<?>> futures = entries.stream()
+                .map(entry -> executorService.submit(() -> {
+                    int count = counter.incrementAndGet();
+                    String fileName = fileName(entry);
+                    if (extract(zip, entry, target, manifest.get(fileName), count)) {
+                        copied.incrementAndGet();
+                        bytes.addAndGet(entry.getSize());
+                    }
+                    updatedManifest.put(fileName, stamp(entry));
+                }))
+                .collect(Collectors.toList());
+            futures.forEach(Importer::await);
+        } finally {
+            executorService.shutdown();
+            writeManifest(target, updatedManifest);
+        }
+        Duration time = Duration.between(start, Instant.now());
+        long millis = Math.max(1, time.toMillis());
+        log.info(
+            "Extracted {}/{} files to {}: {}mb in {}, {}mb/s",
+            copied,
+            entries.size(),
+            target,
+            bytes.get() / MB,
+            time,
+            bytes.get() * 1000 / millis / MB
+        );
+    }
+
+    private static boolean extract(ZipFile zip, ZipEntry entry, Path target, String stamp, int count) {
+        Path targetFile = target.resolve(fileName(entry));
+        File file = targetFile.toFile();
+        if (file.isFile() && file.length() == entry.getSize() && stamp(entry).equals(stamp)) {
+            return false;
+        }
+        if (shouldLog(count)) {
+            log.info("Extracting file #{}, {} => {}", count, entry.getName(), target);
+        }
+        Path partFile = target.resolve(fileName(entry) + ".part");
+        try (InputStream in = zip.getInputStream(entry)) {
+            Files.copy(in, partFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(partFile, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
         } catch (Exception e) {
             throw new IllegalArgumentException(
-                "Failed to walk " + path, e);
+                "Failed to extract " + entry + " to " + target, e);
         }
     }
 
-    private static boolean sourceMatch(Path file, Collection<? extends Enum<?>> sources) {
-        return sources.stream()
-            .map(Enum::name).anyMatch(file.getFileName().toString()::contains);
+    static String contentHash(Map<String, String> manifest, File file) {
+        String stamp = manifest.get(file.getName());
+        int separator = stamp == null ? -1 : stamp.indexOf('/');
+        if (separator < 0) {
+            return null;
+        }
+        String size = stamp.substring(0, separator);
+        return size.equals(String.valueOf(file.length()))
+            ? size + "-" + stamp.substring(separator + 1)
+            : null;
     }
 
-    private static boolean copy(Path source, Path target, int count) {
-        try {
-            Path targetFile = target.resolve(Path.of(source.getFileName().toString()));
-            File file = targetFile.toFile();
-            if (!file.exists()) {
-                if (shouldLog(count)) {
-                    log.info("Copying file #{}, {} => {}", count, file, target);
-                }
-                Files.copy(source, targetFile);
-                return true;
+    static Map<String, String> readManifest(Path target) {
+        File file = target.resolve(MANIFEST).toFile();
+        Properties properties = new Properties();
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(in);
+            } catch (Exception e) {
+                log.warn("Ignoring unreadable manifest {}", file, e);
+                return Collections.emptyMap();
             }
-            if (file.length() <= 0) {
-                if (shouldLog(count)) {
-                    log.info("Copying over file #{}, {} => {}", count, file, target);
-                }
-                Files.copy(source, targetFile, StandardCopyOption.REPLACE_EXISTING);
-                return true;
-            }
-            return false;
+        }
+        return properties.stringPropertyNames().stream()
+            .collect(Collectors.toMap(Function.identity(), properties::getProperty));
+    }
+
+    private static void writeManifest(Path target, Map<String, String> manifest) {
+        Properties properties = new Properties();
+        properties.putAll(manifest);
+        try (OutputStream out = new FileOutputStream(target.resolve(MANIFEST).toFile())) {
+            properties.store(out, "Extracted entries: size/crc");
         } catch (Exception e) {
-            throw new IllegalArgumentException(
-                "Failed to copy " + source + " to " + target, e);
+            throw new IllegalStateException("Failed to write manifest to " + target, e);
+        }
+    }
+
+    private static String fingerprint(Collection<ZipEntry> entries) {
+        CRC32 crc = new CRC32();
+        long size = 0;
+        for (ZipEntry entry: entries) {
+            crc.update((fileName(entry) + "=" + stamp(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+            size += entry.getSize();
+        }
+        return size + "/" + Long.toHexString(crc.getValue());
+    }
+
+    private static String stamp(ZipEntry entry) {
+        return entry.getSize() + "/" + Long.toHexString(entry.getCrc());
+    }
+
+    private static String fileName(ZipEntry entry) {
+        String name = entry.getName();
+        return name.substring(name.lastIndexOf('/') + 1);
+    }
+
+    private static ExecutorService executorService() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            r -> new Thread(r, "unzip#" + count.getAndIncrement())
+        );
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted: " + future, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed: " + future, e.getCause());
         }
     }
 
@@ -5,53 +5,171 @@ import org.codehaus.stax2.XMLInputFactory2;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
 import java.util.zip.GZIPInputStream;
 
 public final class OperatorSource {
 
     private static final int BUFF = 16 * 1024;
 
+    private static final int READ_AHEAD_BUFFERS = 16;
+
+    private static final int READ_AHEAD_BUFFER = 64 * 1024;
+
     private static final XMLInputFactory xmlInputFactory = XMLInputFactory2.newFactory();
 
     private final Enum<?> source;
 
     private final File file;
 
+    private final String name;
+
     private final boolean zipped;
 
     private final long length;
 
+    private final boolean readAhead;
+
+    private final Supplier<InputStream> inputStreams;
+
+    private final Path path;
+
+    private volatile String contentHash;
+
     public OperatorSource(Enum<?> source, File file) {
+        this(source, file, false);
+    }
+
+    public OperatorSource(Enum<?> source, File file, boolean readAhead) {
+        this(source, file, readAhead, null);
+    }
+
+    OperatorSource(Enum<?> source, File file, boolean readAhead, String contentHash) {
         this.source = source;
         this.file = Objects.requireNonNull(file, "file");
+        this.name = file.toString();
         this.length = file.length();
         this.zipped = file.getName().endsWith(".gz");
+        this.readAhead = readAhead;
+        this.inputStreams = null;
+        this.path = file.toPath();
+        this.contentHash = contentHash;
+    }
+
+    OperatorSource(Enum<?> source, String name, long length, Supplier<InputStream> inputStreams) {
+        this(source, name, length, false, inputStreams);
+    }
+
+    OperatorSource(Enum<?> source, String name, long length, boolean readAhead, Supplier<InputStream> inputStreams) {
+        this(source, name, length, readAhead, inputStreams, null, null);
+    }
+
+    OperatorSource(
+            Enum<?> source,
+            String name,
+            long length,
+            boolean readAhead,
+            Supplier<InputStream> inputStreams,
+            Path path,
+            String contentHash
+    ) {
+        this.source = source;
+        this.file = null;
+        this.name = Objects.requireNonNull(name, "name");
+        this.length = length;
+        this.zipped = false;
+        this.readAhead = readAhead;
+        this.inputStreams = Objects.requireNonNull(inputStreams, "inputStreams");
+        this.path = path;
+        this.contentHash = contentHash;
     }
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + "[" + file + "]";
+        return getClass().getSimpleName() + "[" + name + "]";
     }
 
-    public XMLEventReader eventReader() {
-        InputStream files = inputStream();
-        return readers(files);
+    public InputStream inputStream() {
+        try {
+            if (inputStreams != null) {
+                InputStream in = inputStreams.get();
+                return readAhead ? readAhead(in) : in;
+            }
+            InputStream in = new BufferedInputStream(new FileInputStream(file), 1024 * 1024);
+            InputStream decoded = zipped
+                    ? new GZIPInputStream(in, BUFF)
+                    : in;
+            return readAhead ? readAhead(decoded) : decoded;
+        } catch (Exception e) {
+            throw new IllegalArgumentException(file == null ? name : file.getAbsolutePath(), e);
+        }
+    }
+
+    public XMLEventReader eventReader(InputStream in) {
+        return readers(in);
+    }
+
+    public XMLStreamReader streamReader(InputStream in) {
+        try {
+            return xmlInputFactory.createXMLStreamReader(in, StandardCharsets.UTF_8.name());
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Failed to create stream reader", e);
+        }
     }
 
     public Enum<?> getEnum() {
         return source;
     }
 
+    public Path getPath() {
+        return path;
+    }
+
+    public String getContentHash() {
+        if (contentHash == null) {
+            contentHash = computedContentHash();
+        }
+        return contentHash;
+    }
+
     long getLength() {
         return length;
     }
 
+    File getFile() {
+        return file;
+    }
+
+    boolean isZipped() {
+        return zipped;
+    }
+
+    private String computedContentHash() {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFF];
+        long bytes = 0;
+        try (InputStream in = file == null ? inputStreams.get() : new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+                bytes += read;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(this + " failed to hash contents", e);
+        }
+        return bytes + "-" + Long.toHexString(crc.getValue());
+    }
+
     private XMLEventReader readers(InputStream file) {
         try {
             return xmlInputFactory.createXMLEventReader(file, StandardCharsets.UTF_8.name());
@@ -60,14 +178,7 @@ public final class OperatorSource {
         }
     }
 
-    private InputStream inputStream() {
-        try {
-            InputStream in = new BufferedInputStream(new FileInputStream(file), 1024 * 1024);
-            return zipped
-                    ? new GZIPInputStream(in, BUFF)
-                    : in;
-        } catch (Exception e) {
-            throw new IllegalArgumentException(file.getAbsolutePath(), e);
-        }
+    private InputStream readAhead(InputStream in) {
+        return new ReadAheadInputStream(in, name, READ_AHEAD_BUFFERS, READ_AHEAD_BUFFER);
     }
 }
@@ -0,0 +1,8 @@
+package stopnorway.in;
+
+public enum ParseEngine {
+
+    EVENTS,
+
+    CURSOR
+}
@@ -0,0 +1,98 @@
+package stopnorway.in;
+
+import stopnorway.database.Entity;
+import stopnorway.entur.*;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public enum ParseProfile {
+
+    FULL(
+            Set.of(
+                    Line.class,
+                    ServiceLink.class,
+                    ScheduledStopPoint.class,
+                    RoutePoint.class,
+                    Route.class,
+                    JourneyPattern.class,
+                    ServiceJourney.class),
+            true),
+
+    TOPOLOGY(
+            Set.of(
+                    Line.class,
+                    ServiceLink.class,
+                    ScheduledStopPoint.class,
+                    RoutePoint.class,
+                    Route.class,
+                    JourneyPattern.class),
+            false),
+
+    TIMETABLE(
+            Set.of(
+                    Line.class,
+                    ScheduledStopPoint.class,
+                    Route.class,
+                    JourneyPattern.class,
+                    ServiceJourney.class),
+            false),
+
+    GEOMETRY(
+            Set.of(
+                    ServiceLink.class,
+                    ScheduledStopPoint.class,
+                    RoutePoint.class),
+            true);
+
+    private static final Map<Class<? extends Entity>, String> CONTAINERS = Map.of(
+            Line.class, "lines",
+            ServiceLink.class, "serviceLinks",
+            ScheduledStopPoint.class, "scheduledStopPoints",
+            RoutePoint.class, "routePoints",
+            Route.class, "routes",
+            JourneyPattern.class, "journeyPatterns",
+            ServiceJourney.class, "vehicleJourneys");
+
+    private final Set<Class<? extends Entity>> entityTypes;
+
+    private final boolean geometry;
+
+    ParseProfile(Set<Class<? extends Entity>> entityTypes, boolean geometry) {
+        this.entityTypes = entityTypes;
+        this.geometry = geometry;
+    }
+
+    public Set<Class<? extends Entity>> getEntityTypes() {
+        return entityTypes;
+    }
+
+    public boolean isGeometry() {
+        return geometry;
+    }
+
+    boolean includes(EntityParser<?> entityParser) {
+        return entityTypes.contains(entityParser.getType());
+    }
+
+    Collection<EntityParser<? extends Entity>> parsers(Collection<EntityParser<? extends Entity>> entityParsers) {
+        return entityParsers.stream()
+                .filter(this::includes)
+                .collect(Collectors.toList());
+    }
+
+    Set<String> skippedElements() {
+        return CONTAINERS.entrySet().stream()
+                .filter(entry -> !entityTypes.contains(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toSet());
+    }
+
+    Map<String, Set<String>> skippedWithinEntities() {
+        return geometry || !entityTypes.contains(ServiceLink.class)
+                ? Map.of()
+                : Map.of(ServiceLink.class.getSimpleName(), Set.of(Sublist.projections.name()));
+    }
+}
@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import stopnorway.database.Entity;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -29,6 +30,8 @@ public final class ParseProgress {
 
     private final long start;
 
+    private final AtomicInteger sourcesStarted = new AtomicInteger();
+
     private final AtomicInteger sourcesProcessed = new AtomicInteger();
 
     private final AtomicInteger entities = new AtomicInteger();
@@ -39,11 +42,18 @@ public final class ParseProgress {
 
     private final long mbs;
 
+    private final Instant startTime;
+
+    private volatile Instant allStarted;
+
+    private volatile Instant allProcessed;
+
     public ParseProgress(Collection<OperatorSource> sources, Collection<? extends Enum<?>> enums, Instant start) {
         this.sources = sources.size();
         this.length = sources.stream().mapToLong(OperatorSource::getLength).sum();
         this.enums = enums.size();
         this.start = start.getEpochSecond();
+        this.startTime = start;
         mbs = length / MB;
     }
 
@@ -51,9 +61,25 @@ public final class ParseProgress {
         return !done.get();
     }
 
+    public Duration getElapsed() {
+        return allProcessed == null ? null : Duration.between(startTime, allProcessed);
+    }
+
+    public Duration getTail() {
+        return allProcessed == null || allStarted == null ? null : Duration.between(allStarted, allProcessed);
+    }
+
+    public void started(OperatorSource source) {
+        if (sourcesStarted.incrementAndGet() == sources) {
+            allStarted = Instant.now();
+        }
+    }
+
     public Collection<Entity> recorded(OperatorSource source, Collection<Entity> entities) {
         enumsProcessed.add(source.getEnum());
-        sourcesProcessed.incrementAndGet();
+        if (sourcesProcessed.incrementAndGet() == sources) {
+            allProcessed = Instant.now();
+        }
         long bytesCount = bytesProcessed.addAndGet(source.getLength());
         this.entities.addAndGet(entities.size());
         if (bytesCount == length) {
@@ -77,7 +103,7 @@ public final class ParseProgress {
         int sourcesCount = sourcesProcessed.get();
 
         int bytesPerc = (int) (100.0d * bytesCount / length);
-        long secs = now.getEpochSecond() - start;
+        long secs = Math.max(1, now.getEpochSecond() - start);
         long bytesHz = bytesCount / secs;
         log.info(
                 "{}% {}/{} sources, {}/{}mb /{}mb/s, {}K entities /{}/s <- {}/{} operators",
@@ -91,6 +117,9 @@ public final class ParseProgress {
                 enityCount / secs,
                 enumCount,
                 enums);
+        if (getTail() != null) {
+            log.info("Completed in {}, {} after last source started", getElapsed(), getTail());
+        }
         return bytesCount == length;
     }
 }
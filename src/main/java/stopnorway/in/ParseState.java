@@ -11,6 +11,8 @@ class ParseState<E extends Entity> {
 
     private static final int ZERO_OFFSET = 48;
 
+    private static final int FIELDS = Field.values().length;
+
     private Field activeField;
 
     private Sublist activeSublist;
@@ -19,7 +21,15 @@ class ParseState<E extends Entity> {
 
     private Map<Field, Id> ids;
 
-    private Map<Field, String> contents;
+    private char[] chars = new char[256];
+
+    private int charsUsed;
+
+    private final int[] contentStarts = new int[FIELDS];
+
+    private final int[] contentLengths = new int[FIELDS];
+
+    private long contentFields;
 
     private Map<Attr, String> attributes;
 
@@ -34,7 +44,7 @@ class ParseState<E extends Entity> {
                 activeField == null ? Stream.<String>empty() : Stream.of("activeField: " + activeField),
                 id == null ? Stream.<String>empty() : Stream.of("activeId: " + id),
                 ids == null ? Stream.<String>empty() : Stream.of("ids: " + ids),
-                contents == null ? Stream.<String>empty() : Stream.of("strings: " + contents)
+                contentFields == 0L ? Stream.<String>empty() : Stream.of("strings: " + contents())
         ).flatMap(s -> s).collect(Collectors.joining(", ")) + "]";
     }
 
@@ -66,18 +76,22 @@ class ParseState<E extends Entity> {
     }
 
     String getContent(Field field) {
-        return contents == null ? null : contents.get(field);
+        return hasContent(field)
+                ? new String(chars, contentStarts[field.ordinal()], contentLengths[field.ordinal()])
+                : null;
+    }
+
+    <T> T getContent(Field field, CharsParser<T> parser) {
+        return hasContent(field)
+                ? parser.parse(chars, contentStarts[field.ordinal()], contentLengths[field.ordinal()])
+                : parser.parse(chars, 0, 0);
     }
 
     int getIntContent(Field field) {
-        if (contents == null) {
+        if (!hasContent(field)) {
             return 0;
         }
-        String content = contents.get(field);
-        if (content == null) {
-            return 0;
-        }
-        return toInt(field, content, 0, false);
+        return toInt(chars, contentStarts[field.ordinal()], contentLengths[field.ordinal()]);
     }
 
     int getOrder() {
@@ -147,7 +161,7 @@ class ParseState<E extends Entity> {
     }
 
     Collection<Entity> get(boolean clear) {
-        if (activeField == null || id == null || ids == null || contents == null || attributes == null) {
+        if (activeField == null || id == null || ids == null || contentFields == 0L || attributes == null) {
             Collection<Entity> entities = parsedEntities(false);
             if (clear) {
                 reset();
@@ -177,16 +191,67 @@ class ParseState<E extends Entity> {
         setFieldContents(this.activeField, contents);
     }
 
+    void setContents(char[] text, int start, int length) {
+        if (this.activeField == null) {
+            throw new IllegalStateException(
+                    this + " cannot append to unknown field: '" + new String(text, start, length) + "''");
+        }
+        if (hasContent(activeField) || !isBlank(text, start, length)) {
+            System.arraycopy(text, start, reserve(activeField, length), charsUsed, length);
+            append(activeField, length);
+        }
+    }
+
     void setFieldContents(Field activeField, String contents) {
-        if (contents == null || contents.isBlank()) {
+        if (contents == null || !hasContent(activeField) && contents.isBlank()) {
             return;
         }
-        if (this.contents == null) {
-            this.contents = new EnumMap<>(Field.class);
+        int length = contents.length();
+        contents.getChars(0, length, reserve(activeField, length), charsUsed);
+        append(activeField, length);
+    }
+
+    private char[] reserve(Field field, int length) {
+        int ordinal = field.ordinal();
+        boolean trailing = hasContent(field) && contentStarts[ordinal] + contentLengths[ordinal] == charsUsed;
+        int moved = hasContent(field) && !trailing ? contentLengths[ordinal] : 0;
+        ensureCapacity(charsUsed + moved + length);
+        if (moved > 0) {
+            System.arraycopy(chars, contentStarts[ordinal], chars, charsUsed, moved);
+            contentStarts[ordinal] = charsUsed;
+            charsUsed += moved;
+        }
+        if (!hasContent(field)) {
+            contentStarts[ordinal] = charsUsed;
+            contentLengths[ordinal] = 0;
+            contentFields |= 1L << ordinal;
+        }
+        return chars;
+    }
+
+    private void append(Field field, int length) {
+        contentLengths[field.ordinal()] += length;
+        charsUsed += length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+        }
+    }
+
+    private boolean hasContent(Field field) {
+        return (contentFields & 1L << field.ordinal()) != 0L;
+    }
+
+    private Map<Field, String> contents() {
+        Map<Field, String> contents = new EnumMap<>(Field.class);
+        for (Field field: Field.values()) {
+            if (hasContent(field)) {
+                contents.put(field, getContent(field));
+            }
         }
-        this.contents.compute(
-                activeField,
-                (field, s) -> s == null ? contents : s + contents);
+        return contents;
     }
 
     @SuppressWarnings("SameParameterValue")
@@ -219,6 +284,32 @@ class ParseState<E extends Entity> {
         return v;
     }
 
+    private static int toInt(char[] chars, int start, int length) {
+        int from = start;
+        int to = start + length;
+        while (from < to && chars[from] <= ' ') {
+            from++;
+        }
+        while (to > from && chars[to - 1] <= ' ') {
+            to--;
+        }
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            v *= 10;
+            v += chars[i] - ZERO_OFFSET;
+        }
+        return v;
+    }
+
+    private static boolean isBlank(char[] text, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            if (!Character.isWhitespace(text[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @SuppressWarnings("unchecked")
     private <S> void store(Collection<S> elements) {
         if (sublists == null) {
@@ -244,7 +335,8 @@ class ParseState<E extends Entity> {
             id = null;
             sublists = null;
             ids = null;
-            contents = null;
+            charsUsed = 0;
+            contentFields = 0L;
             attributes = null;
         }
     }
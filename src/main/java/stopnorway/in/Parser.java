@@ -3,14 +3,22 @@ package stopnorway.in;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import stopnorway.database.Entity;
+import stopnorway.database.EntitySink;
+import stopnorway.database.IdPool;
 
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.XMLEvent;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.*;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -21,12 +29,16 @@ public final class Parser implements AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(Parser.class);
 
+    private static final int DEFAULT_IN_FLIGHT = Runtime.getRuntime().availableProcessors() * 2;
+
     ScheduledExecutorService backgroundLogging;
 
     private final boolean noisy;
 
     private final boolean parallel;
 
+    private final ParseEngine engine;
+
     private final Collection<? extends Enum<?>> operators;
 
     private final OperatorSources operatorSources;
@@ -35,30 +47,147 @@ public final class Parser implements AutoCloseable {
 
     private final Function<Integer, ExecutorService> executorServiceProvider;
 
+    private final SourcePartitioner partitioner;
+
+    private final ForkJoinPool partitionPool;
+
+    private final boolean largestFirst;
+
+    private final ParseProfile profile;
+
+    private final SourceCache sourceCache;
+
+    private final String cacheVariant;
+
+    private final IdPool idPool;
+
+    private volatile ParseProgress lastProgress;
+
     Parser(
         boolean quiet,
         boolean parallel,
+        ParseEngine engine,
         Collection<? extends Enum<?>> operators,
         OperatorSources operatorSources,
         Supplier<Collection<EntityParser<? extends Entity>>> parsersSupplier,
         Function<Integer, ExecutorService> executorServiceProvider
+    ) {
+        this(
+            quiet,
+            parallel,
+            engine,
+            operators,
+            operatorSources,
+            parsersSupplier,
+            executorServiceProvider,
+            0,
+            0L,
+            false,
+            ParseProfile.FULL,
+            null,
+            null,
+            null
+        );
+    }
+
+    Parser(
+        boolean quiet,
+        boolean parallel,
+        ParseEngine engine,
+        Collection<? extends Enum<?>> operators,
+        OperatorSources operatorSources,
+        Supplier<Collection<EntityParser<? extends Entity>>> parsersSupplier,
+        Function<Integer, ExecutorService> executorServiceProvider,
+        int partitions,
+        long minimumPartitionedLength,
+        boolean largestFirst,
+        ParseProfile profile,
+        SourceCache sourceCache,
+        String cacheVariant,
+        IdPool idPool
     ) {
         this.noisy = !quiet;
         this.parallel = parallel;
+        this.engine = engine;
         this.operators = operators;
         this.operatorSources = operatorSources;
         this.parsersSupplier = parsersSupplier;
         this.executorServiceProvider = executorServiceProvider;
+        this.partitioner = partitions > 1
+            ? new SourcePartitioner(entityNames(parsersSupplier.get()), partitions, minimumPartitionedLength)
+            : null;
+        this.partitionPool = partitioner == null ? null : new ForkJoinPool(partitions);
+        this.largestFirst = largestFirst;
+        this.profile = Objects.requireNonNull(profile, "profile");
+        this.sourceCache = sourceCache;
+        this.cacheVariant = cacheVariant == null ? profile.name().toLowerCase() : cacheVariant;
+        this.idPool = idPool;
         this.backgroundLogging =
             Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "parse"));
     }
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + "[parallel:" + parallel + "]";
+        return getClass().getSimpleName() + "[parallel:" + parallel + " " + engine +
+               (largestFirst ? " largest-first" : "") +
+               (profile == ParseProfile.FULL ? "" : " " + profile) +
+               (sourceCache == null ? "" : " " + sourceCache) +
+               (partitioner == null ? "" : " " + partitioner) + "]";
     }
 
     public Stream<Entity> entities() {
+        Collection<OperatorSource> sources = sources();
+        ParseProgress progress = progress(sources);
+        try {
+            if (parallel) {
+                return submittedFutures(sources, progress).stream()
+                    .map(Parser::awaitFuture)
+                    .flatMap(Collection::stream);
+            }
+            return sources.stream()
+                .map(source -> process(source, progress))
+                .flatMap(Collection::stream);
+        } finally {
+            logInBackground(progress);
+        }
+    }
+
+    public void entities(EntitySink sink) {
+        entities(DEFAULT_IN_FLIGHT, sink);
+    }
+
+    public void entities(int inFlight, EntitySink sink) {
+        Objects.requireNonNull(sink, "sink");
+        if (inFlight < 1) {
+            throw new IllegalArgumentException("Need at least 1 source in flight: " + inFlight);
+        }
+        Collection<OperatorSource> sources = sources();
+        ParseProgress progress = progress(sources);
+        logInBackground(progress);
+        if (parallel) {
+            awaitAll(submittedSinks(sources, progress, inFlight, sink));
+        } else {
+            sources.forEach(source ->
+                sink.accept(source.getEnum(), process(source, progress)));
+        }
+    }
+
+    @Override
+    public void close() {
+        backgroundLogging.shutdown();
+        if (operatorSources instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException(this + " failed to close " + operatorSources, e);
+            }
+        }
+        if (partitionPool != null) {
+            partitionPool.shutdown();
+        }
+    }
+
+    private Collection<OperatorSource> sources() {
         if (noisy) {
             log.info(
                 "Processing {} operators in {}: {}",
@@ -75,27 +204,18 @@ public final class Parser implements AutoCloseable {
                         .collect(Collectors.joining(", "))
             );
         }
-        Collection<OperatorSource> sources = operators.stream()
-            .flatMap(operatorSources::get)
-            .collect(Collectors.toList());
-        ParseProgress progress = new ParseProgress(sources, operators, Instant.now());
-        try {
-            if (parallel) {
-                return submittedFutures(sources, progress).stream()
-                    .map(Parser::awaitFuture)
-                    .flatMap(Collection::stream);
-            }
-            return sources.stream()
-                .map(source -> process(source, progress))
-                .flatMap(Collection::stream);
-        } finally {
-            logInBackground(progress);
-        }
+        Stream<OperatorSource> sources = operators.stream()
+            .flatMap(operatorSources::get);
+        return (largestFirst
+            ? sources.sorted(Comparator.comparingLong(OperatorSource::getLength).reversed())
+            : sources
+        ).collect(Collectors.toList());
     }
 
-    @Override
-    public void close() {
-        backgroundLogging.shutdown();
+    private ParseProgress progress(Collection<OperatorSource> sources) {
+        ParseProgress progress = new ParseProgress(sources, operators, Instant.now());
+        this.lastProgress = progress;
+        return progress;
     }
 
     private void logInBackground(ParseProgress progress) {
@@ -125,40 +245,177 @@ public final class Parser implements AutoCloseable {
         }
     }
 
+    private List<Future<?>> submittedSinks(
+        Collection<OperatorSource> sources,
+        ParseProgress progress,
+        int inFlight,
+        EntitySink sink
+    ) {
+        Semaphore permits = new Semaphore(inFlight);
+        Object sinkLock = new Object();
+        ExecutorService executorService = executorServiceProvider.apply(inFlight);
+        List<Future<?>> futures = new ArrayList<>(sources.size());
+        try {
+            for (OperatorSource source : sources) {
+                acquire(permits);
+                futures.add(executorService.submit(() -> {
+                    try {
+                        Collection<Entity> entities = process(source, progress);
+                        synchronized (sinkLock) {
+                            sink.accept(source.getEnum(), entities);
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            return futures;
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    ParseProgress getLastProgress() {
+        return lastProgress;
+    }
+
     private Collection<Entity> process(OperatorSource operatorSource, ParseProgress progress) {
+        progress.started(operatorSource);
+        if (sourceCache == null) {
+            return parse(operatorSource, progress);
+        }
+        Optional<Collection<Entity>> cached = sourceCache.get(operatorSource, cacheVariant, idPool);
+        if (cached.isPresent()) {
+            return progress.recorded(operatorSource, cached.get());
+        }
+        Collection<Entity> entities = parse(operatorSource, progress);
+        sourceCache.put(operatorSource, cacheVariant, entities);
+        return entities;
+    }
+
+    private Collection<Entity> parse(OperatorSource operatorSource, ParseProgress progress) {
+        List<OperatorSource> partitions = partitioner == null
+            ? List.of(operatorSource)
+            : partitioner.partition(operatorSource);
+        if (partitions.size() == 1) {
+            return progress.recorded(operatorSource, process(operatorSource));
+        }
+        if (noisy) {
+            log.info("Parsing {} in {} partitions", operatorSource, partitions.size());
+        }
+        List<ForkJoinTask<Collection<Entity>>> tasks = partitions.stream()
+            .map(partition ->
+                partitionPool.submit(() ->
+                    process(partition)))
+            .collect(Collectors.toList());
+        Collection<Entity> entities = tasks.stream()
+            .map(ForkJoinTask::join)
+            .flatMap(Collection::stream)
+            .collect(Collectors.toList());
+        return progress.recorded(operatorSource, entities);
+    }
+
+    private Collection<Entity> process(OperatorSource operatorSource) {
         Collection<EntityParser<? extends Entity>> parsers = parsersSupplier.get();
         try {
-            XMLEventReader eventReader = operatorSource.eventReader();
-            while (eventReader.hasNext()) {
-                XMLEvent event = event(eventReader);
-                process(parsers, operatorSource, event);
+            if (engine == ParseEngine.CURSOR) {
+                processCursor(parsers, operatorSource);
+            } else {
+                processEvents(parsers, operatorSource);
             }
-            Collection<Entity> entities = parsers.stream()
+            return parsers.stream()
                 .map(EntityParser::get)
                 .flatMap(Collection::stream)
                 .collect(Collectors.toList());
-            return progress.recorded(operatorSource, entities);
         } catch (Exception e) {
             throw new IllegalStateException(
                 this + " failed to update " + parsers.size() + " parsers for " + operatorSource, e);
         }
     }
 
-    private void process(
+    private void processEvents(
         Collection<EntityParser<? extends Entity>> parsers,
-        OperatorSource operatorSource,
-        XMLEvent event
-    ) {
-        for (EntityParser<? extends Entity> parser : parsers) {
+        OperatorSource operatorSource
+    ) throws XMLStreamException, IOException {
+        EntityRouter router = new EntityRouter(parsers, profile);
+        try (InputStream in = operatorSource.inputStream()) {
+            XMLEventReader eventReader = operatorSource.eventReader(in);
             try {
-                parser.digest(event);
-            } catch (Exception e) {
-                throw new IllegalStateException(
-                    this + " failed to feed " + event + " for " + operatorSource + " to " + parser, e);
+                while (eventReader.hasNext()) {
+                    XMLEvent event = event(eventReader);
+                    process(router, operatorSource, event, eventReader);
+                }
+            } finally {
+                eventReader.close();
             }
         }
     }
 
+    private void processCursor(
+        Collection<EntityParser<? extends Entity>> parsers,
+        OperatorSource operatorSource
+    ) throws XMLStreamException, IOException {
+        EntityRouter router = new EntityRouter(parsers, profile);
+        try (InputStream in = operatorSource.inputStream()) {
+            XMLStreamReader streamReader = operatorSource.streamReader(in);
+            try {
+                while (streamReader.hasNext()) {
+                    streamReader.next();
+                    process(router, operatorSource, streamReader);
+                }
+            } finally {
+                streamReader.close();
+            }
+        }
+    }
+
+    private void process(
+        EntityRouter router,
+        OperatorSource operatorSource,
+        XMLStreamReader streamReader
+    ) {
+        try {
+            router.route(streamReader);
+        } catch (Exception e) {
+            throw new IllegalStateException(
+                this + " failed to feed event #" + streamReader.getEventType() +
+                " @ " + streamReader.getLocation() + " for " + operatorSource + " to " + router, e);
+        }
+    }
+
+    private void process(
+        EntityRouter router,
+        OperatorSource operatorSource,
+        XMLEvent event,
+        XMLEventReader eventReader
+    ) {
+        try {
+            router.route(event, eventReader);
+        } catch (Exception e) {
+            throw new IllegalStateException(
+                this + " failed to feed " + event + " for " + operatorSource + " to " + router, e);
+        }
+    }
+
+    private static Collection<String> entityNames(Collection<EntityParser<? extends Entity>> parsers) {
+        return parsers.stream()
+            .map(EntityParser::getLocalName)
+            .collect(Collectors.toSet());
+    }
+
+    private static void acquire(Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted: " + permits, e);
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        futures.forEach(Parser::awaitFuture);
+    }
+
     private static <T> T awaitFuture(Future<T> future) {
         try {
             return future.get();
@@ -2,6 +2,7 @@ package stopnorway.in;
 
 import stopnorway.data.Operator;
 import stopnorway.database.Entity;
+import stopnorway.database.IdPool;
 import stopnorway.geo.Points;
 
 import java.io.File;
@@ -9,42 +10,200 @@ import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public final class ParserFactory {
 
+    private static final long MINIMUM_PARTITIONED_LENGTH = 64L * 1024 * 1024;
+
     private final File documents;
 
     private final Collection<? extends Enum<?>> operators;
 
+    private final int partitions;
+
+    private final long minimumPartitionedLength;
+
+    private final Scheduling scheduling;
+
+    private final boolean largestFirst;
+
+    private final boolean passingTimeIds;
+
+    private final ParseProfile profile;
+
+    private final SourceCache sourceCache;
+
     ParserFactory(Path documents, Enum<?>... operators) {
         this(documents, Arrays.asList(operators));
     }
 
     public ParserFactory(Path documents, Collection<? extends Enum<?>> operators) {
-        this.documents = Objects.requireNonNull(documents, "documents").toFile();
-        this.operators = operators == null || operators.isEmpty() ? Set.of(Operator.values()) : Set.copyOf(operators);
+        this(
+                Objects.requireNonNull(documents, "documents").toFile(),
+                operators == null || operators.isEmpty() ? Set.of(Operator.values()) : Set.copyOf(operators),
+                0,
+                0L,
+                Scheduling.POOL,
+                false,
+                false,
+                ParseProfile.FULL,
+                null);
+    }
+
+    private ParserFactory(
+            File documents,
+            Collection<? extends Enum<?>> operators,
+            int partitions,
+            long minimumPartitionedLength,
+            Scheduling scheduling,
+            boolean largestFirst,
+            boolean passingTimeIds,
+            ParseProfile profile,
+            SourceCache sourceCache
+    ) {
+        this.documents = documents;
+        this.operators = operators;
+        this.partitions = partitions;
+        this.minimumPartitionedLength = minimumPartitionedLength;
+        this.scheduling = Objects.requireNonNull(scheduling, "scheduling");
+        this.largestFirst = largestFirst;
+        this.passingTimeIds = passingTimeIds;
+        this.profile = Objects.requireNonNull(profile, "profile");
+        this.sourceCache = sourceCache;
+    }
+
+    public ParserFactory withScheduling(Scheduling scheduling) {
+        return new ParserFactory(
+                documents,
+                operators,
+                partitions,
+                minimumPartitionedLength,
+                scheduling,
+                largestFirst,
+                passingTimeIds,
+                profile,
+                sourceCache);
+    }
+
+    public ParserFactory withLargestFirst(boolean largestFirst) {
+        return new ParserFactory(
+                documents,
+                operators,
+                partitions,
+                minimumPartitionedLength,
+                scheduling,
+                largestFirst,
+                passingTimeIds,
+                profile,
+                sourceCache);
+    }
+
+    public ParserFactory withProfile(ParseProfile profile) {
+        return new ParserFactory(
+                documents,
+                operators,
+                partitions,
+                minimumPartitionedLength,
+                scheduling,
+                largestFirst,
+                passingTimeIds,
+                profile,
+                sourceCache);
+    }
+
+    public ParserFactory withPassingTimeIds(boolean passingTimeIds) {
+        return new ParserFactory(
+                documents,
+                operators,
+                partitions,
+                minimumPartitionedLength,
+                scheduling,
+                largestFirst,
+                passingTimeIds,
+                profile,
+                sourceCache);
+    }
+
+    public ParserFactory withSourceCache(SourceCache sourceCache) {
+        return new ParserFactory(
+                documents,
+                operators,
+                partitions,
+                minimumPartitionedLength,
+                scheduling,
+                largestFirst,
+                passingTimeIds,
+                profile,
+                sourceCache);
+    }
+
+    public ParserFactory withPartitions(int partitions) {
+        return withPartitions(partitions, MINIMUM_PARTITIONED_LENGTH);
+    }
+
+    ParserFactory withPartitions(int partitions, long minimumPartitionedLength) {
+        return new ParserFactory(
+                documents,
+                operators,
+                partitions,
+                minimumPartitionedLength,
+                scheduling,
+                largestFirst,
+                passingTimeIds,
+                profile,
+                sourceCache);
     }
 
     public Parser create(boolean quiet, boolean parallel) {
+        return create(quiet, parallel, ParseEngine.EVENTS);
+    }
+
+    public Parser create(boolean quiet, boolean parallel, ParseEngine engine) {
+        return create(quiet, parallel, engine, new IdPool());
+    }
+
+    public Parser create(boolean quiet, boolean parallel, ParseEngine engine, IdPool idPool) {
         return new Parser(
                 quiet,
                 parallel,
+                Objects.requireNonNull(engine, "engine"),
                 operators,
-                this::operatorSources,
-                ParserFactory::allEntityParsers,
-                ParserFactory::executorService);
+                operatorSources(),
+                allEntityParsers(Objects.requireNonNull(idPool, "idPool"), passingTimeIds, profile),
+                this::executorService,
+                partitions,
+                minimumPartitionedLength,
+                largestFirst,
+                profile,
+                sourceCache,
+                profile.name().toLowerCase() + (passingTimeIds ? "-ids" : ""),
+                idPool);
     }
 
-    private static List<EntityParser<? extends Entity>> allEntityParsers() {
-        return EntityParsers.all(Points::point);
+    private static Supplier<Collection<EntityParser<? extends Entity>>> allEntityParsers(
+            IdPool idPool,
+            boolean passingTimeIds,
+            ParseProfile profile
+    ) {
+        return () -> profile.parsers(EntityParsers.all(Points::point, passingTimeIds)).stream()
+                .<EntityParser<? extends Entity>>map(entityParser -> entityParser.withIdPool(idPool))
+                .collect(Collectors.toList());
     }
 
-    private static ExecutorService executorService(int queue) {
+    private ExecutorService executorService(int queue) {
+        return scheduling == Scheduling.POOL
+                ? poolExecutorService(queue)
+                : Executors.newWorkStealingPool();
+    }
+
+    private static ExecutorService poolExecutorService(int queue) {
         AtomicInteger count = new AtomicInteger();
         int cpus = Runtime.getRuntime().availableProcessors();
         return new ThreadPoolExecutor(
@@ -56,8 +215,18 @@ public final class ParserFactory {
                 new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
-    private Stream<OperatorSource> operatorSources(Enum<?> operator) {
-        return files(operator).stream().map(file -> new OperatorSource(operator, file));
+    private OperatorSources operatorSources() {
+        return documents.isFile()
+                ? new ZipOperatorSources(documents.toPath(), scheduling.isReadAhead())
+                : operatorSources(Importer.readManifest(documents.toPath()));
+    }
+
+    private OperatorSources operatorSources(Map<String, String> manifest) {
+        return operator -> files(operator).stream().map(file -> new OperatorSource(
+                operator,
+                file,
+                scheduling.isReadAhead(),
+                Importer.contentHash(manifest, file)));
     }
 
     private Collection<File> files(Enum<?> operator) {
@@ -82,7 +251,7 @@ public final class ParserFactory {
                         .map(name -> new File(documents, name));
     }
 
-    private static Stream<String> sharedData(Enum<?> operator) {
+    static Stream<String> sharedData(Enum<?> operator) {
         return Stream.of(
                 String.format("_%s_shared_data.xml.gz", operator.name()),
                 String.format("_%s_shared_data.xml", operator.name()));
@@ -0,0 +1,141 @@
+package stopnorway.in;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+final class ReadAheadInputStream extends InputStream {
+
+    private static final byte[] END = new byte[0];
+
+    private final InputStream source;
+
+    private final String name;
+
+    private final int bufferSize;
+
+    private final BlockingQueue<byte[]> buffers;
+
+    private final Thread writer;
+
+    private volatile boolean closed;
+
+    private volatile IOException failure;
+
+    private byte[] current;
+
+    private int position;
+
+    ReadAheadInputStream(InputStream source, String name, int buffers, int bufferSize) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.name = Objects.requireNonNull(name, "name");
+        if (buffers < 1 || bufferSize < 1) {
+            throw new IllegalArgumentException("Need at least 1 buffer of at least 1 byte: " + buffers + "x" + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(buffers);
+        this.writer = Thread.ofVirtual().name("read:" + name).start(this::write);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] buffer = current();
+        return buffer == END ? -1 : buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length == 0) {
+            return 0;
+        }
+        byte[] buffer = current();
+        if (buffer == END) {
+            return -1;
+        }
+        int read = Math.min(length, buffer.length - position);
+        System.arraycopy(buffer, position, bytes, offset, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        buffers.clear();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(this + " interrupted while closing", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + name + "]";
+    }
+
+    private byte[] current() throws IOException {
+        if (closed) {
+            throw new IOException(this + " is closed");
+        }
+        if (current == null || current != END && position == current.length) {
+            current = take();
+            position = 0;
+        }
+        if (current == END && failure != null) {
+            throw new IOException(this + " failed to read ahead", failure);
+        }
+        return current;
+    }
+
+    private byte[] take() throws IOException {
+        try {
+            return buffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(this + " interrupted", e);
+        }
+    }
+
+    private void write() {
+        try (source) {
+            byte[] buffer = new byte[bufferSize];
+            int read;
+            while (!closed && (read = source.readNBytes(buffer, 0, bufferSize)) > 0) {
+                put(read == bufferSize ? buffer : Arrays.copyOf(buffer, read));
+                buffer = new byte[bufferSize];
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException | RuntimeException e) {
+            failure = new IOException(this + " failed to read", e);
+        } finally {
+            end();
+        }
+    }
+
+    private void put(byte[] buffer) throws InterruptedException {
+        if (!closed) {
+            buffers.put(buffer);
+        }
+    }
+
+    private void end() {
+        if (closed) {
+            return;
+        }
+        try {
+            buffers.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
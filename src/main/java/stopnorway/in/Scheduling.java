@@ -0,0 +1,17 @@
+package stopnorway.in;
+
+public enum Scheduling {
+
+    POOL,
+
+    // WORK_STEALING and VIRTUAL_READERS run on a work-stealing pool, which ignores the queue limit
+    // POOL applies: everything submitted is queued. Only Parser's in-flight semaphore, used when
+    // parsing into a sink, bounds how many sources are queued in these modes.
+    WORK_STEALING,
+
+    VIRTUAL_READERS;
+
+    boolean isReadAhead() {
+        return this == VIRTUAL_READERS;
+    }
+}
@@ -0,0 +1,14 @@
+package stopnorway.in;
+
+import stopnorway.database.Entity;
+import stopnorway.database.IdPool;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface SourceCache {
+
+    Optional<Collection<Entity>> get(OperatorSource source, String variant, IdPool idPool);
+
+    void put(OperatorSource source, String variant, Collection<Entity> entities);
+}
@@ -0,0 +1,349 @@
+package stopnorway.in;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Collectors;
+
+final class SourcePartitioner {
+
+    private final Set<String> entityNames;
+
+    private final int partitions;
+
+    private final long minimumLength;
+
+    SourcePartitioner(Collection<String> entityNames, int partitions, long minimumLength) {
+        this.entityNames = Set.copyOf(Objects.requireNonNull(entityNames, "entityNames"));
+        if (partitions < 2) {
+            throw new IllegalArgumentException("Need at least 2 partitions: " + partitions);
+        }
+        this.partitions = partitions;
+        this.minimumLength = minimumLength;
+    }
+
+    List<OperatorSource> partition(OperatorSource source) {
+        if (!applicable(source)) {
+            return List.of(source);
+        }
+        ByteBuffer buffer = map(source);
+        List<Chunk> chunks = chunks(buffer);
+        if (chunks.isEmpty()) {
+            return List.of(source);
+        }
+        List<OperatorSource> sources = new ArrayList<>(chunks.size() + 1);
+        sources.add(remainder(source, buffer, chunks));
+        for (int i = 0; i < chunks.size(); i++) {
+            sources.add(chunk(source, buffer, chunks.get(i), i));
+        }
+        return sources;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + partitions + " partitions, >" + minimumLength + " bytes]";
+    }
+
+    private boolean applicable(OperatorSource source) {
+        return source.getFile() != null &&
+               !source.isZipped() &&
+               source.getLength() >= minimumLength &&
+               source.getLength() < Integer.MAX_VALUE;
+    }
+
+    private List<Chunk> chunks(ByteBuffer buffer) {
+        return new Scanner(buffer, entityNames, Math.max(1, buffer.limit() / partitions)).scan();
+    }
+
+    private static OperatorSource remainder(OperatorSource source, ByteBuffer buffer, List<Chunk> chunks) {
+        List<ByteBuffer> slices = new ArrayList<>(chunks.size() + 1);
+        int position = 0;
+        for (Chunk chunk: chunks) {
+            slices.add(buffer.slice(position, chunk.start - position));
+            position = chunk.end;
+        }
+        slices.add(buffer.slice(position, buffer.limit() - position));
+        long length = slices.stream().mapToLong(ByteBuffer::limit).sum();
+        return new OperatorSource(
+                source.getEnum(),
+                source.getFile() + "#remainder",
+                length,
+                () -> inputStream(slices));
+    }
+
+    private static OperatorSource chunk(OperatorSource source, ByteBuffer buffer, Chunk chunk, int index) {
+        List<ByteBuffer> slices = new ArrayList<>(chunk.ancestors.size() + 2);
+        chunk.ancestors.forEach(tag ->
+                slices.add(buffer.slice(tag.start, tag.end - tag.start)));
+        slices.add(buffer.slice(chunk.start, chunk.end - chunk.start));
+        List<Tag> closing = new ArrayList<>(chunk.ancestors);
+        Collections.reverse(closing);
+        slices.add(ByteBuffer.wrap(closing.stream()
+                .map(tag -> "</" + tag.name + ">")
+                .collect(Collectors.joining())
+                .getBytes(StandardCharsets.ISO_8859_1)));
+        long length = slices.stream().mapToLong(ByteBuffer::limit).sum();
+        return new OperatorSource(
+                source.getEnum(),
+                source.getFile() + "#" + index + "@" + chunk.start + "-" + chunk.end,
+                length,
+                () -> inputStream(slices));
+    }
+
+    private static InputStream inputStream(List<ByteBuffer> slices) {
+        return new SequenceInputStream(Collections.enumeration(slices.stream()
+                .map(slice -> new BufferInputStream(slice.duplicate()))
+                .collect(Collectors.toList())));
+    }
+
+    private static ByteBuffer map(OperatorSource source) {
+        try (FileChannel channel = FileChannel.open(source.getFile().toPath(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to map " + source, e);
+        }
+    }
+
+    private static final class Scanner {
+
+        private final ByteBuffer buffer;
+
+        private final Set<String> entityNames;
+
+        private final int targetSize;
+
+        private final Deque<Tag> stack = new ArrayDeque<>();
+
+        private final List<Chunk> chunks = new ArrayList<>();
+
+        private Tag chunkParent;
+
+        private List<Tag> chunkAncestors;
+
+        private int chunkStart = -1;
+
+        private int chunkEnd = -1;
+
+        private Scanner(ByteBuffer buffer, Set<String> entityNames, int targetSize) {
+            this.buffer = buffer;
+            this.entityNames = entityNames;
+            this.targetSize = targetSize;
+        }
+
+        List<Chunk> scan() {
+            int limit = buffer.limit();
+            int position = 0;
+            int entityStart = -1;
+            int nesting = 0;
+            while (position < limit) {
+                if (buffer.get(position) != '<') {
+                    position++;
+                    continue;
+                }
+                byte next = position + 1 < limit ? buffer.get(position + 1) : 0;
+                if (next == '?') {
+                    position = after(position, "?>");
+                } else if (next == '!') {
+                    position = startsWith(position, "<!--") ? after(position, "-->")
+                            : startsWith(position, "<![CDATA[") ? after(position, "]]>")
+                                    : tagEnd(position) + 1;
+                } else if (next == '/') {
+                    int end = tagEnd(position) + 1;
+                    if (entityStart >= 0) {
+                        if (nesting == 0) {
+                            entity(entityStart, end);
+                            entityStart = -1;
+                        } else {
+                            nesting--;
+                        }
+                    } else if (!stack.isEmpty()) {
+                        Tag closed = stack.pop();
+                        if (closed == chunkParent) {
+                            flush();
+                        }
+                    }
+                    position = end;
+                } else {
+                    int end = tagEnd(position);
+                    boolean empty = buffer.get(end - 1) == '/';
+                    if (entityStart >= 0) {
+                        if (!empty) {
+                            nesting++;
+                        }
+                    } else {
+                        String name = name(position + 1);
+                        if (entityNames.contains(localName(name))) {
+                            if (empty) {
+                                entity(position, end + 1);
+                            } else {
+                                entityStart = position;
+                            }
+                        } else if (!empty) {
+                            stack.push(new Tag(position, end + 1, name));
+                        }
+                    }
+                    position = end + 1;
+                }
+            }
+            flush();
+            return chunks;
+        }
+
+        private void entity(int start, int end) {
+            Tag parent = stack.peek();
+            if (parent == null) {
+                return;
+            }
+            if (parent != chunkParent) {
+                flush();
+                chunkParent = parent;
+                chunkAncestors = ancestors();
+                chunkStart = start;
+            }
+            chunkEnd = end;
+            if (chunkEnd - chunkStart >= targetSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (chunkParent != null && chunkEnd - chunkStart >= targetSize / 2) {
+                chunks.add(new Chunk(chunkAncestors, chunkStart, chunkEnd));
+            }
+            chunkParent = null;
+            chunkAncestors = null;
+            chunkStart = -1;
+            chunkEnd = -1;
+        }
+
+        private List<Tag> ancestors() {
+            List<Tag> ancestors = new ArrayList<>(stack);
+            Collections.reverse(ancestors);
+            return List.copyOf(ancestors);
+        }
+
+        private String name(int start) {
+            int end = start;
+            while (end < buffer.limit() && !terminatesName(buffer.get(end))) {
+                end++;
+            }
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+        private int tagEnd(int start) {
+            byte quote = 0;
+            for (int i = start + 1; i < buffer.limit(); i++) {
+                byte b = buffer.get(i);
+                if (quote != 0) {
+                    if (b == quote) {
+                        quote = 0;
+                    }
+                } else if (b == '"' || b == '\'') {
+                    quote = b;
+                } else if (b == '>') {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("Unterminated tag @ " + start);
+        }
+
+        private int after(int start, String terminator) {
+            byte[] bytes = terminator.getBytes(StandardCharsets.ISO_8859_1);
+            for (int i = start; i <= buffer.limit() - bytes.length; i++) {
+                if (matches(i, bytes)) {
+                    return i + bytes.length;
+                }
+            }
+            throw new IllegalStateException("Unterminated " + terminator + " @ " + start);
+        }
+
+        private boolean startsWith(int start, String prefix) {
+            byte[] bytes = prefix.getBytes(StandardCharsets.ISO_8859_1);
+            return start + bytes.length <= buffer.limit() && matches(start, bytes);
+        }
+
+        private boolean matches(int start, byte[] bytes) {
+            for (int j = 0; j < bytes.length; j++) {
+                if (buffer.get(start + j) != bytes[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean terminatesName(byte b) {
+            return b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\n' || b == '\r';
+        }
+
+        private static String localName(String name) {
+            int colon = name.indexOf(':');
+            return colon < 0 ? name : name.substring(colon + 1);
+        }
+    }
+
+    private static final class Tag {
+
+        private final int start;
+
+        private final int end;
+
+        private final String name;
+
+        private Tag(int start, int end, String name) {
+            this.start = start;
+            this.end = end;
+            this.name = name;
+        }
+    }
+
+    private static final class Chunk {
+
+        private final List<Tag> ancestors;
+
+        private final int start;
+
+        private final int end;
+
+        private Chunk(List<Tag> ancestors, int start, int end) {
+            this.ancestors = ancestors;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
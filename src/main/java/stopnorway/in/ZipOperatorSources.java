@@ -0,0 +1,110 @@
+package stopnorway.in;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public final class ZipOperatorSources implements OperatorSources, AutoCloseable {
+
+    private static final int BUFF = 1024 * 1024;
+
+    private final Path zipFile;
+
+    private final boolean readAhead;
+
+    private final ZipFile zip;
+
+    private final List<ZipEntry> entries;
+
+    public ZipOperatorSources(Path zipFile) {
+        this(zipFile, false);
+    }
+
+    public ZipOperatorSources(Path zipFile, boolean readAhead) {
+        this.zipFile = Objects.requireNonNull(zipFile, "zipFile");
+        this.readAhead = readAhead;
+        try {
+            this.zip = new ZipFile(zipFile.toFile());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to open " + zipFile, e);
+        }
+        this.entries = xmlEntries(zip);
+    }
+
+    static List<ZipEntry> xmlEntries(ZipFile zip) {
+        return zip.stream()
+                .filter(entry -> !entry.isDirectory())
+                .filter(entry -> isXml(fileName(entry)))
+                .collect(Collectors.toList());
+    }
+
+    static List<ZipEntry> entries(Collection<ZipEntry> entries, Enum<?> operator) {
+        Set<String> shared = ParserFactory.sharedData(operator).collect(Collectors.toSet());
+        String prefix = operator.name() + "_";
+        return Stream.concat(
+                entries.stream().filter(entry -> shared.contains(fileName(entry))),
+                entries.stream().filter(entry -> fileName(entry).startsWith(prefix))
+        ).collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<OperatorSource> get(Enum<?> operator) {
+        return entries(entries, operator).stream().map(entry -> operatorSource(operator, entry));
+    }
+
+    @Override
+    public void close() {
+        try {
+            zip.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(this + " failed to close", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + zipFile + ": " + entries.size() + " entries]";
+    }
+
+    private OperatorSource operatorSource(Enum<?> operator, ZipEntry entry) {
+        return new OperatorSource(
+                operator,
+                zipFile + "!" + entry.getName(),
+                Math.max(0L, entry.getSize()),
+                readAhead,
+                () -> inputStream(entry),
+                Importer.targetPath(zipFile).resolve(fileName(entry)),
+                entry.getSize() + "-" + Long.toHexString(entry.getCrc()));
+    }
+
+    private InputStream inputStream(ZipEntry entry) {
+        try {
+            InputStream in = new BufferedInputStream(zip.getInputStream(entry), BUFF);
+            return entry.getName().endsWith(".gz")
+                    ? new GZIPInputStream(in, BUFF)
+                    : in;
+        } catch (IOException e) {
+            throw new UncheckedIOException(this + " failed to read " + entry, e);
+        }
+    }
+
+    private static boolean isXml(String name) {
+        return name.endsWith(".xml") || name.endsWith(".xml.gz");
+    }
+
+    private static String fileName(ZipEntry entry) {
+        String name = entry.getName();
+        return name.substring(name.lastIndexOf('/') + 1);
+    }
+}
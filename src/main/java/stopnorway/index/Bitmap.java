@@ -0,0 +1,411 @@
+package stopnorway.index;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public final class Bitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+
+    private static final int WORDS = 1024;
+
+    private char[] keys;
+
+    private Container[] containers;
+
+    private int size;
+
+    public Bitmap() {
+        this(new char[4], new Container[4], 0);
+    }
+
+    private Bitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    public static Bitmap of(int... values) {
+        Bitmap bitmap = new Bitmap();
+        for (int value: values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public void add(int value) {
+        char key = high(value);
+        int index = size > 0 && keys[size - 1] == key ? size - 1 : Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, key, new ArrayContainer());
+        }
+        containers[index] = containers[index].add(low(value));
+    }
+
+    public void addAll(Bitmap bitmap) {
+        for (int i = 0; i < bitmap.size; i++) {
+            char key = bitmap.keys[i];
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index < 0) {
+                insert(-index - 1, key, bitmap.containers[i].copy());
+            } else {
+                containers[index] = containers[index].or(bitmap.containers[i]);
+            }
+        }
+    }
+
+    public Bitmap and(Bitmap bitmap) {
+        int capacity = Math.max(1, Math.min(size, bitmap.size));
+        Bitmap and = new Bitmap(new char[capacity], new Container[capacity], 0);
+        int i = 0;
+        int j = 0;
+        while (i < size && j < bitmap.size) {
+            if (keys[i] < bitmap.keys[j]) {
+                i++;
+            } else if (keys[i] > bitmap.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(bitmap.containers[j]);
+                if (container.cardinality() > 0) {
+                    and.keys[and.size] = keys[i];
+                    and.containers[and.size] = container;
+                    and.size++;
+                }
+                i++;
+                j++;
+            }
+        }
+        return and;
+    }
+
+    public boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, 0, size, high(value));
+        return index >= 0 && containers[index].contains(low(value));
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int[] index = new int[1];
+        forEach(value -> values[index[0]++] = value);
+        return values;
+    }
+
+    public void trim() {
+        keys = Arrays.copyOf(keys, size);
+        containers = Arrays.copyOf(containers, size);
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].trim();
+        }
+    }
+
+    public long sizeInBytes() {
+        long bytes = keys.length * 2L + containers.length * 8L;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + cardinality() + " in " + size + " containers]";
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private static char high(int value) {
+        return (char) (value >>> 16);
+    }
+
+    private static char low(int value) {
+        return (char) value;
+    }
+
+    private interface Container {
+
+        Container add(char value);
+
+        Container or(Container container);
+
+        Container and(Container container);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        void forEach(int high, IntConsumer consumer);
+
+        Container copy();
+
+        Container trim();
+
+        long sizeInBytes();
+    }
+
+    private static final class ArrayContainer implements Container {
+
+        private char[] values;
+
+        private int cardinality;
+
+        private ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        private ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            int index = cardinality > 0 && values[cardinality - 1] < value
+                    ? -cardinality - 1
+                    : Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return toBits().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, values.length * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public Container or(Container container) {
+            if (container instanceof BitsContainer bits) {
+                return bits.copy().or(this);
+            }
+            ArrayContainer other = (ArrayContainer) container;
+            char[] merged = new char[cardinality + other.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < other.cardinality) {
+                if (j == other.cardinality || i < cardinality && values[i] < other.values[j]) {
+                    merged[count++] = values[i++];
+                } else if (i == cardinality || other.values[j] < values[i]) {
+                    merged[count++] = other.values[j++];
+                } else {
+                    merged[count++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer union = new ArrayContainer(merged, count);
+            return count > ARRAY_LIMIT ? union.toBits() : union;
+        }
+
+        @Override
+        public Container and(Container container) {
+            char[] intersection = new char[cardinality];
+            int count = 0;
+            if (container instanceof BitsContainer bits) {
+                for (int i = 0; i < cardinality; i++) {
+                    if (bits.contains(values[i])) {
+                        intersection[count++] = values[i];
+                    }
+                }
+            } else {
+                ArrayContainer other = (ArrayContainer) container;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < other.cardinality) {
+                    if (values[i] < other.values[j]) {
+                        i++;
+                    } else if (values[i] > other.values[j]) {
+                        j++;
+                    } else {
+                        intersection[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            return new ArrayContainer(intersection, count);
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(high | values[i]);
+            }
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        @Override
+        public Container trim() {
+            if (values.length > cardinality) {
+                values = Arrays.copyOf(values, cardinality);
+            }
+            return this;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return 16L + values.length * 2L;
+        }
+
+        private BitsContainer toBits() {
+            BitsContainer bits = new BitsContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bits.add(values[i]);
+            }
+            return bits;
+        }
+    }
+
+    private static final class BitsContainer implements Container {
+
+        private final long[] words;
+
+        private int cardinality;
+
+        private BitsContainer() {
+            this(new long[WORDS], 0);
+        }
+
+        private BitsContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            long word = words[value >>> 6];
+            long updated = word | 1L << value;
+            if (updated != word) {
+                words[value >>> 6] = updated;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container or(Container container) {
+            if (container instanceof BitsContainer other) {
+                int count = 0;
+                for (int i = 0; i < WORDS; i++) {
+                    words[i] |= other.words[i];
+                    count += Long.bitCount(words[i]);
+                }
+                cardinality = count;
+            } else {
+                ArrayContainer other = (ArrayContainer) container;
+                for (int i = 0; i < other.cardinality; i++) {
+                    add(other.values[i]);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public Container and(Container container) {
+            if (container instanceof ArrayContainer array) {
+                return array.and(this);
+            }
+            BitsContainer other = (BitsContainer) container;
+            long[] intersection = new long[WORDS];
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                intersection[i] = words[i] & other.words[i];
+                count += Long.bitCount(intersection[i]);
+            }
+            BitsContainer bits = new BitsContainer(intersection, count);
+            return count > ARRAY_LIMIT ? bits : bits.toArray();
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & 1L << value) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(high | i << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        public Container copy() {
+            return new BitsContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        public Container trim() {
+            return this;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return 16L + WORDS * 8L;
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int[] count = new int[1];
+            forEach(0, value -> values[count[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+}
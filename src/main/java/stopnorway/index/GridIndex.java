@@ -0,0 +1,103 @@
+package stopnorway.index;
+
+import stopnorway.geo.Box;
+import stopnorway.geo.CellCursor;
+import stopnorway.geo.Scale;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+public final class GridIndex<T> implements SpatialIndex<T> {
+
+    private final Scale scale;
+
+    private final List<T> items;
+
+    private final LongMap<Bitmap> cells;
+
+    public GridIndex(Scale scale, Collection<T> items, Function<T, LongStream> cells) {
+        this(scale, new ArrayList<>(items), new LongMap<>(), null, cells);
+    }
+
+    private GridIndex(
+            Scale scale,
+            List<T> items,
+            LongMap<Bitmap> cells,
+            boolean[] indexed,
+            Function<T, LongStream> cellsOf
+    ) {
+        this.scale = Objects.requireNonNull(scale, "scale");
+        this.items = items;
+        this.cells = cells;
+        for (int ordinal = 0; ordinal < this.items.size(); ordinal++) {
+            if (indexed == null || !indexed[ordinal]) {
+                int itemOrdinal = ordinal;
+                cellsOf.apply(this.items.get(ordinal))
+                        .forEach(cell -> this.cells.computeIfAbsent(cell, __ -> new Bitmap()).add(itemOrdinal));
+            }
+        }
+        this.cells.forEach((cell, bitmap) -> bitmap.trim());
+    }
+
+    public GridIndex<T> refreshed(Collection<T> items, Function<T, LongStream> cells) {
+        List<T> refreshedItems = new ArrayList<>(items);
+        Map<T, Integer> refreshedOrdinals = new IdentityHashMap<>(refreshedItems.size());
+        for (int ordinal = 0; ordinal < refreshedItems.size(); ordinal++) {
+            refreshedOrdinals.put(refreshedItems.get(ordinal), ordinal);
+        }
+        int[] remapped = new int[this.items.size()];
+        boolean[] indexed = new boolean[refreshedItems.size()];
+        for (int ordinal = 0; ordinal < this.items.size(); ordinal++) {
+            Integer refreshedOrdinal = refreshedOrdinals.get(this.items.get(ordinal));
+            remapped[ordinal] = refreshedOrdinal == null ? -1 : refreshedOrdinal;
+            if (refreshedOrdinal != null) {
+                indexed[refreshedOrdinal] = true;
+            }
+        }
+        LongMap<Bitmap> keptCells = new LongMap<>(this.cells.size());
+        this.cells.forEach((cell, bitmap) -> bitmap.forEach(ordinal -> {
+            if (remapped[ordinal] >= 0) {
+                keptCells.computeIfAbsent(cell, __ -> new Bitmap()).add(remapped[ordinal]);
+            }
+        }));
+        return new GridIndex<>(scale, refreshedItems, keptCells, indexed, cells);
+    }
+
+    @Override
+    public Bitmap ordinals(Collection<Box> boxes) {
+        Bitmap ordinals = new Bitmap();
+        CellCursor cursor = new CellCursor(scale);
+        for (Box box: boxes) {
+            cursor.over(box);
+            while (cursor.next()) {
+                Bitmap cell = cells.get(cursor.code());
+                if (cell != null) {
+                    ordinals.addAll(cell);
+                }
+            }
+        }
+        return ordinals;
+    }
+
+    @Override
+    public T get(int ordinal) {
+        return items.get(ordinal);
+    }
+
+    @Override
+    public int size() {
+        return cells.size();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + scale + ": " + items.size() + " items, " + cells.size() +
+                " cells]";
+    }
+}
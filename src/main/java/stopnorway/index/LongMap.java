@@ -0,0 +1,134 @@
+package stopnorway.index;
+
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+final class LongMap<V> {
+
+    private static final long PHI = 0x9E3779B97F4A7C15L;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+
+    private Object[] values;
+
+    private int shift;
+
+    private int size;
+
+    LongMap() {
+        this(0);
+    }
+
+    LongMap(int expectedSize) {
+        allocate(capacity(expectedSize));
+    }
+
+    V get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key); ; slot = slot + 1 & mask) {
+            Object value = values[slot];
+            if (value == null) {
+                return null;
+            }
+            if (keys[slot] == key) {
+                return cast(value);
+            }
+        }
+    }
+
+    V computeIfAbsent(long key, LongFunction<V> function) {
+        V existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        V value = Objects.requireNonNull(function.apply(key), "value");
+        put(key, value);
+        return value;
+    }
+
+    V put(long key, V value) {
+        Objects.requireNonNull(value, "value");
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key); ; slot = slot + 1 & mask) {
+            Object existing = values[slot];
+            if (existing == null) {
+                keys[slot] = key;
+                values[slot] = value;
+                size++;
+                return null;
+            }
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return cast(existing);
+            }
+        }
+    }
+
+    void forEach(Visitor<V> visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            Object value = values[slot];
+            if (value != null) {
+                visitor.visit(keys[slot], cast(value));
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + size + "/" + keys.length + "]";
+    }
+
+    private int slot(long key) {
+        return (int) (key * PHI >>> shift);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldValues[slot] != null) {
+                put(oldKeys[slot], cast(oldValues[slot]));
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.shift = Long.numberOfLeadingZeros(capacity - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+
+    private static int capacity(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    @FunctionalInterface
+    interface Visitor<V> {
+
+        void visit(long key, V value);
+    }
+}
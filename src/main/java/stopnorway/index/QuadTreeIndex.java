@@ -0,0 +1,173 @@
+package stopnorway.index;
+
+import stopnorway.geo.Box;
+import stopnorway.geo.Cells;
+import stopnorway.geo.Scale;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+public final class QuadTreeIndex<T> implements SpatialIndex<T> {
+
+    public static final int DEFAULT_THRESHOLD = 64;
+
+    private static final int FINER_LEVELS = 2;
+
+    private static final int COARSER_LEVELS = 3;
+
+    private final Scale scale;
+
+    private final Scale finestScale;
+
+    private final int threshold;
+
+    private final List<T> items;
+
+    private final List<LongMap<Bitmap>> levels;
+
+    public QuadTreeIndex(Scale scale, Collection<T> items, BiFunction<T, Scale, LongStream> cells) {
+        this(scale, items, cells, DEFAULT_THRESHOLD);
+    }
+
+    public QuadTreeIndex(Scale scale, Collection<T> items, BiFunction<T, Scale, LongStream> cells, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Need threshold of at least 1: " + threshold);
+        }
+        this.scale = Objects.requireNonNull(scale, "scale");
+        this.finestScale = Scale.of(perDegree(scale, true) << FINER_LEVELS, perDegree(scale, false) << FINER_LEVELS);
+        this.threshold = threshold;
+        this.items = new ArrayList<>(items);
+
+        LongMap<Bitmap> finest = new LongMap<>();
+        for (int ordinal = 0; ordinal < this.items.size(); ordinal++) {
+            int itemOrdinal = ordinal;
+            cells.apply(this.items.get(ordinal), finestScale)
+                    .forEach(cell -> finest.computeIfAbsent(cell, __ -> new Bitmap()).add(itemOrdinal));
+        }
+        this.levels = new ArrayList<>(FINER_LEVELS + COARSER_LEVELS + 1);
+        this.levels.add(finest);
+        LongMap<Boolean> split = new LongMap<>();
+        for (int level = 1; level <= FINER_LEVELS + COARSER_LEVELS; level++) {
+            split = merge(level, split);
+        }
+        this.levels.forEach(leaves -> leaves.forEach((cell, ordinals) -> ordinals.trim()));
+    }
+
+    @Override
+    public Bitmap ordinals(Collection<Box> boxes) {
+        Bitmap ordinals = new Bitmap();
+        for (Box box: boxes) {
+            int minLatCell = Cells.latCell(finestScale, box.min().intLat());
+            int minLonCell = Cells.lonCell(finestScale, box.min().intLon());
+            int maxLatCell = Cells.latCell(finestScale, box.max().intLat());
+            int maxLonCell = Cells.lonCell(finestScale, box.max().intLon());
+            for (int level = 0; level < levels.size(); level++) {
+                collect(
+                        level,
+                        minLatCell >> level,
+                        minLonCell >> level,
+                        maxLatCell >> level,
+                        maxLonCell >> level,
+                        ordinals);
+            }
+        }
+        return ordinals;
+    }
+
+    @Override
+    public T get(int ordinal) {
+        return items.get(ordinal);
+    }
+
+    @Override
+    public int size() {
+        return levels.stream().mapToInt(LongMap::size).sum();
+    }
+
+    public Scale getFinestScale() {
+        return finestScale;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + scale + " <=" + threshold + ": " + items.size() + " items, " +
+                IntStream.range(0, levels.size())
+                        .mapToObj(level -> levels.get(level).size() + "@" + level)
+                        .collect(Collectors.joining(" ")) +
+                " cells]";
+    }
+
+    private LongMap<Boolean> merge(int level, LongMap<Boolean> childSplit) {
+        LongMap<Bitmap> children = levels.get(level - 1);
+        LongMap<Boolean> split = new LongMap<>();
+        childSplit.forEach((child, __) -> split.put(parent(child), Boolean.TRUE));
+        LongMap<Bitmap> parents = new LongMap<>();
+        children.forEach((child, ordinals) -> {
+            long parent = parent(child);
+            if (split.get(parent) == null) {
+                parents.computeIfAbsent(parent, __ -> new Bitmap()).addAll(ordinals);
+            }
+        });
+        LongMap<Bitmap> leaves = new LongMap<>();
+        parents.forEach((parent, ordinals) -> {
+            if (ordinals.cardinality() > threshold) {
+                split.put(parent, Boolean.TRUE);
+            } else {
+                leaves.put(parent, ordinals);
+            }
+        });
+        LongMap<Bitmap> keptChildren = new LongMap<>();
+        children.forEach((child, ordinals) -> {
+            if (split.get(parent(child)) != null) {
+                keptChildren.put(child, ordinals);
+            }
+        });
+        levels.set(level - 1, keptChildren);
+        levels.add(leaves);
+        return split;
+    }
+
+    private void collect(int level, int minLatCell, int minLonCell, int maxLatCell, int maxLonCell, Bitmap ordinals) {
+        LongMap<Bitmap> leaves = levels.get(level);
+        if (leaves.isEmpty()) {
+            return;
+        }
+        long covered = (maxLatCell - minLatCell + 1L) * (maxLonCell - minLonCell + 1L);
+        if (covered <= leaves.size()) {
+            for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+                for (int lonCell = minLonCell; lonCell <= maxLonCell; lonCell++) {
+                    Bitmap leaf = leaves.get(Cells.code(latCell, lonCell));
+                    if (leaf != null) {
+                        ordinals.addAll(leaf);
+                    }
+                }
+            }
+        } else {
+            leaves.forEach((cell, leaf) -> {
+                int latCell = Cells.latCell(cell);
+                int lonCell = Cells.lonCell(cell);
+                if (minLatCell <= latCell && latCell <= maxLatCell && minLonCell <= lonCell && lonCell <= maxLonCell) {
+                    ordinals.addAll(leaf);
+                }
+            });
+        }
+    }
+
+    private static long parent(long cell) {
+        return Cells.code(Cells.latCell(cell) >> 1, Cells.lonCell(cell) >> 1);
+    }
+
+    private static int perDegree(Scale scale, boolean lat) {
+        return scale == Scale.INTEGER ? 1 : lat ? scale.getLat() : scale.getLon();
+    }
+}
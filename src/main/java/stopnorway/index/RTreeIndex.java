@@ -0,0 +1,240 @@
+package stopnorway.index;
+
+import stopnorway.geo.Box;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public final class RTreeIndex<T> implements SpatialIndex<T> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final int capacity;
+
+    private final List<T> items;
+
+    private final int[] itemOrdinals;
+
+    private final List<Level> levels;
+
+    public RTreeIndex(Collection<T> items, Function<T, Stream<Box>> boxes) {
+        this(items, boxes, DEFAULT_CAPACITY);
+    }
+
+    public RTreeIndex(Collection<T> items, Function<T, Stream<Box>> boxes, int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Need capacity of at least 2: " + capacity);
+        }
+        this.capacity = capacity;
+        this.items = new ArrayList<>(items);
+        List<Box> entryBoxes = new ArrayList<>();
+        List<Integer> entryOrdinals = new ArrayList<>();
+        for (int ordinal = 0; ordinal < this.items.size(); ordinal++) {
+            int itemOrdinal = ordinal;
+            boxes.apply(this.items.get(ordinal)).forEach(box -> {
+                entryBoxes.add(box);
+                entryOrdinals.add(itemOrdinal);
+            });
+        }
+        Level leaves = new Level(entryBoxes.size());
+        for (int i = 0; i < entryBoxes.size(); i++) {
+            Box box = entryBoxes.get(i);
+            leaves.set(i, box.min().intLat(), box.min().intLon(), box.max().intLat(), box.max().intLon(), i, i);
+        }
+        int[] order = strOrder(leaves);
+        this.levels = new ArrayList<>();
+        this.levels.add(leaves.permuted(order));
+        this.itemOrdinals = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            this.itemOrdinals[i] = entryOrdinals.get(order[i]);
+        }
+        while (top().size > 1) {
+            Level level = top();
+            Level parents = level.parents(capacity);
+            if (parents.size > 1) {
+                Level ordered = parents.permuted(strOrder(parents));
+                levels.add(ordered);
+            } else {
+                levels.add(parents);
+            }
+        }
+    }
+
+    @Override
+    public Bitmap ordinals(Collection<Box> boxes) {
+        Bitmap hits = new Bitmap();
+        if (items.isEmpty()) {
+            return hits;
+        }
+        int[] stack = new int[levels.size() * 2 * capacity * 2 + 2];
+        for (Box box: boxes) {
+            collect(box.min().intLat(), box.min().intLon(), box.max().intLat(), box.max().intLon(), hits, stack);
+        }
+        return hits;
+    }
+
+    @Override
+    public T get(int ordinal) {
+        return items.get(ordinal);
+    }
+
+    @Override
+    public int size() {
+        return levels.get(0).size;
+    }
+
+    public int depth() {
+        return levels.size();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + items.size() + " items, " + size() + " entries, depth " +
+                depth() + "]";
+    }
+
+    private void collect(int minLat, int minLon, int maxLat, int maxLon, Bitmap hits, int[] stack) {
+        int top = levels.size() - 1;
+        Level root = levels.get(top);
+        int pointer = 0;
+        for (int node = 0; node < root.size; node++) {
+            stack[pointer++] = top;
+            stack[pointer++] = node;
+        }
+        while (pointer > 0) {
+            int node = stack[--pointer];
+            int depth = stack[--pointer];
+            Level level = levels.get(depth);
+            if (!level.intersects(node, minLat, minLon, maxLat, maxLon)) {
+                continue;
+            }
+            if (depth == 0) {
+                hits.add(itemOrdinals[node]);
+                continue;
+            }
+            if (pointer + 2 * capacity > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            for (int child = level.from[node]; child < level.to[node]; child++) {
+                stack[pointer++] = depth - 1;
+                stack[pointer++] = child;
+            }
+        }
+    }
+
+    private Level top() {
+        return levels.get(levels.size() - 1);
+    }
+
+    private int[] strOrder(Level level) {
+        int size = level.size;
+        int pages = (size + capacity - 1) / capacity;
+        int slices = (int) Math.ceil(Math.sqrt(pages));
+        int sliceSize = slices * capacity;
+        long[] byLat = new long[size];
+        for (int i = 0; i < size; i++) {
+            byLat[i] = key(level.centerLat(i), i);
+        }
+        Arrays.sort(byLat);
+        int[] order = new int[size];
+        for (int sliceStart = 0; sliceStart < size; sliceStart += sliceSize) {
+            int sliceEnd = Math.min(size, sliceStart + sliceSize);
+            long[] byLon = new long[sliceEnd - sliceStart];
+            for (int i = sliceStart; i < sliceEnd; i++) {
+                int index = (int) byLat[i];
+                byLon[i - sliceStart] = key(level.centerLon(index), index);
+            }
+            Arrays.sort(byLon);
+            for (int i = 0; i < byLon.length; i++) {
+                order[sliceStart + i] = (int) byLon[i];
+            }
+        }
+        return order;
+    }
+
+    private static long key(int center, int index) {
+        return (long) center << 32 | index;
+    }
+
+    private static final class Level {
+
+        private final int size;
+
+        private final int[] minLat;
+
+        private final int[] minLon;
+
+        private final int[] maxLat;
+
+        private final int[] maxLon;
+
+        private final int[] from;
+
+        private final int[] to;
+
+        private Level(int size) {
+            this.size = size;
+            this.minLat = new int[size];
+            this.minLon = new int[size];
+            this.maxLat = new int[size];
+            this.maxLon = new int[size];
+            this.from = new int[size];
+            this.to = new int[size];
+        }
+
+        private void set(int index, int minLat, int minLon, int maxLat, int maxLon, int from, int to) {
+            this.minLat[index] = minLat;
+            this.minLon[index] = minLon;
+            this.maxLat[index] = maxLat;
+            this.maxLon[index] = maxLon;
+            this.from[index] = from;
+            this.to[index] = to;
+        }
+
+        private Level permuted(int[] order) {
+            Level permuted = new Level(size);
+            for (int i = 0; i < size; i++) {
+                int index = order[i];
+                permuted.set(i, minLat[index], minLon[index], maxLat[index], maxLon[index], from[index], to[index]);
+            }
+            return permuted;
+        }
+
+        private Level parents(int capacity) {
+            Level parents = new Level((size + capacity - 1) / capacity);
+            for (int parent = 0; parent < parents.size; parent++) {
+                int first = parent * capacity;
+                int last = Math.min(size, first + capacity);
+                int parentMinLat = Integer.MAX_VALUE;
+                int parentMinLon = Integer.MAX_VALUE;
+                int parentMaxLat = Integer.MIN_VALUE;
+                int parentMaxLon = Integer.MIN_VALUE;
+                for (int child = first; child < last; child++) {
+                    parentMinLat = Math.min(parentMinLat, minLat[child]);
+                    parentMinLon = Math.min(parentMinLon, minLon[child]);
+                    parentMaxLat = Math.max(parentMaxLat, maxLat[child]);
+                    parentMaxLon = Math.max(parentMaxLon, maxLon[child]);
+                }
+                parents.set(parent, parentMinLat, parentMinLon, parentMaxLat, parentMaxLon, first, last);
+            }
+            return parents;
+        }
+
+        private boolean intersects(int node, int minLat, int minLon, int maxLat, int maxLon) {
+            return this.minLat[node] <= maxLat && minLat <= this.maxLat[node] &&
+                    this.minLon[node] <= maxLon && minLon <= this.maxLon[node];
+        }
+
+        private int centerLat(int node) {
+            return (int) (((long) minLat[node] + maxLat[node]) / 2);
+        }
+
+        private int centerLon(int node) {
+            return (int) (((long) minLon[node] + maxLon[node]) / 2);
+        }
+    }
+}
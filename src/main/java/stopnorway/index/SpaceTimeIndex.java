@@ -0,0 +1,81 @@
+package stopnorway.index;
+
+import stopnorway.geo.Box;
+import stopnorway.geo.CellCursor;
+import stopnorway.geo.Scale;
+import stopnorway.geo.Timespan;
+
+import java.time.Duration;
+import java.util.Objects;
+
+public final class SpaceTimeIndex {
+
+    private final Scale scale;
+
+    private final int bucketSeconds;
+
+    private final LongMap<LongMap<Bitmap>> cells = new LongMap<>();
+
+    public SpaceTimeIndex(Scale scale, Duration bucket) {
+        this.scale = Objects.requireNonNull(scale, "scale");
+        this.bucketSeconds = Math.toIntExact(Objects.requireNonNull(bucket, "bucket").toSeconds());
+        if (bucketSeconds <= 0) {
+            throw new IllegalArgumentException("Need bucket of at least one second: " + bucket);
+        }
+    }
+
+    public void add(int ordinal, long cell, int startSeconds, int endSeconds) {
+        LongMap<Bitmap> buckets = cells.computeIfAbsent(cell, __ -> new LongMap<>());
+        for (int bucket = startSeconds / bucketSeconds; bucket <= endSeconds / bucketSeconds; bucket++) {
+            buckets.computeIfAbsent(bucket, __ -> new Bitmap()).add(ordinal);
+        }
+    }
+
+    public void trim() {
+        cells.forEach((cell, buckets) -> buckets.forEach((bucket, ordinals) -> ordinals.trim()));
+    }
+
+    public Bitmap ordinals(Box box, Timespan timespan) {
+        Bitmap ordinals = new Bitmap();
+        int first = timespan.getStartSeconds() / bucketSeconds;
+        int last = timespan.getEndSeconds() / bucketSeconds;
+        int nextDayFirst = (timespan.getStartSeconds() + Timespan.SECONDS_PER_DAY) / bucketSeconds;
+        int nextDayLast = (timespan.getEndSeconds() + Timespan.SECONDS_PER_DAY) / bucketSeconds;
+        CellCursor cursor = new CellCursor(scale).over(box);
+        while (cursor.next()) {
+            LongMap<Bitmap> buckets = cells.get(cursor.code());
+            if (buckets == null) {
+                continue;
+            }
+            if (2 * (last - first + 1) > buckets.size()) {
+                buckets.forEach((bucket, bucketOrdinals) -> {
+                    if (first <= bucket && bucket <= last || nextDayFirst <= bucket && bucket <= nextDayLast) {
+                        ordinals.addAll(bucketOrdinals);
+                    }
+                });
+            } else {
+                collect(buckets, first, last, ordinals);
+                collect(buckets, Math.max(last + 1, nextDayFirst), nextDayLast, ordinals);
+            }
+        }
+        return ordinals;
+    }
+
+    public int size() {
+        return cells.size();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + scale + " " + bucketSeconds + "s: " + cells.size() + " cells]";
+    }
+
+    private static void collect(LongMap<Bitmap> buckets, int first, int last, Bitmap ordinals) {
+        for (int bucket = first; bucket <= last; bucket++) {
+            Bitmap bucketOrdinals = buckets.get(bucket);
+            if (bucketOrdinals != null) {
+                ordinals.addAll(bucketOrdinals);
+            }
+        }
+    }
+}
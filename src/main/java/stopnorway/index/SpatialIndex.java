@@ -0,0 +1,23 @@
+package stopnorway.index;
+
+import stopnorway.geo.Box;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public interface SpatialIndex<T> {
+
+    default Collection<T> candidates(Collection<Box> boxes) {
+        Bitmap ordinals = ordinals(boxes);
+        List<T> candidates = new ArrayList<>(ordinals.cardinality());
+        ordinals.forEach(ordinal -> candidates.add(get(ordinal)));
+        return candidates;
+    }
+
+    Bitmap ordinals(Collection<Box> boxes);
+
+    T get(int ordinal);
+
+    int size();
+}
@@ -0,0 +1,10 @@
+package stopnorway.index;
+
+public enum SpatialIndexing {
+
+    GRID,
+
+    RTREE,
+
+    QUADTREE
+}
@@ -0,0 +1,114 @@
+package stopnorway;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import stopnorway.data.Operator;
+import stopnorway.database.Entity;
+import stopnorway.database.Id;
+import stopnorway.database.IdPool;
+import stopnorway.entur.Line;
+import stopnorway.in.OperatorSource;
+import stopnorway.in.ParseEngine;
+import stopnorway.in.Parser;
+import stopnorway.in.ParserFactory;
+import stopnorway.in.SampleNetex;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KryoSourceCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void missesOnStaleFingerprint() {
+        Path cacheDirectory = directory.resolve("cache");
+        KryoSourceCache cache = new KryoSourceCache(cacheDirectory);
+        OperatorSource source = new OperatorSource(Operator.FLB, SampleNetex.write(directory, Operator.FLB, 2).toFile());
+        List<Entity> entities = List.of(line("1"));
+
+        cache.put(source, "full", entities);
+        assertThat(cache.get(source, "full", new IdPool())).hasValue(entities);
+        assertThat(cache.get(source, "timetable", new IdPool())).isEmpty();
+
+        OperatorSource changed = new OperatorSource(Operator.FLB, SampleNetex.write(directory, Operator.FLB, 3).toFile());
+        assertThat(cache.get(changed, "full", new IdPool())).isEmpty();
+    }
+
+    @Test
+    void writesThroughTemporaryFile() throws IOException {
+        Path cacheDirectory = directory.resolve("cache");
+        KryoSourceCache cache = new KryoSourceCache(cacheDirectory);
+        OperatorSource source = new OperatorSource(Operator.FLB, SampleNetex.write(directory, Operator.FLB, 2).toFile());
+
+        cache.put(source, "full", List.of(line("1")));
+
+        assertThat(fileNames(cacheDirectory))
+                .containsExactly("FLB_line.xml.full." + source.getContentHash() + ".ser");
+    }
+
+    @Test
+    void removesStaleEntries() throws IOException {
+        Path cacheDirectory = directory.resolve("cache");
+        KryoSourceCache cache = new KryoSourceCache(cacheDirectory);
+        OperatorSource source = new OperatorSource(Operator.FLB, SampleNetex.write(directory, Operator.FLB, 2).toFile());
+        cache.put(source, "full", List.of(line("1")));
+        cache.put(source, "timetable", List.of(line("1")));
+
+        OperatorSource changed = new OperatorSource(Operator.FLB, SampleNetex.write(directory, Operator.FLB, 3).toFile());
+        cache.put(changed, "full", List.of(line("2")));
+
+        assertThat(fileNames(cacheDirectory)).containsExactly(
+                "FLB_line.xml.full." + changed.getContentHash() + ".ser",
+                "FLB_line.xml.timetable." + source.getContentHash() + ".ser");
+    }
+
+    @Test
+    void corruptEntriesFallBackToParsing() throws IOException {
+        Path cacheDirectory = directory.resolve("cache");
+        Path documents = Files.createDirectories(directory.resolve("documents"));
+        SampleNetex.write(documents, Operator.FLB, 2);
+        ParserFactory parserFactory = new ParserFactory(documents, List.of(Operator.FLB))
+                .withSourceCache(new KryoSourceCache(cacheDirectory));
+
+        List<Entity> parsed = parse(parserFactory);
+        List<Path> cached = files(cacheDirectory);
+        assertThat(cached).hasSize(1);
+        Files.writeString(cached.get(0), "not kryo", StandardCharsets.UTF_8);
+
+        assertThat(parse(parserFactory)).containsExactlyInAnyOrderElementsOf(parsed);
+        assertThat(parse(parserFactory)).containsExactlyInAnyOrderElementsOf(parsed);
+    }
+
+    private static Line line(String id) {
+        return new Line(Id.id(Operator.FLB, "Line", id), "Flåmsbana", "rail");
+    }
+
+    private static List<Entity> parse(ParserFactory parserFactory) {
+        try (Parser parser = parserFactory.create(true, false, ParseEngine.CURSOR)) {
+            return parser.entities().collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> fileNames(Path directory) throws IOException {
+        return files(directory).stream()
+                .map(Path::getFileName)
+                .map(Path::toString)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
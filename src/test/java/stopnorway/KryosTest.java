@@ -0,0 +1,32 @@
+package stopnorway;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.junit.jupiter.api.Test;
+import stopnorway.database.Id;
+import stopnorway.database.IdPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KryosTest {
+
+    @Test
+    void kryosOfOneLoadShareIds() {
+        IdPool idPool = new IdPool();
+        Id stopPoint = Id.id("RUT", "ScheduledStopPoint", "1");
+
+        Id first = roundTrip(Kryos.kryo(idPool), stopPoint);
+        Id second = roundTrip(Kryos.kryo(idPool), Id.id("RUT", "ScheduledStopPoint", "1"));
+
+        assertThat(first).isEqualTo(stopPoint);
+        assertThat(second).isSameAs(first);
+        assertThat(roundTrip(Kryos.kryo(new IdPool()), stopPoint)).isNotSameAs(first);
+    }
+
+    private static Id roundTrip(Kryo kryo, Id id) {
+        Output output = new Output(256, -1);
+        kryo.writeObject(output, id);
+        return kryo.readObject(new Input(output.toBytes()), Id.class);
+    }
+}
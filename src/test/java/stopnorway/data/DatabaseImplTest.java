@@ -0,0 +1,170 @@
+package stopnorway.data;
+
+import org.junit.jupiter.api.Test;
+import stopnorway.geo.Box;
+import stopnorway.geo.Points;
+import stopnorway.geo.Scale;
+import stopnorway.geo.TimeBox;
+import stopnorway.geo.Timespan;
+import stopnorway.index.SpatialIndexing;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatabaseImplTest {
+
+    private static final Timespan DAY = new Timespan(LocalTime.MIN, LocalTime.MAX);
+
+    @Test
+    void scheduledStopsAreScopedToTheirJourney() {
+        DatabaseImpl database = new TestNetwork()
+                .line(Operator.RUT, "oslo", 59.9d, 10.7d, 3)
+                .journey(Operator.RUT, "early", "oslo", 8 * 3600)
+                .journey(Operator.RUT, "late", "oslo", 9 * 3600)
+                .database();
+
+        Collection<Journey> journeys = database.getJourneys(DAY);
+        List<ScheduledStop> stops = journeys.stream()
+                .flatMap(journey -> journey.getScheduledStops().stream())
+                .collect(Collectors.toList());
+        Set<ScheduledStop> distinct = Set.copyOf(stops);
+
+        assertThat(journeys).hasSize(2);
+        assertThat(stops).hasSize(8);
+        assertThat(distinct).hasSize(8);
+    }
+
+    @Test
+    void journeysWithinMatchBruteForce() {
+        DatabaseImpl database = network().database();
+        Collection<Journey> all = database.getJourneys(DAY);
+        List<TimeBox> timeBoxes = new ArrayList<>();
+        for (int lat = 0; lat < 6; lat++) {
+            for (int lon = 0; lon < 6; lon++) {
+                Box box = Points.point(59.86d + lat * 0.02d, 10.61d + lon * 0.02d)
+                        .box(Points.point(59.87d + lat * 0.02d, 10.62d + lon * 0.02d));
+                for (int hour = 6; hour < 23; hour += 4) {
+                    timeBoxes.add(new TimeBox(
+                            new Timespan(LocalTime.of(hour, 0), LocalTime.of(hour, 20)),
+                            box));
+                }
+            }
+        }
+
+        int found = 0;
+        for (TimeBox timeBox: timeBoxes) {
+            Set<Journey> expected = all.stream()
+                    .filter(journey -> Passages.of(journey).passes(timeBox.getBox(), timeBox.getTimespan()))
+                    .collect(Collectors.toSet());
+            assertThat(Set.copyOf(database.getJourneysWithin(List.of(timeBox)))).isEqualTo(expected);
+            found += expected.size();
+        }
+        assertThat(found).isGreaterThan(0);
+        assertThat(Set.copyOf(database.getJourneysWithin(timeBoxes))).isEqualTo(all.stream()
+                .filter(journey -> timeBoxes.stream().anyMatch(timeBox -> Passages.of(journey)
+                        .passes(timeBox.getBox(), timeBox.getTimespan())))
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void refreshMatchesRebuild() {
+        DatabaseImpl previous = new TestNetwork()
+                .line(Operator.RUT, "oslo", 59.9d, 10.7d, 3)
+                .line(Operator.ATB, "trondheim", 63.4d, 10.4d, 3)
+                .journey(Operator.RUT, "oslo-1", "oslo", 8 * 3600)
+                .journey(Operator.ATB, "trondheim-1", "trondheim", 8 * 3600)
+                .journey(Operator.ATB, "trondheim-2", "trondheim", 9 * 3600)
+                .database();
+        TestNetwork changed = new TestNetwork()
+                .line(Operator.RUT, "oslo", 59.9d, 10.7d, 3)
+                .line(Operator.ATB, "trondheim", 63.5d, 10.5d, 4)
+                .journey(Operator.RUT, "oslo-1", "oslo", 8 * 3600)
+                .journey(Operator.ATB, "trondheim-1", "trondheim", 10 * 3600)
+                .journey(Operator.ATB, "trondheim-3", "trondheim", 11 * 3600);
+
+        DatabaseImpl refreshed = previous.refreshed(changed.entities(), changed.journeyIds(Operator.ATB));
+        DatabaseImpl rebuilt = changed.database();
+
+        assertThat(summary(refreshed.getJourneys(DAY))).isEqualTo(summary(rebuilt.getJourneys(DAY)));
+        assertThat(summary(refreshed.getJourneys(DAY))).hasSize(3);
+        for (Box box: List.of(
+                Points.NORWAY_BOX,
+                Points.point(63.44d, 10.0d).box(Points.point(63.6d, 11.0d)),
+                Points.point(59.0d, 10.0d).box(Points.point(60.0d, 11.0d)))) {
+            assertThat(specifications(refreshed.getJourneySpecifications(box)))
+                    .isEqualTo(specifications(rebuilt.getJourneySpecifications(box)));
+            assertThat(summary(refreshed.getJourneys(List.of(box), List.of(DAY))))
+                    .isEqualTo(summary(rebuilt.getJourneys(List.of(box), List.of(DAY))));
+            assertThat(summary(refreshed.getJourneysWithin(List.of(new TimeBox(DAY, box)))))
+                    .isEqualTo(summary(rebuilt.getJourneysWithin(List.of(new TimeBox(DAY, box)))));
+        }
+    }
+
+    @Test
+    void bitmapQueryMatchesSpecificationLookup() {
+        List<DatabaseImpl> databases = new ArrayList<>();
+        for (SpatialIndexing spatialIndexing: SpatialIndexing.values()) {
+            databases.add(new DatabaseImpl(
+                    Points.NORWAY_BOX,
+                    Scale.DEFAULT,
+                    Duration.ofHours(1),
+                    spatialIndexing,
+                    network().entities()));
+        }
+        databases.add(databases.get(0).refreshed(network().entities(), network().journeyIds(Operator.RUT)));
+
+        for (DatabaseImpl database: databases) {
+            int found = 0;
+            for (int lat = 0; lat < 6; lat++) {
+                List<Box> boxes = List.of(
+                        Points.point(59.86d + lat * 0.02d, 10.6d).box(Points.point(59.87d + lat * 0.02d, 10.7d)),
+                        Points.point(59.9d, 10.6d + lat * 0.02d).box(Points.point(60.0d, 10.61d + lat * 0.02d)));
+                List<Timespan> timespans = List.of(
+                        new Timespan(LocalTime.of(7 + lat, 0), LocalTime.of(8 + lat, 0)),
+                        new Timespan(LocalTime.of(15, 0), LocalTime.of(15, 30)));
+                Set<JourneySpecification> specifications = Set.copyOf(database.getJourneySpecifications(boxes));
+                Set<Journey> expected = database.getJourneys(timespans).stream()
+                        .filter(journey -> specifications.contains(journey.getJourneySpecification()))
+                        .collect(Collectors.toSet());
+
+                assertThat(Set.copyOf(database.getJourneys(boxes, timespans))).isEqualTo(expected);
+                found += expected.size();
+            }
+            assertThat(found).isGreaterThan(0);
+        }
+    }
+
+    private static Set<String> summary(Collection<Journey> journeys) {
+        return journeys.stream()
+                .map(journey -> journey.getId() + "@" + journey.getTimespan().orElse(null) + "/" +
+                        journey.getScheduledStops().size() + "/" + journey.getBox().orElse(null))
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> specifications(Collection<JourneySpecification> specifications) {
+        return specifications.stream()
+                .map(specification -> specification.getId() + "/" + specification.getServiceLegs().size() + "/" +
+                        specification.getBox().orElse(null))
+                .collect(Collectors.toSet());
+    }
+
+    private static TestNetwork network() {
+        TestNetwork network = new TestNetwork();
+        for (int line = 0; line < 6; line++) {
+            String name = "line-" + line;
+            network.line(Operator.RUT, name, 59.85d + line * 0.02d, 10.6d + line * 0.015d, 5);
+            for (int departure = 6 * 3600; departure < 22 * 3600; departure += 1800 + line * 300) {
+                network.journey(Operator.RUT, name + "@" + departure, name, departure);
+            }
+        }
+        return network;
+    }
+
+}
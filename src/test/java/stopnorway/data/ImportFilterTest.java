@@ -0,0 +1,127 @@
+package stopnorway.data;
+
+import org.junit.jupiter.api.Test;
+import stopnorway.database.Entity;
+import stopnorway.database.Id;
+import stopnorway.entur.*;
+import stopnorway.geo.Points;
+import stopnorway.geo.Timespan;
+
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportFilterTest {
+
+    @Test
+    void noneKeepsEverything() {
+        Map<Class<? extends Entity>, Map<Id, Entity>> entities = entities();
+
+        assertThat(ImportFilter.NONE.apply(entities)).isSameAs(entities);
+    }
+
+    @Test
+    void boxDropsRemoteLinksAndDependents() {
+        Map<Class<? extends Entity>, Map<Id, Entity>> filtered = ImportFilter.NONE
+                .withBox(Points.point(59.0d, 10.0d).box(Points.point(60.0d, 11.0d)))
+                .apply(entities());
+
+        assertThat(ids(filtered, ServiceLink.class)).containsExactly(id(ServiceLink.class, "oslo-1"));
+        assertThat(ids(filtered, LinkSequenceProjection.class)).containsExactly(
+                id(LinkSequenceProjection.class, "oslo-1"));
+        assertThat(ids(filtered, JourneyPattern.class)).containsExactly(id(JourneyPattern.class, "oslo"));
+        assertThat(ids(filtered, ServiceLinkInJourneyPattern.class)).containsExactly(
+                id(ServiceLinkInJourneyPattern.class, "oslo-1"));
+        assertThat(ids(filtered, StopPointInJourneyPattern.class)).hasSize(2);
+        assertThat(ids(filtered, ServiceJourney.class)).hasSize(2);
+        assertThat(ids(filtered, Route.class)).containsExactly(id(Route.class, "oslo"));
+        assertThat(ids(filtered, Line.class)).containsExactly(id(Line.class, "oslo"));
+        assertThat(ids(filtered, ScheduledStopPoint.class)).containsExactlyInAnyOrder(
+                id(ScheduledStopPoint.class, "oslo-0"),
+                id(ScheduledStopPoint.class, "oslo-1"));
+    }
+
+    @Test
+    void boxKeepsWholePatternsCrossingItsEdge() {
+        Map<Class<? extends Entity>, Map<Id, Entity>> filtered = ImportFilter.NONE
+                .withBox(Points.point(59.0d, 10.0d).box(Points.point(59.915d, 11.0d)))
+                .apply(new TestNetwork()
+                               .line(Operator.RUT, "oslo", 59.9d, 10.7d, 3)
+                               .line(Operator.RUT, "bodo", 67.3d, 14.4d, 2)
+                               .journey(Operator.RUT, "oslo-morning", "oslo", 8 * 3600)
+                               .journey(Operator.RUT, "bodo-evening", "bodo", 18 * 3600)
+                               .entities());
+
+        assertThat(ids(filtered, ServiceLink.class)).containsExactlyInAnyOrder(
+                id(ServiceLink.class, "oslo-1"),
+                id(ServiceLink.class, "oslo-2"),
+                id(ServiceLink.class, "oslo-3"));
+        assertThat(ids(filtered, LinkSequenceProjection.class)).hasSize(3);
+        assertThat(ids(filtered, ScheduledStopPoint.class)).hasSize(4);
+
+        DatabaseImpl database = new DatabaseImpl(null, null, null, filtered);
+        Collection<JourneySpecification> specifications = database.getJourneySpecifications(Points.NORWAY_BOX);
+        assertThat(specifications).hasSize(1);
+        assertThat(specifications.iterator().next().getServiceLegs().stream()
+                           .map(Map.Entry::getValue)
+                           .filter(Objects::nonNull)
+                           .count()).isEqualTo(3L);
+        assertThat(database.getJourneys(new Timespan(LocalTime.of(8, 0), LocalTime.of(9, 0)))).hasSize(1);
+    }
+
+    @Test
+    void boxKeepsLinksSpanningIt() {
+        Map<Class<? extends Entity>, Map<Id, Entity>> filtered = ImportFilter.NONE
+                .withBox(Points.point(59.903d, 10.703d).box(Points.point(59.907d, 10.707d)))
+                .apply(new TestNetwork()
+                               .line(Operator.RUT, "ferry", 59.9d, 10.7d, 1)
+                               .journey(Operator.RUT, "ferry-morning", "ferry", 8 * 3600)
+                               .entities());
+
+        assertThat(ids(filtered, ServiceLink.class)).containsExactly(id(ServiceLink.class, "ferry-1"));
+        assertThat(ids(filtered, JourneyPattern.class)).containsExactly(id(JourneyPattern.class, "ferry"));
+        assertThat(ids(filtered, ServiceJourney.class)).containsExactly(id(ServiceJourney.class, "ferry-morning"));
+        assertThat(ids(filtered, ScheduledStopPoint.class)).hasSize(2);
+    }
+
+    @Test
+    void windowDropsJourneysAndUntravelledPatterns() {
+        Map<Class<? extends Entity>, Map<Id, Entity>> filtered = ImportFilter.NONE
+                .withWindow(new Timespan(LocalTime.of(7, 0), LocalTime.of(9, 0)))
+                .apply(entities());
+
+        assertThat(ids(filtered, ServiceJourney.class)).containsExactly(id(ServiceJourney.class, "oslo-morning"));
+        assertThat(ids(filtered, JourneyPattern.class)).containsExactly(id(JourneyPattern.class, "oslo"));
+        assertThat(ids(filtered, Line.class)).containsExactly(id(Line.class, "oslo"));
+    }
+
+    @Test
+    void windowIncludesJourneysPastMidnight() {
+        Map<Class<? extends Entity>, Map<Id, Entity>> filtered = ImportFilter.NONE
+                .withWindow(new Timespan(LocalTime.of(0, 0), LocalTime.of(1, 0)))
+                .apply(entities());
+
+        assertThat(ids(filtered, ServiceJourney.class)).containsExactly(id(ServiceJourney.class, "oslo-night"));
+    }
+
+    private static Map<Class<? extends Entity>, Map<Id, Entity>> entities() {
+        return new TestNetwork()
+                .line(Operator.RUT, "oslo", 59.9d, 10.7d, 1)
+                .line(Operator.RUT, "bodo", 67.3d, 14.4d, 1)
+                .journey(Operator.RUT, "oslo-morning", "oslo", 8 * 3600)
+                .journey(Operator.RUT, "oslo-night", "oslo", 23 * 3600 + 58 * 60)
+                .journey(Operator.RUT, "bodo-evening", "bodo", 18 * 3600)
+                .entities();
+    }
+
+    private static Iterable<Id> ids(Map<Class<? extends Entity>, Map<Id, Entity>> entities, Class<?> type) {
+        return entities.getOrDefault(type, Map.of()).keySet();
+    }
+
+    private static Id id(Class<? extends Entity> type, String id) {
+        return TestNetwork.id(Operator.RUT, type, id);
+    }
+}
@@ -0,0 +1,75 @@
+package stopnorway.data;
+
+import org.junit.jupiter.api.Test;
+import stopnorway.geo.Timespan;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JourneyIntervalsTest {
+
+    @Test
+    void findsOverlappingJourneys() {
+        JourneyIntervals intervals = new JourneyIntervals(journeys(new TestNetwork()
+                .line(Operator.RUT, "line", 59.9d, 10.7d, 1)
+                .journey(Operator.RUT, "early", "line", 6 * 3600, 3600)
+                .journey(Operator.RUT, "long", "line", 5 * 3600, 7 * 3600)
+                .journey(Operator.RUT, "noon", "line", 12 * 3600 + 30 * 60, 30 * 60)
+                .journey(Operator.RUT, "evening", "line", 18 * 3600, 3600)));
+
+        assertThat(ids(intervals.overlapping(List.of(timespan(6 * 60 + 30, 8 * 60)))))
+                .containsExactlyInAnyOrder("early", "long");
+        assertThat(ids(intervals.overlapping(List.of(timespan(12 * 60, 12 * 60)))))
+                .containsExactly("long");
+        assertThat(ids(intervals.overlapping(List.of(timespan(14 * 60, 17 * 60))))).isEmpty();
+        assertThat(ids(intervals.overlapping(List.of(
+                timespan(6 * 60, 6 * 60 + 10),
+                timespan(18 * 60 + 30, 20 * 60)))))
+                .containsExactlyInAnyOrder("early", "long", "evening");
+    }
+
+    @Test
+    void findsJourneysPastMidnight() {
+        JourneyIntervals intervals = new JourneyIntervals(journeys(new TestNetwork()
+                .line(Operator.RUT, "line", 59.9d, 10.7d, 1)
+                .journey(Operator.RUT, "late", "line", 23 * 3600 + 30 * 60, 70 * 60)
+                .journey(Operator.RUT, "first", "line", 5 * 3600, 3600)));
+
+        assertThat(ids(intervals.overlapping(List.of(timespan(0, 30))))).containsExactly("late");
+        assertThat(ids(intervals.overlapping(List.of(timespan(23 * 60, 23 * 60 + 45))))).containsExactly("late");
+    }
+
+    @Test
+    void matchesLinearScan() {
+        TestNetwork network = new TestNetwork().line(Operator.RUT, "line", 59.9d, 10.7d, 1);
+        IntStream.range(0, 500).forEach(i ->
+                network.journey(Operator.RUT, "j" + i, "line", i * 37 % 1400 * 60, i % 90 * 60));
+        List<Journey> journeys = journeys(network);
+        JourneyIntervals intervals = new JourneyIntervals(journeys);
+
+        for (int start = 0; start < 1440; start += 45) {
+            Timespan query = timespan(start, start + 20);
+            assertThat(ids(intervals.overlapping(List.of(query))))
+                    .containsExactlyInAnyOrderElementsOf(ids(journeys.stream()
+                                                                     .filter(journey -> journey.overlaps(query))
+                                                                     .collect(Collectors.toList())));
+        }
+    }
+
+    private static Timespan timespan(int startMinutes, int endMinutes) {
+        return new Timespan(startMinutes * 60, endMinutes * 60);
+    }
+
+    private static List<Journey> journeys(TestNetwork network) {
+        return new ArrayList<>(network.journeys().values());
+    }
+
+    private static List<String> ids(Collection<Journey> journeys) {
+        return journeys.stream().map(journey -> journey.getId().getId()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,84 @@
+package stopnorway.data;
+
+import org.junit.jupiter.api.Test;
+import stopnorway.geo.Box;
+import stopnorway.geo.Cells;
+import stopnorway.geo.Points;
+import stopnorway.geo.Scale;
+import stopnorway.geo.Timespan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PassagesTest {
+
+    @Test
+    void interpolatesAlongTrajectory() {
+        Passages passages = Passages.of(journey(8 * 60, 8 * 60 + 20));
+
+        assertThat(passages.size()).isEqualTo(3);
+        assertThat(passages.seconds(0)).isEqualTo(8 * 3600);
+        assertThat(passages.seconds(1)).isEqualTo(8 * 3600 + 5 * 60);
+        assertThat(passages.seconds(2)).isEqualTo(8 * 3600 + 20 * 60);
+    }
+
+    @Test
+    void passesBoxDuringWindow() {
+        Passages passages = Passages.of(journey(8 * 60, 8 * 60 + 20));
+        Box middle = Points.point(59.89d, 10.79d).box(Points.point(59.91d, 10.81d));
+
+        assertThat(passages.passes(middle, timespan(8 * 60 + 8, 8 * 60 + 10))).isTrue();
+        assertThat(passages.passes(middle, timespan(8 * 60, 8 * 60 + 5))).isFalse();
+        assertThat(passages.passes(middle, timespan(8 * 60 + 15, 9 * 60))).isFalse();
+        assertThat(passages.passes(
+                Points.point(59.95d, 10.79d).box(Points.point(59.97d, 10.81d)),
+                timespan(8 * 60, 9 * 60))).isFalse();
+    }
+
+    @Test
+    void passesBoxAfterMidnight() {
+        Passages passages = Passages.of(journey(23 * 60 + 50, 24 * 60 + 10));
+        Box end = Points.point(59.89d, 10.85d).box(Points.point(59.91d, 10.95d));
+
+        assertThat(passages.passes(end, timespan(0, 15))).isTrue();
+        assertThat(passages.passes(end, timespan(23 * 60, 23 * 60 + 55))).isFalse();
+    }
+
+    @Test
+    void coversCellsWithPassageTimes() {
+        Passages passages = Passages.of(journey(8 * 60, 8 * 60 + 20));
+        List<long[]> cells = new ArrayList<>();
+        passages.forEachCell(Scale.DEFAULT, (cell, startSeconds, endSeconds) ->
+                cells.add(new long[] { cell, startSeconds, endSeconds }));
+
+        assertThat(cells).hasSize(11);
+        assertThat(cells.get(0)).isEqualTo(new long[] {
+                Cells.code(Scale.DEFAULT, Points.point(59.9d, 10.7d)), 8 * 3600, 8 * 3600 + 2 * 60 });
+        assertThat(cells.get(5)).isEqualTo(new long[] {
+                Cells.code(Scale.DEFAULT, Points.point(59.9d, 10.81d)), 8 * 3600 + 10 * 60, 8 * 3600 + 12 * 60 });
+        assertThat(cells.get(10)[0]).isEqualTo(Cells.code(Scale.DEFAULT, Points.point(59.9d, 10.9d)));
+        assertThat(cells.get(10)[2]).isEqualTo(8 * 3600L + 20 * 60);
+    }
+
+    private static Journey journey(int departureMinutes, int arrivalMinutes) {
+        return new TestNetwork()
+                .line(Operator.RUT, "line", List.of(List.of(
+                        Points.point(59.9d, 10.7d),
+                        Points.point(59.9d, 10.75d),
+                        Points.point(59.9d, 10.9d))))
+                .journey(
+                        Operator.RUT,
+                        "journey",
+                        "line",
+                        departureMinutes * 60,
+                        (arrivalMinutes - departureMinutes) * 60)
+                .journeys()
+                .get("journey");
+    }
+
+    private static Timespan timespan(int startMinutes, int endMinutes) {
+        return new Timespan(startMinutes * 60, endMinutes * 60);
+    }
+}
@@ -0,0 +1,136 @@
+package stopnorway.data;
+
+import stopnorway.database.Entity;
+import stopnorway.database.Id;
+import stopnorway.entur.*;
+import stopnorway.geo.Point;
+import stopnorway.geo.Points;
+import stopnorway.geo.Scale;
+import stopnorway.geo.Timespan;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+final class TestNetwork {
+
+    private static final int STOP_SECONDS = 300;
+
+    private final Map<Class<? extends Entity>, Map<Id, Entity>> entities = new HashMap<>();
+
+    private final Map<String, Integer> stops = new HashMap<>();
+
+    TestNetwork line(Operator operator, String name, double lat, double lon, int links) {
+        List<List<Point>> trajectories = new ArrayList<>(links);
+        for (int i = 1; i <= links; i++) {
+            trajectories.add(List.of(
+                    Points.point(lat + (i - 1) * 0.01d, lon + (i - 1) * 0.01d),
+                    Points.point(lat + i * 0.01d, lon + i * 0.01d)));
+        }
+        return line(operator, name, trajectories);
+    }
+
+    TestNetwork line(Operator operator, String name, List<List<Point>> trajectories) {
+        List<StopPointInJourneyPattern> stopPoints = new ArrayList<>();
+        List<ServiceLinkInJourneyPattern> linksInSequence = new ArrayList<>();
+        for (int i = 0; i <= trajectories.size(); i++) {
+            Id stopPoint = id(operator, ScheduledStopPoint.class, name + "-" + i);
+            add(new ScheduledStopPoint(stopPoint, name + " " + i));
+            StopPointInJourneyPattern pointInPattern = new StopPointInJourneyPattern(
+                    id(operator, StopPointInJourneyPattern.class, name + "-" + i),
+                    i + 1,
+                    stopPoint);
+            add(pointInPattern);
+            stopPoints.add(pointInPattern);
+            if (i > 0) {
+                LinkSequenceProjection projection = new LinkSequenceProjection(
+                        id(operator, LinkSequenceProjection.class, name + "-" + i),
+                        trajectories.get(i - 1));
+                ServiceLink serviceLink = new ServiceLink(
+                        id(operator, ServiceLink.class, name + "-" + i),
+                        id(operator, ScheduledStopPoint.class, name + "-" + (i - 1)),
+                        stopPoint,
+                        "1000",
+                        projection);
+                ServiceLinkInJourneyPattern linkInPattern = new ServiceLinkInJourneyPattern(
+                        id(operator, ServiceLinkInJourneyPattern.class, name + "-" + i),
+                        i,
+                        serviceLink.getId());
+                add(projection);
+                add(serviceLink);
+                add(linkInPattern);
+                linksInSequence.add(linkInPattern);
+            }
+        }
+        add(new JourneyPattern(
+                id(operator, JourneyPattern.class, name),
+                name,
+                id(operator, Route.class, name),
+                stopPoints,
+                linksInSequence));
+        add(new Route(id(operator, Route.class, name), name, name, id(operator, Line.class, name), "outbound", List.of()));
+        add(new Line(id(operator, Line.class, name), name, "bus"));
+        stops.put(name, trajectories.size() + 1);
+        return this;
+    }
+
+    TestNetwork journey(Operator operator, String name, String line, int departure) {
+        return journey(operator, name, line, departure, STOP_SECONDS);
+    }
+
+    TestNetwork journey(Operator operator, String name, String line, int departure, int stopSeconds) {
+        int count = stops.get(line);
+        List<TimetabledPassingTime> passingTimes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int passing = departure + i * stopSeconds;
+            passingTimes.add(new TimetabledPassingTime(
+                    id(operator, TimetabledPassingTime.class, name + "-" + i),
+                    id(operator, StopPointInJourneyPattern.class, line + "-" + i),
+                    i == 0 ? Timespan.NO_TIME : passing,
+                    i == count - 1 ? Timespan.NO_TIME : passing));
+        }
+        add(new ServiceJourney(
+                id(operator, ServiceJourney.class, name),
+                "bus",
+                name,
+                id(operator, JourneyPattern.class, line),
+                id(operator, Line.class, line),
+                PassingTimes.of(passingTimes, false)));
+        return this;
+    }
+
+    Map<Class<? extends Entity>, Map<Id, Entity>> entities() {
+        Map<Class<? extends Entity>, Map<Id, Entity>> copy = new HashMap<>();
+        entities.forEach((type, typed) -> copy.put(type, new HashMap<>(typed)));
+        return copy;
+    }
+
+    DatabaseImpl database() {
+        return new DatabaseImpl(Points.NORWAY_BOX, Scale.DEFAULT, Duration.ofHours(1), entities());
+    }
+
+    Map<String, Journey> journeys() {
+        return database().journeys().stream()
+                .collect(Collectors.toMap(journey -> journey.getId().getId(), journey -> journey));
+    }
+
+    Set<Id> journeyIds(Operator operator) {
+        return Stream.of(JourneyPattern.class, ServiceJourney.class)
+                .flatMap(type -> entities.getOrDefault(type, Map.of()).keySet().stream())
+                .filter(id -> id.getOperator().equals(operator.name()))
+                .collect(Collectors.toSet());
+    }
+
+    static Id id(Operator operator, Class<? extends Entity> type, String id) {
+        return new Id(operator, type, id);
+    }
+
+    private void add(Entity entity) {
+        entities.computeIfAbsent(entity.getClass(), __ -> new HashMap<>()).put(entity.getId(), entity);
+    }
+}
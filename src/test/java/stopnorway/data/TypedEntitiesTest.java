@@ -0,0 +1,52 @@
+package stopnorway.data;
+
+import org.junit.jupiter.api.Test;
+import stopnorway.database.Entity;
+import stopnorway.database.Id;
+import stopnorway.entur.Line;
+import stopnorway.entur.ScheduledStopPoint;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TypedEntitiesTest {
+
+    @Test
+    void mergeDeduplicatesSharedStopPoints() {
+        Id shared = new Id("NSR", ScheduledStopPoint.class, "1");
+
+        OperatorEntities operatorEntities = new OperatorEntities(List.of(Operator.RUT, Operator.ATB));
+        operatorEntities.accept(Operator.RUT, List.of(
+                new ScheduledStopPoint(shared, "Jernbanetorget"),
+                new Line(new Id(Operator.RUT, Line.class, "1"), "1", "metro")));
+        operatorEntities.accept(Operator.ATB, List.of(
+                new ScheduledStopPoint(shared, "Jernbanetorget"),
+                new Line(new Id(Operator.ATB, Line.class, "1"), "1", "bus")));
+
+        TypedEntities merged = TypedEntities.merge(operatorEntities.get().values());
+
+        assertThat(merged.get().get(ScheduledStopPoint.class)).hasSize(1);
+        assertThat(merged.get().get(Line.class)).hasSize(2);
+    }
+
+    @Test
+    void mergeRejectsOtherDuplicates() {
+        Line line = new Line(new Id(Operator.RUT, Line.class, "1"), "1", "metro");
+        TypedEntities first = new TypedEntities();
+        first.accept(Operator.RUT, List.<Entity>of(line));
+        TypedEntities second = new TypedEntities();
+        second.accept(Operator.RUT, List.<Entity>of(line));
+
+        assertThatThrownBy(() -> TypedEntities.merge(List.of(first, second)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void operatorEntitiesKeepEmptyShards() {
+        OperatorEntities operatorEntities = new OperatorEntities(List.of(Operator.RUT, Operator.ATB));
+
+        assertThat(operatorEntities.get().keySet()).containsExactly(Operator.RUT, Operator.ATB);
+    }
+}
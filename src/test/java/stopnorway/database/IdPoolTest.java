@@ -0,0 +1,36 @@
+package stopnorway.database;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdPoolTest {
+
+    @Test
+    void parsesToCanonicalIds() {
+        IdPool idPool = new IdPool();
+
+        Id id = idPool.parse("RUT:ScheduledStopPoint:1");
+
+        assertThat(idPool.parse(new String("RUT:ScheduledStopPoint:1"))).isSameAs(id);
+        assertThat(idPool.id("RUT", "ScheduledStopPoint", "1")).isSameAs(id);
+        assertThat(idPool.intern(Id.parse("RUT:ScheduledStopPoint:1"))).isSameAs(id);
+        assertThat(idPool.parse("RUT:ScheduledStopPoint:2")).isNotEqualTo(id);
+        assertThat(idPool.size()).isEqualTo(2);
+    }
+
+    @Test
+    void retainsOnlySharedTypes() {
+        IdPool idPool = new IdPool();
+
+        Id journey = idPool.parse("RUT:ServiceJourney:1");
+        Id stopPoint = idPool.parse("RUT:ScheduledStopPoint:1");
+        Id otherJourney = idPool.parse(new String("RUT:ServiceJourney:1"));
+
+        assertThat(otherJourney).isEqualTo(journey);
+        assertThat(otherJourney).isNotSameAs(journey);
+        assertThat(otherJourney.getOperator()).isSameAs(stopPoint.getOperator());
+        assertThat(otherJourney.getType()).isSameAs(journey.getType());
+        assertThat(idPool.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,69 @@
+package stopnorway.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CellsTest {
+
+    @Test
+    void codesRoundTrip() {
+        for (int lat: new int[] { 0, 1, -1, 5990, Integer.MAX_VALUE, Integer.MIN_VALUE }) {
+            for (int lon: new int[] { 0, 1, -1, 1075, Integer.MAX_VALUE, Integer.MIN_VALUE }) {
+                long code = Cells.code(lat, lon);
+                assertThat(Cells.latCell(code)).isEqualTo(lat);
+                assertThat(Cells.lonCell(code)).isEqualTo(lon);
+            }
+        }
+    }
+
+    @Test
+    void codesFollowZOrder() {
+        assertThat(List.of(
+                Cells.code(-1, -1),
+                Cells.code(0, 0),
+                Cells.code(0, 1),
+                Cells.code(1, 0),
+                Cells.code(1, 1),
+                Cells.code(0, 2),
+                Cells.code(2, 2)
+        ).stream().sorted().collect(Collectors.toList())).containsExactly(
+                Cells.code(-1, -1),
+                Cells.code(0, 0),
+                Cells.code(0, 1),
+                Cells.code(1, 0),
+                Cells.code(1, 1),
+                Cells.code(0, 2),
+                Cells.code(2, 2));
+    }
+
+    @Test
+    void codesMatchScaledBoxes() {
+        Point point = Points.point(59.912345d, 10.754321d);
+        for (Scale scale: List.of(Scale.DEFAULT, Scale.INTEGER, Scale.of(10, 10))) {
+            Box cell = Cells.box(scale, Cells.code(scale, point));
+            assertThat(cell).isEqualTo(point.scaledBox(scale));
+            assertThat(Cells.code(scale, cell.min())).isEqualTo(Cells.code(scale, point));
+        }
+    }
+
+    @Test
+    void cursorCoversScaledBoxes() {
+        Box box = Points.point(59.8712d, 10.6133d).box(Points.point(59.9567d, 10.8821d));
+        for (Scale scale: List.of(Scale.DEFAULT, Scale.of(10, 10))) {
+            List<Long> codes = new ArrayList<>();
+            CellCursor cursor = new CellCursor(scale).over(box);
+            while (cursor.next()) {
+                codes.add(cursor.code());
+            }
+            assertThat(codes).containsExactlyInAnyOrderElementsOf(box.getScaledBoxes(scale)
+                                                                          .map(cell -> Cells.code(scale, cell.min()))
+                                                                          .collect(Collectors.toList()));
+            assertThat(cursor.next()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package stopnorway.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PointSequenceTest {
+
+    @Test
+    void test_iterate() {
+        PointSequence sequence = PointSequence.of(
+                Points.point(59.1, 10.1),
+                Points.point(59.0, 10.2));
+        List<Integer> coordinates = new ArrayList<>();
+        sequence.forEach((lat, lon) -> {
+            coordinates.add(lat);
+            coordinates.add(lon);
+        });
+        assertThat(coordinates).containsExactly(59_100_000, 10_100_000, 59_000_000, 10_200_000);
+        assertThat(sequence.asList()).containsExactly(Points.point(59.1, 10.1), Points.point(59.0, 10.2));
+        assertThat(PointSequence.of(sequence.asList())).isSameAs(sequence);
+    }
+
+    @Test
+    void test_box() {
+        PointSequence sequence = PointSequence.of(
+                Points.point(59.1, 10.1),
+                Points.point(59.0, 10.2),
+                Points.point(58.9, 10.3));
+        assertThat(sequence.box()).isEqualTo(Points.point(58.9, 10.1).box(Points.point(59.1, 10.3)));
+        assertThat(PointSequence.EMPTY.box()).isNull();
+    }
+
+    @Test
+    void test_scaled_boxes() {
+        List<Point> points = IntStream.range(0, 200)
+                .mapToObj(i -> Points.point(59.0 + i / 1000.0, 10.0 + i / 500.0))
+                .collect(Collectors.toList());
+        for (Scale scale: List.of(Scale.DEFAULT, Scale.INTEGER, Scale.of(10, 10))) {
+            assertThat(PointSequence.of(points).scaledBoxes(scale).collect(Collectors.toList()))
+                    .isEqualTo(points.stream()
+                                       .map(point -> point.scaledBox(scale))
+                                       .distinct()
+                                       .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void test_concat() {
+        PointSequence first = PointSequence.of(Points.point(1d, 2d));
+        PointSequence second = PointSequence.of(Points.point(3d, 4d), Points.point(5d, 6d));
+        assertThat(PointSequence.concat(List.of(first, PointSequence.EMPTY, second)))
+                .isEqualTo(PointSequence.of(Points.point(1d, 2d), Points.point(3d, 4d), Points.point(5d, 6d)));
+    }
+}
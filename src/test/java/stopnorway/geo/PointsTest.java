@@ -26,4 +26,14 @@ class PointsTest {
                 Points.point(54.567568, 10.0),
                 Points.point(54.567568, 10.2));
     }
+
+    @Test
+    void parseSequenceFromChars() {
+        char[] chars = "xx\n   54.3 10.71\n  54.2  10.76 \n yy".toCharArray();
+
+        assertThat(Points.sequence(chars, 2, chars.length - 4)).containsExactly(
+                Points.point(54.3, 10.71),
+                Points.point(54.2, 10.76));
+        assertThat(Points.sequence(chars, 2, 3)).isEmpty();
+    }
 }
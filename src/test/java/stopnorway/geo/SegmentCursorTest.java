@@ -0,0 +1,107 @@
+package stopnorway.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentCursorTest {
+
+    @Test
+    void coversEveryCrossedCell() {
+        Random random = new Random(42L);
+        SegmentCursor cursor = new SegmentCursor(Scale.DEFAULT);
+        for (int i = 0; i < 500; i++) {
+            int fromLat = coordinate(random, 59_800_000, 10_000);
+            int fromLon = coordinate(random, 10_600_000, 20_000);
+            int toLat = coordinate(random, 59_800_000, 10_000);
+            int toLon = coordinate(random, 10_600_000, 20_000);
+
+            Set<Long> walked = new HashSet<>();
+            double previousEntry = 0.0d;
+            cursor.over(fromLat, fromLon, toLat, toLon);
+            while (cursor.next()) {
+                assertThat(walked.add(cursor.code())).isTrue();
+                assertThat(cursor.entry()).isGreaterThanOrEqualTo(previousEntry);
+                assertThat(cursor.exit()).isGreaterThanOrEqualTo(cursor.entry());
+                previousEntry = cursor.entry();
+            }
+            assertThat(walked).isEqualTo(crossed(fromLat, fromLon, toLat, toLon));
+        }
+    }
+
+    @Test
+    void coversBothSidesOfCorners() {
+        List<Long> walked = new ArrayList<>();
+        SegmentCursor cursor = new SegmentCursor(Scale.of(10, 10)).over(
+                59_850_000, 10_650_000,
+                60_050_000, 10_850_000);
+        while (cursor.next()) {
+            walked.add(cursor.code());
+        }
+        assertThat(walked).containsExactly(
+                Cells.code(598, 106),
+                Cells.code(599, 106),
+                Cells.code(598, 107),
+                Cells.code(599, 107),
+                Cells.code(600, 107),
+                Cells.code(599, 108),
+                Cells.code(600, 108));
+    }
+
+    @Test
+    void coversSinglePoint() {
+        SegmentCursor cursor = new SegmentCursor(Scale.DEFAULT).over(59_912_345, 10_754_321, 59_912_345, 10_754_321);
+
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.code()).isEqualTo(Cells.code(Scale.DEFAULT, 59_912_345, 10_754_321));
+        assertThat(cursor.next()).isFalse();
+    }
+
+    private static Set<Long> crossed(int fromLat, int fromLon, int toLat, int toLon) {
+        Set<Long> crossed = new HashSet<>();
+        int maxLatCell = Math.max(fromLat, toLat) / 10_000;
+        int maxLonCell = Math.max(fromLon, toLon) / 20_000;
+        for (int latCell = Math.min(fromLat, toLat) / 10_000 - 1; latCell <= maxLatCell; latCell++) {
+            for (int lonCell = Math.min(fromLon, toLon) / 20_000 - 1; lonCell <= maxLonCell; lonCell++) {
+                if (intersects(fromLat, fromLon, toLat, toLon, latCell, lonCell)) {
+                    crossed.add(Cells.code(latCell, lonCell));
+                }
+            }
+        }
+        return crossed;
+    }
+
+    private static boolean intersects(int fromLat, int fromLon, int toLat, int toLon, int latCell, int lonCell) {
+        double low = 0.0d;
+        double high = 1.0d;
+        double[][] edges = {
+                { -(toLat - fromLat), fromLat - latCell * 10_000.0d },
+                { toLat - fromLat, (latCell + 1) * 10_000.0d - fromLat },
+                { -(toLon - fromLon), fromLon - lonCell * 20_000.0d },
+                { toLon - fromLon, (lonCell + 1) * 20_000.0d - fromLon }
+        };
+        for (double[] edge: edges) {
+            if (edge[0] == 0.0d) {
+                if (edge[1] < 0.0d) {
+                    return false;
+                }
+            } else if (edge[0] < 0.0d) {
+                low = Math.max(low, edge[1] / edge[0]);
+            } else {
+                high = Math.min(high, edge[1] / edge[0]);
+            }
+        }
+        return low <= high;
+    }
+
+    private static int coordinate(Random random, int origin, int cellSize) {
+        int coordinate = origin + random.nextInt(20 * cellSize);
+        return coordinate % cellSize == 0 ? coordinate + 1 : coordinate;
+    }
+}
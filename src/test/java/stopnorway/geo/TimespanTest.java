@@ -150,4 +150,20 @@ class TimespanTest {
                 new Timespan(LocalTime.MIDNIGHT.plusHours(3), 1, LocalTime.MIDNIGHT.plusHours(4), 1));
     }
 
+    @Test
+    void test_seconds() {
+        Timespan ts = new Timespan(
+                LocalTime.MIDNIGHT.plusHours(23),
+                LocalTime.MIDNIGHT.plusMinutes(30),
+                1);
+
+        assertThat(ts.getStartSeconds()).isEqualTo(23 * 3600);
+        assertThat(ts.getEndSeconds()).isEqualTo(Timespan.SECONDS_PER_DAY + 30 * 60);
+        assertThat(ts.getEndOffset()).isEqualTo(1);
+        assertThat(ts.getEnd()).isEqualTo(LocalTime.MIDNIGHT.plusMinutes(30));
+        assertThat(ts.getDuration()).isEqualTo(Duration.ofMinutes(90));
+        assertThat(new Timespan(ts.getStartSeconds(), ts.getEndSeconds())).isEqualTo(ts);
+        assertThat(new Timespan(Timespan.NO_TIME, ts.getEndSeconds()))
+                .isEqualTo(new Timespan(null, LocalTime.MIDNIGHT.plusMinutes(30), 1));
+    }
 }
@@ -0,0 +1,67 @@
+package stopnorway.hash;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import stopnorway.data.Operator;
+import stopnorway.database.Id;
+import stopnorway.entur.LinkSequenceProjection;
+import stopnorway.entur.ScheduledStopPoint;
+import stopnorway.geo.Point;
+import stopnorway.geo.Points;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Disabled
+class HashBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(HashBenchmarkTest.class);
+
+    private static final int COUNT = 100_000;
+
+    @Test
+    void ids() {
+        compare("Id", i -> new Id(Operator.RUT, ScheduledStopPoint.class, String.valueOf(i)));
+    }
+
+    @Test
+    void linkSequenceProjections() {
+        List<Point> trajectory = IntStream.range(0, 50)
+                .mapToObj(i -> Points.point(59.0 + i / 1000.0, 10.0 + i / 1000.0))
+                .collect(Collectors.toList());
+        compare(
+                "LinkSequenceProjection",
+                i -> new LinkSequenceProjection(
+                        new Id(Operator.RUT, LinkSequenceProjection.class, String.valueOf(i)),
+                        trajectory));
+    }
+
+    private static void compare(String name, IntFunction<? extends Hashable> hashables) {
+        List<? extends Hashable> items = IntStream.range(0, COUNT).mapToObj(hashables).collect(Collectors.toList());
+        for (int round = 0; round < 10; round++) {
+            for (HashAlgorithm algorithm: HashAlgorithm.values()) {
+                Instant start = Instant.now();
+                long sink = 0;
+                for (Hashable item: items) {
+                    sink += algorithm.uuid(item).getLeastSignificantBits();
+                }
+                Duration time = Duration.between(start, Instant.now());
+                log.info(
+                        "{} #{} {}: {} for {}, {}ns/op ({})",
+                        name,
+                        round + 1,
+                        algorithm,
+                        time,
+                        COUNT,
+                        time.toNanos() / COUNT,
+                        sink);
+            }
+        }
+    }
+}
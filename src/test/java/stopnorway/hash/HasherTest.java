@@ -0,0 +1,87 @@
+package stopnorway.hash;
+
+import org.junit.jupiter.api.Test;
+import stopnorway.data.Operator;
+import stopnorway.database.Id;
+import stopnorway.entur.ScheduledStopPoint;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HasherTest {
+
+    @Test
+    void murmur3ReferenceVectors() {
+        assertThat(murmur3("hello")).isEqualTo(new UUID(0xcbd8a7b341bd9b02L, 0x5b1e906a48ae1d19L));
+        assertThat(murmur3("The quick brown fox jumps over the lazy dog"))
+                .isEqualTo(new UUID(0xe34bbc7bbc071b6cL, 0x7a433ca9c49a9347L));
+    }
+
+    @Test
+    void murmur3StreamsPrimitivesLikeBytes() {
+        Murmur3Hasher primitives = new Murmur3Hasher();
+        primitives.putInt(0x04030201);
+        primitives.putLong(0x0c0b0a0908070605L);
+        primitives.putLong(0x14131211100f0e0dL);
+        Murmur3Hasher bytes = new Murmur3Hasher();
+        bytes.accept(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20 });
+
+        assertThat(primitives.uuid()).isEqualTo(bytes.uuid());
+    }
+
+    @Test
+    void md5MatchesLegacyDigest() throws Exception {
+        Id id = new Id(Operator.RUT, ScheduledStopPoint.class, "1234");
+        MessageDigest md5 = MessageDigest.getInstance("MD5");
+        md5.update("RUT".getBytes(StandardCharsets.UTF_8));
+        md5.update("1234".getBytes(StandardCharsets.UTF_8));
+        md5.update("ScheduledStopPoint".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(HashAlgorithm.MD5.uuid(id)).isEqualTo(UUID.nameUUIDFromBytes(md5.digest()));
+    }
+
+    @Test
+    void algorithmsAreStableAndDistinguish() {
+        Id id = new Id(Operator.RUT, ScheduledStopPoint.class, "1234");
+        Id other = new Id(Operator.RUT, ScheduledStopPoint.class, "1235");
+        for (HashAlgorithm algorithm: HashAlgorithm.values()) {
+            assertThat(algorithm.uuid(id)).isEqualTo(algorithm.uuid(Id.parse("RUT:ScheduledStopPoint:1234")));
+            assertThat(algorithm.uuid(id)).isNotEqualTo(algorithm.uuid(other));
+        }
+    }
+
+    @Test
+    void fixedArityHashesMatchVarargs() {
+        ByteArrayOutputStream fixed = new ByteArrayOutputStream();
+        ByteArrayOutputStream varargs = new ByteArrayOutputStream();
+        Murmur3Hasher fixedHasher = new Murmur3Hasher();
+        Murmur3Hasher varargsHasher = new Murmur3Hasher();
+        for (Consumer<byte[]> h: List.<Consumer<byte[]>>of(fixed::writeBytes, fixedHasher)) {
+            AbstractHashable.hash(h, 42);
+            AbstractHashable.hash(h, 7, -7);
+            AbstractHashable.hash(h, 59.91d, 10.75d);
+            AbstractHashable.hash(h, "RUT", null, "1234");
+        }
+        for (Consumer<byte[]> h: List.<Consumer<byte[]>>of(varargs::writeBytes, varargsHasher)) {
+            AbstractHashable.hash(h, new int[] { 42 });
+            AbstractHashable.hash(h, new int[] { 7, -7 });
+            AbstractHashable.hash(h, new double[] { 59.91d, 10.75d });
+            AbstractHashable.hash(h, new String[] { "RUT", null, "1234" });
+        }
+
+        assertThat(fixed.toByteArray()).isEqualTo(varargs.toByteArray());
+        assertThat(fixedHasher.uuid()).isEqualTo(varargsHasher.uuid());
+    }
+
+    private static UUID murmur3(String string) {
+        Murmur3Hasher hasher = new Murmur3Hasher();
+        hasher.accept(string.getBytes(StandardCharsets.UTF_8));
+        return hasher.uuid();
+    }
+}
@@ -0,0 +1,61 @@
+package stopnorway.in;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import stopnorway.data.Operator;
+import stopnorway.data.TypedEntities;
+import stopnorway.database.Entity;
+import stopnorway.entur.ServiceJourney;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntitySinkTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void sinkReceivesAllEntities() {
+        SampleNetex.write(directory, Operator.FLB, 5);
+        SampleNetex.write(directory, Operator.RUT, 7);
+
+        List<Entity> streamed;
+        try (Parser parser = create(true)) {
+            streamed = parser.entities().collect(Collectors.toList());
+        }
+
+        List<Enum<?>> operators = new ArrayList<>();
+        Collection<Entity> sunk = new ArrayList<>();
+        try (Parser parser = create(true)) {
+            parser.entities(1, (operator, entities) -> {
+                operators.add(operator);
+                sunk.addAll(entities);
+            });
+        }
+
+        assertThat(sunk).containsExactlyInAnyOrderElementsOf(streamed);
+        assertThat(operators).containsExactlyInAnyOrder(Operator.FLB, Operator.RUT);
+    }
+
+    @Test
+    void typedEntitiesCollectsByType() {
+        SampleNetex.write(directory, Operator.FLB, 5);
+
+        TypedEntities typedEntities = new TypedEntities();
+        try (Parser parser = create(false)) {
+            parser.entities(typedEntities);
+        }
+
+        assertThat(typedEntities.get().get(ServiceJourney.class)).hasSize(5);
+    }
+
+    private Parser create(boolean parallel) {
+        return new ParserFactory(directory, Operator.FLB, Operator.RUT).create(true, parallel, ParseEngine.CURSOR);
+    }
+}
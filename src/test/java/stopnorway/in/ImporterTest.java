@@ -2,13 +2,31 @@ package stopnorway.in;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import stopnorway.data.Operator;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 class ImporterTest {
 
+    @TempDir
+    Path directory;
+
     @Test
     @Disabled
     void copy() {
@@ -18,4 +36,109 @@ class ImporterTest {
         assertThat(path.toFile().exists());
     }
 
+    @Test
+    void extractsOnlyChangedEntries() throws IOException {
+        Path zipFile = directory.resolve("netex.zip");
+        zip(zipFile, 2, 3);
+
+        Path target = Importer.unzipped(zipFile);
+        Path flb = target.resolve("FLB_line.xml");
+        Path rut = target.resolve("RUT_line.xml");
+        assertThat(Files.readString(flb)).isEqualTo(SampleNetex.document("FLB", 2));
+        assertThat(Files.readString(rut)).isEqualTo(SampleNetex.document("RUT", 3));
+        assertThat(target.resolve(Importer.MANIFEST).toFile().isFile()).isTrue();
+
+        FileTime old = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(flb, old);
+        zip(zipFile, 2, 4);
+
+        Importer.unzipped(zipFile);
+        assertThat(Files.getLastModifiedTime(flb)).isEqualTo(old);
+        assertThat(Files.readString(rut)).isEqualTo(SampleNetex.document("RUT", 4));
+
+        Files.writeString(flb, "truncated");
+        Importer.unzipped(zipFile, Operator.FLB);
+        assertThat(Files.readString(flb)).isEqualTo(SampleNetex.document("FLB", 2));
+    }
+
+    @Test
+    void contentHashesFollowContentsNotTimestamps() throws IOException {
+        Path zipFile = directory.resolve("netex.zip");
+        zip(zipFile, 2, 3);
+        Path target = Importer.unzipped(zipFile);
+        File flb = target.resolve("FLB_line.xml").toFile();
+
+        String zipped;
+        try (ZipOperatorSources sources = new ZipOperatorSources(zipFile)) {
+            zipped = sources.get(Operator.FLB).findFirst().orElseThrow().getContentHash();
+        }
+        assertThat(Importer.contentHash(Importer.readManifest(target), flb)).isEqualTo(zipped);
+        assertThat(new OperatorSource(Operator.FLB, flb).getContentHash()).isEqualTo(zipped);
+
+        FileTime modified = Files.getLastModifiedTime(flb.toPath());
+        byte[] rewrite = SampleNetex.document("FLB", 3).getBytes(StandardCharsets.UTF_8);
+        Files.write(flb.toPath(), Arrays.copyOf(rewrite, (int) flb.length()));
+        Files.setLastModifiedTime(flb.toPath(), modified);
+        assertThat(Files.getLastModifiedTime(flb.toPath())).isEqualTo(modified);
+        assertThat(new OperatorSource(Operator.FLB, flb).getContentHash()).isNotEqualTo(zipped);
+    }
+
+    @Test
+    void fingerprintsChangeOnlyForChangedOperators() throws IOException {
+        Path zipFile = directory.resolve("netex.zip");
+        zip(zipFile, 2, 3);
+        Map<Enum<?>, String> before = Importer.fingerprints(zipFile, List.of(Operator.FLB, Operator.RUT));
+
+        zip(zipFile, 2, 4);
+        Map<Enum<?>, String> after = Importer.fingerprints(zipFile, List.of(Operator.FLB, Operator.RUT));
+
+        assertThat(after.get(Operator.FLB)).isEqualTo(before.get(Operator.FLB));
+        assertThat(after.get(Operator.RUT)).isNotEqualTo(before.get(Operator.RUT));
+    }
+
+    @Test
+    void fingerprintsSelectTheEntriesTheParserReads() throws IOException {
+        Path zipFile = directory.resolve("netex.zip");
+        zipGz(zipFile, 2, 3);
+        Map<Enum<?>, String> before = Importer.fingerprints(zipFile, List.of(Operator.FLB, Operator.RUT));
+
+        zipGz(zipFile, 2, 4);
+        Map<Enum<?>, String> after = Importer.fingerprints(zipFile, List.of(Operator.FLB, Operator.RUT));
+
+        assertThat(after.get(Operator.FLB)).isEqualTo(before.get(Operator.FLB));
+        assertThat(after.get(Operator.RUT)).isNotEqualTo(before.get(Operator.RUT));
+    }
+
+    private static void zipGz(Path zipFile, int flbJourneys, int rutJourneys) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+            add(zip, "_FLB_shared_data.xml", SampleNetex.document("FLB", flbJourneys));
+            add(zip, "RUT_FLB-Flam.xml.gz", gzip(SampleNetex.document("RUT", rutJourneys)));
+            add(zip, "RUT_FLB-Myrdal.xml", SampleNetex.document("RUT", rutJourneys));
+        }
+    }
+
+    private static byte[] gzip(String document) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(document.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void zip(Path zipFile, int flbJourneys, int rutJourneys) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+            add(zip, "FLB_line.xml", SampleNetex.document("FLB", flbJourneys));
+            add(zip, "RUT_line.xml", SampleNetex.document("RUT", rutJourneys));
+        }
+    }
+
+    private static void add(ZipOutputStream zip, String name, String document) throws IOException {
+        add(zip, name, document.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void add(ZipOutputStream zip, String name, byte[] bytes) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(bytes);
+        zip.closeEntry();
+    }
 }
@@ -0,0 +1,140 @@
+package stopnorway.in;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import stopnorway.data.Operator;
+import stopnorway.database.Entity;
+import stopnorway.database.IdPool;
+import stopnorway.entur.LinkSequenceProjection;
+import stopnorway.entur.PassingTimes;
+import stopnorway.entur.ServiceJourney;
+import stopnorway.entur.TimetabledPassingTime;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParseEngineTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void cursorMatchesEvents() {
+        SampleNetex.write(directory, Operator.FLB, 3);
+
+        List<Entity> events = parse(ParseEngine.EVENTS);
+        List<Entity> cursor = parse(ParseEngine.CURSOR);
+
+        assertThat(cursor).containsExactlyInAnyOrderElementsOf(events);
+        assertThat(types(cursor).get(ServiceJourney.class)).isEqualTo(3L);
+        assertThat(types(cursor).get(LinkSequenceProjection.class)).isEqualTo(1L);
+    }
+
+    @Test
+    void refsAreShared() {
+        SampleNetex.write(directory, Operator.FLB, 3);
+
+        List<PassingTimes> passingTimes = serviceJourneys(parse(ParseEngine.CURSOR)).stream()
+                .map(ServiceJourney::getPassingTimes)
+                .collect(Collectors.toList());
+
+        assertThat(passingTimes).hasSize(3);
+        assertThat(passingTimes.get(1).getStopPointRef(0))
+                .isSameAs(passingTimes.get(0).getStopPointRef(0));
+    }
+
+    @Test
+    void passingTimesAreInlined() {
+        SampleNetex.write(directory, Operator.FLB, 2);
+
+        List<Entity> entities = parse(ParseEngine.CURSOR);
+        assertThat(types(entities).get(TimetabledPassingTime.class)).isNull();
+
+        PassingTimes passingTimes = serviceJourneys(entities).stream()
+                .filter(serviceJourney -> serviceJourney.getId().getId().equals("1"))
+                .findFirst()
+                .orElseThrow()
+                .getPassingTimes();
+        assertThat(passingTimes.size()).isEqualTo(2);
+        assertThat(passingTimes.hasIds()).isFalse();
+        assertThat(passingTimes.getDepartureSeconds(0)).isEqualTo((6 * 60 + 10) * 60);
+        assertThat(passingTimes.getArrivalSeconds(0)).isEqualTo(-1);
+        assertThat(passingTimes.getTimespan(1).getStartSeconds()).isEqualTo((6 * 60 + 68) * 60);
+
+        try (Parser parser = new ParserFactory(directory, Operator.FLB)
+                .withPassingTimeIds(true)
+                .create(true, false, ParseEngine.CURSOR)) {
+            assertThat(serviceJourneys(parser.entities().collect(Collectors.toList())).stream()
+                               .map(ServiceJourney::getPassingTimes)
+                               .map(times -> times.getId(1).getId())
+                               .sorted()
+                               .collect(Collectors.toList()))
+                    .containsExactly("0-2", "1-2");
+        }
+    }
+
+    @Test
+    void sourceCacheIsKeyedByContent() {
+        SampleNetex.write(directory, Operator.FLB, 2);
+        Map<String, Collection<Entity>> stored = new HashMap<>();
+        List<String> hits = new ArrayList<>();
+        SourceCache sourceCache = new SourceCache() {
+
+            @Override
+            public Optional<Collection<Entity>> get(OperatorSource source, String variant, IdPool idPool) {
+                Collection<Entity> entities = stored.get(variant + "/" + source.getContentHash());
+                if (entities != null) {
+                    hits.add(source.getContentHash());
+                }
+                return Optional.ofNullable(entities);
+            }
+
+            @Override
+            public void put(OperatorSource source, String variant, Collection<Entity> entities) {
+                stored.put(variant + "/" + source.getContentHash(), entities);
+            }
+        };
+        ParserFactory parserFactory = new ParserFactory(directory, Operator.FLB).withSourceCache(sourceCache);
+
+        List<Entity> parsed = parse(parserFactory);
+        assertThat(hits).isEmpty();
+        assertThat(parse(parserFactory)).containsExactlyInAnyOrderElementsOf(parsed);
+        assertThat(hits).hasSize(1);
+
+        SampleNetex.write(directory, Operator.FLB, 3);
+        assertThat(types(parse(parserFactory)).get(ServiceJourney.class)).isEqualTo(3L);
+        assertThat(hits).hasSize(1);
+        assertThat(stored).hasSize(2);
+    }
+
+    private static List<Entity> parse(ParserFactory parserFactory) {
+        try (Parser parser = parserFactory.create(true, false, ParseEngine.CURSOR)) {
+            return parser.entities().collect(Collectors.toList());
+        }
+    }
+
+    private List<Entity> parse(ParseEngine engine) {
+        try (Parser parser = new ParserFactory(directory, Operator.FLB).create(true, false, engine)) {
+            return parser.entities().collect(Collectors.toList());
+        }
+    }
+
+    private static List<ServiceJourney> serviceJourneys(List<Entity> entities) {
+        return entities.stream()
+                .filter(ServiceJourney.class::isInstance)
+                .map(ServiceJourney.class::cast)
+                .collect(Collectors.toList());
+    }
+
+    private static Map<Class<?>, Long> types(List<Entity> entities) {
+        return entities.stream().collect(Collectors.groupingBy(Object::getClass, Collectors.counting()));
+    }
+}
@@ -0,0 +1,110 @@
+package stopnorway.in;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import stopnorway.data.DatabaseImpl;
+import stopnorway.data.Operator;
+import stopnorway.database.Entity;
+import stopnorway.entur.*;
+import stopnorway.geo.Points;
+import stopnorway.geo.Timespan;
+
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParseProfileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void timetableSkipsGeometry() {
+        SampleNetex.write(directory, Operator.FLB, 3);
+
+        for (ParseEngine engine: ParseEngine.values()) {
+            List<Entity> entities = parse(ParseProfile.TIMETABLE, engine);
+            assertThat(types(entities)).doesNotContain(
+                    ServiceLink.class,
+                    LinkSequenceProjection.class,
+                    RoutePoint.class,
+                    PointProjection.class);
+            assertThat(types(entities)).contains(
+                    ServiceJourney.class,
+                    JourneyPattern.class,
+                    StopPointInJourneyPattern.class,
+                    ScheduledStopPoint.class);
+            assertThat(entities).containsAll(parse(ParseProfile.FULL, engine).stream()
+                                                     .filter(entity -> entity instanceof ServiceJourney)
+                                                     .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void topologySkipsProjections() {
+        SampleNetex.write(directory, Operator.FLB, 3);
+
+        for (ParseEngine engine: ParseEngine.values()) {
+            List<Entity> entities = parse(ParseProfile.TOPOLOGY, engine);
+            assertThat(types(entities)).doesNotContain(ServiceJourney.class, LinkSequenceProjection.class);
+            assertThat(types(entities)).contains(ServiceLink.class, RoutePoint.class, PointProjection.class);
+            assertThat(entities.stream()
+                               .filter(ServiceLink.class::isInstance)
+                               .map(ServiceLink.class::cast)
+                               .map(ServiceLink::getProjections)
+                               .allMatch(Collection::isEmpty)).isTrue();
+        }
+    }
+
+    @Test
+    void geometryKeepsProjections() {
+        SampleNetex.write(directory, Operator.FLB, 3);
+
+        List<Entity> entities = parse(ParseProfile.GEOMETRY, ParseEngine.CURSOR);
+        assertThat(types(entities)).containsExactlyInAnyOrder(
+                ServiceLink.class,
+                LinkSequenceProjection.class,
+                ScheduledStopPoint.class,
+                RoutePoint.class,
+                PointProjection.class);
+    }
+
+    @Test
+    void everyProfileBuildsADatabase() {
+        SampleNetex.write(directory, Operator.FLB, 3);
+
+        Map<ParseProfile, DatabaseImpl> databases = new EnumMap<>(ParseProfile.class);
+        for (ParseProfile profile: ParseProfile.values()) {
+            databases.put(profile, new DatabaseImpl(null, null, null, parse(profile, ParseEngine.CURSOR).stream()));
+        }
+        Timespan day = new Timespan(LocalTime.MIN, LocalTime.MAX);
+
+        assertThat(databases.get(ParseProfile.FULL).getJourneys(day)).hasSize(3);
+        assertThat(databases.get(ParseProfile.FULL).getJourneySpecifications(Points.NORWAY_BOX)).hasSize(1);
+        assertThat(databases.get(ParseProfile.TIMETABLE).getJourneys(day)).hasSize(3);
+        assertThat(databases.get(ParseProfile.TIMETABLE).getJourneys(day).iterator().next().getScheduledStops())
+                .hasSize(2);
+        assertThat(databases.get(ParseProfile.TIMETABLE).getJourneySpecifications(Points.NORWAY_BOX)).isEmpty();
+        assertThat(databases.get(ParseProfile.TOPOLOGY).getJourneys(day)).isEmpty();
+        assertThat(databases.get(ParseProfile.GEOMETRY).getJourneys(day)).isEmpty();
+    }
+
+    private List<Entity> parse(ParseProfile profile, ParseEngine engine) {
+        try (Parser parser = new ParserFactory(directory, Operator.FLB)
+                .withProfile(profile)
+                .create(true, false, engine)) {
+            return parser.entities().collect(Collectors.toList());
+        }
+    }
+
+    private static Set<Class<?>> types(List<Entity> entities) {
+        return entities.stream().map(Object::getClass).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,50 @@
+package stopnorway.in;
+
+import org.junit.jupiter.api.Test;
+import stopnorway.database.Entity;
+import stopnorway.geo.Point;
+import stopnorway.geo.Points;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParseStateTest {
+
+    @Test
+    void accumulatesChunks() {
+        ParseState<Entity> state = new ParseState<>();
+        state.startLookingForField(Field.posList);
+        append(state, "  ");
+        append(state, "59.1 10");
+        append(state, ".1");
+        append(state, " ");
+        append(state, "59.2 10.2 ");
+
+        assertThat(state.getContent(Field.posList)).isEqualTo("59.1 10.1 59.2 10.2 ");
+        assertThat(state.<List<Point>>getContent(Field.posList, Points::sequence)).containsExactly(
+                Points.point(59.1, 10.1),
+                Points.point(59.2, 10.2));
+    }
+
+    @Test
+    void relocatesInterruptedField() {
+        ParseState<Entity> state = new ParseState<>();
+        state.startLookingForField(Field.Name);
+        append(state, "Flåm");
+        state.startLookingForField(Field.ArrivalDayOffset);
+        append(state, " 12 ");
+        state.startLookingForField(Field.Name);
+        append(state, "sbana");
+
+        assertThat(state.getContent(Field.Name)).isEqualTo("Flåmsbana");
+        assertThat(state.getIntContent(Field.ArrivalDayOffset)).isEqualTo(12);
+        assertThat(state.getIntContent(Field.DepartureDayOffset)).isEqualTo(0);
+        assertThat(state.getContent(Field.ShortName)).isNull();
+    }
+
+    private static void append(ParseState<Entity> state, String chunk) {
+        char[] buffer = ("xx" + chunk + "yy").toCharArray();
+        state.setContents(buffer, 2, chunk.length());
+    }
+}
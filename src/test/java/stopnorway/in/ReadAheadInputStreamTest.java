@@ -0,0 +1,78 @@
+package stopnorway.in;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReadAheadInputStreamTest {
+
+    @Test
+    void readsEverything() throws IOException {
+        byte[] bytes = new byte[100_000];
+        new Random(42).nextBytes(bytes);
+
+        try (InputStream in = new ReadAheadInputStream(new ByteArrayInputStream(bytes), "test", 2, 1000)) {
+            assertThat(in.read()).isEqualTo(bytes[0] & 0xFF);
+            assertThat(in.readAllBytes()).isEqualTo(copy(bytes, 1));
+            assertThat(in.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void failuresReachTheReader() throws IOException {
+        InputStream failing = new InputStream() {
+
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (count++ == 5000) {
+                    throw new IOException("Truncated");
+                }
+                return 'x';
+            }
+        };
+        try (InputStream in = new ReadAheadInputStream(failing, "test", 2, 1000)) {
+            assertThatThrownBy(in::readAllBytes)
+                    .isInstanceOf(IOException.class)
+                    .hasCauseInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void closeReleasesBlockedWriterAndSource() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream endless = new InputStream() {
+
+            @Override
+            public int read() {
+                return 'x';
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        InputStream in = new ReadAheadInputStream(endless, "test", 2, 1000);
+        assertThat(in.readNBytes(10).length).isEqualTo(10);
+
+        in.close();
+
+        assertThat(closed.get()).isTrue();
+        assertThatThrownBy(in::read).isInstanceOf(IOException.class);
+    }
+
+    private static byte[] copy(byte[] bytes, int from) {
+        byte[] copy = new byte[bytes.length - from];
+        System.arraycopy(bytes, from, copy, 0, copy.length);
+        return copy;
+    }
+}
@@ -0,0 +1,142 @@
+package stopnorway.in;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class SampleNetex {
+
+    public static Path write(Path directory, Enum<?> operator, int journeys) {
+        Path file = directory.resolve(operator.name() + "_line.xml");
+        try {
+            Files.writeString(file, document(operator.name(), journeys), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write " + file, e);
+        }
+        return file;
+    }
+
+    static String document(String op, int journeys) {
+        return """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <PublicationDelivery xmlns="http://www.netex.org.uk/netex" xmlns:gml="http://www.opengis.net/gml/3.2" version="1.13">
+              <dataObjects>
+                <CompositeFrame id="OP:CompositeFrame:1" version="1">
+                  <frames>
+                    <ServiceFrame id="OP:ServiceFrame:1" version="1">
+                      <routePoints>
+                        <RoutePoint id="OP:RoutePoint:1" version="1">
+                          <projections>
+                            <PointProjection id="OP:PointProjection:1" version="1">
+                              <ProjectedPointRef ref="OP:ScheduledStopPoint:1"/>
+                            </PointProjection>
+                          </projections>
+                        </RoutePoint>
+                      </routePoints>
+                      <routes>
+                        <Route id="OP:Route:1" version="1">
+                          <Name>Flåm - Myrdal</Name>
+                          <ShortName>Flåm</ShortName>
+                          <LineRef ref="OP:Line:1"/>
+                          <DirectionType>outbound</DirectionType>
+                          <pointsInSequence>
+                            <PointOnRoute id="OP:PointOnRoute:1" order="1" version="1">
+                              <RoutePointRef ref="OP:RoutePoint:1"/>
+                            </PointOnRoute>
+                          </pointsInSequence>
+                        </Route>
+                      </routes>
+                      <lines>
+                        <Line id="OP:Line:1" version="1">
+                          <Name>Flåmsbana</Name>
+                          <TransportMode>rail</TransportMode>
+                        </Line>
+                      </lines>
+                      <scheduledStopPoints>
+                        <ScheduledStopPoint id="OP:ScheduledStopPoint:1" version="1">
+                          <Name>Flåm</Name>
+                        </ScheduledStopPoint>
+                        <ScheduledStopPoint id="OP:ScheduledStopPoint:2" version="1">
+                          <Name>Myrdal</Name>
+                        </ScheduledStopPoint>
+                      </scheduledStopPoints>
+                      <serviceLinks>
+                        <ServiceLink id="OP:ServiceLink:1" version="1">
+                          <Distance>20000</Distance>
+                          <projections>
+                            <LinkSequenceProjection id="OP:LinkSequenceProjection:1" version="1">
+                              <gml:LineString gml:id="LS_1">
+                                <gml:posList>60.86307 7.11378 60.8 7.12 60.73512 7.12345</gml:posList>
+                              </gml:LineString>
+                            </LinkSequenceProjection>
+                          </projections>
+                          <FromPointRef ref="OP:ScheduledStopPoint:1"/>
+                          <ToPointRef ref="OP:ScheduledStopPoint:2"/>
+                        </ServiceLink>
+                      </serviceLinks>
+                      <journeyPatterns>
+                        <JourneyPattern id="OP:JourneyPattern:1" version="1">
+                          <Name>Flåm - Myrdal</Name>
+                          <RouteRef ref="OP:Route:1"/>
+                          <pointsInSequence>
+                            <StopPointInJourneyPattern id="OP:StopPointInJourneyPattern:1" order="1" version="1">
+                              <ScheduledStopPointRef ref="OP:ScheduledStopPoint:1"/>
+                            </StopPointInJourneyPattern>
+                            <StopPointInJourneyPattern id="OP:StopPointInJourneyPattern:2" order="2" version="1">
+                              <ScheduledStopPointRef ref="OP:ScheduledStopPoint:2"/>
+                            </StopPointInJourneyPattern>
+                          </pointsInSequence>
+                          <linksInSequence>
+                            <ServiceLinkInJourneyPattern id="OP:ServiceLinkInJourneyPattern:1" order="1" version="1">
+                              <ServiceLinkRef ref="OP:ServiceLink:1"/>
+                            </ServiceLinkInJourneyPattern>
+                          </linksInSequence>
+                        </JourneyPattern>
+                      </journeyPatterns>
+                    </ServiceFrame>
+                    <TimetableFrame id="OP:TimetableFrame:1" version="1">
+                      <vehicleJourneys>
+            %s
+                      </vehicleJourneys>
+                    </TimetableFrame>
+                  </frames>
+                </CompositeFrame>
+              </dataObjects>
+            </PublicationDelivery>
+            """.formatted(IntStream.range(0, journeys)
+                .mapToObj(SampleNetex::serviceJourney)
+                .collect(Collectors.joining("\n")))
+            .replace("OP:", op + ":");
+    }
+
+    private static String serviceJourney(int i) {
+        int minutes = 6 * 60 + i * 10;
+        return """
+                        <ServiceJourney id="OP:ServiceJourney:%1$d" version="1">
+                          <Name>Flåm - Myrdal</Name>
+                          <TransportMode>rail</TransportMode>
+                          <JourneyPatternRef ref="OP:JourneyPattern:1"/>
+                          <LineRef ref="OP:Line:1"/>
+                          <passingTimes>
+                            <TimetabledPassingTime id="OP:TimetabledPassingTime:%1$d-1" version="1">
+                              <StopPointInJourneyPatternRef ref="OP:StopPointInJourneyPattern:1"/>
+                              <DepartureTime>%2$s</DepartureTime>
+                            </TimetabledPassingTime>
+                            <TimetabledPassingTime id="OP:TimetabledPassingTime:%1$d-2" version="1">
+                              <StopPointInJourneyPatternRef ref="OP:StopPointInJourneyPattern:2"/>
+                              <ArrivalTime>%3$s</ArrivalTime>
+                            </TimetabledPassingTime>
+                          </passingTimes>
+                        </ServiceJourney>""".formatted(i, time(minutes), time(minutes + 58));
+    }
+
+    private static String time(int minutes) {
+        return String.format("%02d:%02d:00", minutes / 60 % 24, minutes % 60);
+    }
+
+    private SampleNetex() {
+    }
+}
@@ -0,0 +1,45 @@
+package stopnorway.in;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import stopnorway.data.Operator;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Disabled
+class SchedulingBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SchedulingBenchmarkTest.class);
+
+    @Test
+    void tails() {
+        Path directory = Importer.unzipped(TestData.ZIP, Arrays.asList(Operator.values()));
+        for (Scheduling scheduling: Scheduling.values()) {
+            for (boolean largestFirst: new boolean[] { false, true }) {
+                ParserFactory parserFactory = new ParserFactory(directory, Arrays.asList(Operator.values()))
+                        .withScheduling(scheduling)
+                        .withLargestFirst(largestFirst);
+                for (int i = 0; i < 3; i++) {
+                    try (Parser parser = parserFactory.create(true, true, ParseEngine.CURSOR)) {
+                        parser.entities((operator, entities) -> {
+                        });
+                        ParseProgress progress = parser.getLastProgress();
+                        assertThat(progress.getTail()).isNotNull();
+                        log.info(
+                                "{}{} #{}: {}, tail {}",
+                                scheduling,
+                                largestFirst ? " largest-first" : "",
+                                i + 1,
+                                progress.getElapsed(),
+                                progress.getTail());
+                    }
+                }
+            }
+        }
+    }
+}
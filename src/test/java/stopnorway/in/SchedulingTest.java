@@ -0,0 +1,56 @@
+package stopnorway.in;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import stopnorway.data.Operator;
+import stopnorway.database.Entity;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchedulingTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void allSchedulingsParseTheSame() {
+        SampleNetex.write(directory, Operator.FLB, 3);
+        SampleNetex.write(directory, Operator.RUT, 30);
+        SampleNetex.write(directory, Operator.NSB, 10);
+
+        List<Entity> pooled = parse(Scheduling.POOL, false);
+
+        for (Scheduling scheduling: Scheduling.values()) {
+            assertThat(parse(scheduling, true)).containsExactlyInAnyOrderElementsOf(pooled);
+        }
+    }
+
+    @Test
+    void tailIsRecorded() {
+        SampleNetex.write(directory, Operator.FLB, 3);
+        SampleNetex.write(directory, Operator.RUT, 30);
+
+        try (Parser parser = factory(Scheduling.WORK_STEALING, true).create(true, true, ParseEngine.CURSOR)) {
+            parser.entities((operator, entities) -> {
+            });
+            assertThat(parser.getLastProgress().getTail()).isNotNull();
+            assertThat(parser.getLastProgress().getElapsed()).isGreaterThanOrEqualTo(parser.getLastProgress().getTail());
+        }
+    }
+
+    private List<Entity> parse(Scheduling scheduling, boolean largestFirst) {
+        try (Parser parser = factory(scheduling, largestFirst).create(true, true, ParseEngine.CURSOR)) {
+            return parser.entities().collect(Collectors.toList());
+        }
+    }
+
+    private ParserFactory factory(Scheduling scheduling, boolean largestFirst) {
+        return new ParserFactory(directory, Operator.FLB, Operator.RUT, Operator.NSB)
+                .withScheduling(scheduling)
+                .withLargestFirst(largestFirst);
+    }
+}
@@ -0,0 +1,106 @@
+package stopnorway.in;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import stopnorway.data.Operator;
+import stopnorway.database.Entity;
+import stopnorway.entur.ServiceJourney;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SourcePartitionerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void partitionsAtEntityBoundaries() {
+        Path file = SampleNetex.write(directory, Operator.RUT, 40);
+
+        List<OperatorSource> partitions = partitioner(4).partition(new OperatorSource(Operator.RUT, file.toFile()));
+
+        assertThat(partitions.size()).isGreaterThan(2);
+    }
+
+    @Test
+    void partitionsAreBalanced() {
+        Path file = SampleNetex.write(directory, Operator.RUT, 200);
+        long target = file.toFile().length() / 4;
+
+        List<OperatorSource> partitions = partitioner(4).partition(new OperatorSource(Operator.RUT, file.toFile()));
+
+        List<OperatorSource> chunks = partitions.subList(1, partitions.size());
+        assertThat(chunks.size()).isBetween(3, 5);
+        chunks.forEach(chunk -> assertThat(chunk.getLength()).isBetween(target / 2, target * 3 / 2));
+        assertThat(partitions.get(0).getLength()).isLessThan(target);
+    }
+
+    @Test
+    void oversizeEntityIsKeptWhole() {
+        Path file = SampleNetex.write(directory, Operator.RUT, 40);
+        SourcePartitioner partitioner = new SourcePartitioner(List.of("TimetableFrame"), 4, 0L);
+
+        List<OperatorSource> partitions = partitioner.partition(new OperatorSource(Operator.RUT, file.toFile()));
+
+        assertThat(partitions).hasSize(2);
+        assertThat(partitions.get(1).getLength()).isGreaterThan(file.toFile().length() / 2);
+        String chunk = read(partitions.get(1));
+        assertThat(chunk).contains("<TimetableFrame ", "</TimetableFrame>", "ServiceJourney:39\"");
+        assertThat(read(partitions.get(0))).doesNotContain("ServiceJourney");
+    }
+
+    @Test
+    void smallAndEmptySourcesAreLeftWhole() throws IOException {
+        Path file = SampleNetex.write(directory, Operator.RUT, 40);
+        OperatorSource source = new OperatorSource(Operator.RUT, file.toFile());
+        SourcePartitioner partitioner = new SourcePartitioner(
+                EntityParsers.all().stream().map(EntityParser::getLocalName).collect(Collectors.toList()),
+                4,
+                file.toFile().length() + 1);
+        assertThat(partitioner.partition(source)).containsExactly(source);
+
+        Path empty = Files.createFile(directory.resolve("RUT_empty.xml"));
+        OperatorSource emptySource = new OperatorSource(Operator.RUT, empty.toFile());
+        assertThat(partitioner(4).partition(emptySource)).containsExactly(emptySource);
+    }
+
+    @Test
+    void partitionedMatchesWhole() {
+        SampleNetex.write(directory, Operator.RUT, 40);
+
+        List<Entity> whole = parse(new ParserFactory(directory, Operator.RUT));
+        List<Entity> partitioned = parse(new ParserFactory(directory, Operator.RUT).withPartitions(4, 0L));
+
+        assertThat(partitioned).containsExactlyInAnyOrderElementsOf(whole);
+        assertThat(partitioned.stream().filter(ServiceJourney.class::isInstance).count()).isEqualTo(40L);
+    }
+
+    private static SourcePartitioner partitioner(int partitions) {
+        return new SourcePartitioner(
+                EntityParsers.all().stream().map(EntityParser::getLocalName).collect(Collectors.toList()),
+                partitions,
+                0L);
+    }
+
+    private static String read(OperatorSource source) {
+        try (InputStream in = source.inputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read " + source, e);
+        }
+    }
+
+    private static List<Entity> parse(ParserFactory parserFactory) {
+        try (Parser parser = parserFactory.create(true, false, ParseEngine.CURSOR)) {
+            return parser.entities().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package stopnorway.in;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import stopnorway.data.Operator;
+import stopnorway.database.Entity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZipOperatorSourcesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void parsesFromZip() throws IOException {
+        Path documents = Files.createDirectories(directory.resolve("documents"));
+        Path flb = SampleNetex.write(documents, Operator.FLB, 4);
+        Path rut = SampleNetex.write(documents, Operator.RUT, 2);
+        Path zipFile = directory.resolve("netex.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+            add(zip, "netex/" + flb.getFileName(), flb);
+            add(zip, "netex/" + rut.getFileName(), rut);
+        }
+
+        List<Entity> extracted = parse(documents);
+        List<Entity> zipped = parse(zipFile);
+
+        assertThat(zipped).containsExactlyInAnyOrderElementsOf(extracted);
+        try (ZipOperatorSources sources = new ZipOperatorSources(zipFile)) {
+            assertThat(sources.get(Operator.FLB).collect(Collectors.toList())).hasSize(1);
+            assertThat(sources.get(Operator.NSB).collect(Collectors.toList())).isEmpty();
+        }
+    }
+
+    private static List<Entity> parse(Path documents) {
+        try (Parser parser = new ParserFactory(documents, Operator.FLB, Operator.RUT)
+                .create(true, true, ParseEngine.CURSOR)) {
+            return parser.entities().collect(Collectors.toList());
+        }
+    }
+
+    private static void add(ZipOutputStream zip, String name, Path file) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        Files.copy(file, zip);
+        zip.closeEntry();
+    }
+}
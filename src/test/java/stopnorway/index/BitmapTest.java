@@ -0,0 +1,73 @@
+package stopnorway.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BitmapTest {
+
+    @Test
+    void matchesBitSet() {
+        Random random = new Random(42L);
+        for (int bound: new int[] { 1_000, 100_000, 1_000_000 }) {
+            for (int count: new int[] { 0, 10, 5_000, 50_000 }) {
+                BitSet reference = new BitSet();
+                Bitmap bitmap = new Bitmap();
+                for (int i = 0; i < count; i++) {
+                    int value = random.nextInt(bound);
+                    reference.set(value);
+                    bitmap.add(value);
+                }
+                assertThat(bitmap.cardinality()).isEqualTo(reference.cardinality());
+                assertThat(bitmap.toArray()).isEqualTo(reference.stream().toArray());
+                assertThat(bitmap.contains(bound)).isFalse();
+            }
+        }
+    }
+
+    @Test
+    void orsAndAnds() {
+        Random random = new Random(42L);
+        for (int[] counts: new int[][] { { 100, 100 }, { 100, 40_000 }, { 40_000, 60_000 }, { 0, 1_000 } }) {
+            BitSet first = new BitSet();
+            BitSet second = new BitSet();
+            Bitmap firstBitmap = new Bitmap();
+            Bitmap secondBitmap = new Bitmap();
+            for (int i = 0; i < counts[0]; i++) {
+                int value = random.nextInt(200_000);
+                first.set(value);
+                firstBitmap.add(value);
+            }
+            for (int i = 0; i < counts[1]; i++) {
+                int value = random.nextInt(200_000);
+                second.set(value);
+                secondBitmap.add(value);
+            }
+            BitSet and = (BitSet) first.clone();
+            and.and(second);
+            assertThat(firstBitmap.and(secondBitmap).toArray()).isEqualTo(and.stream().toArray());
+
+            BitSet or = (BitSet) first.clone();
+            or.or(second);
+            Bitmap orBitmap = new Bitmap();
+            orBitmap.addAll(firstBitmap);
+            orBitmap.addAll(secondBitmap);
+            assertThat(orBitmap.toArray()).isEqualTo(or.stream().toArray());
+            assertThat(firstBitmap.toArray()).isEqualTo(first.stream().toArray());
+        }
+    }
+
+    @Test
+    void trimsAndGrows() {
+        Bitmap bitmap = Bitmap.of(3, 1, 70_000);
+        bitmap.trim();
+        bitmap.add(2);
+        bitmap.add(140_000);
+
+        assertThat(bitmap.toArray()).isEqualTo(new int[] { 1, 2, 3, 70_000, 140_000 });
+        assertThat(new Bitmap().and(bitmap).isEmpty()).isTrue();
+    }
+}
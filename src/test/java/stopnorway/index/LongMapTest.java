@@ -0,0 +1,40 @@
+package stopnorway.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongMapTest {
+
+    @Test
+    void behavesLikeHashMap() {
+        Random random = new Random(42L);
+        LongMap<String> map = new LongMap<>();
+        Map<Long, String> reference = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            long key = random.nextInt(5_000) * 0x100000001L;
+            String value = "v" + i;
+            assertThat(map.put(key, value)).isEqualTo(reference.put(key, value));
+        }
+        assertThat(map.size()).isEqualTo(reference.size());
+        reference.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+        assertThat(map.get(-1L)).isNull();
+
+        Map<Long, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited).isEqualTo(reference);
+    }
+
+    @Test
+    void computesOnlyWhenAbsent() {
+        LongMap<String> map = new LongMap<>(4);
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.computeIfAbsent(7L, key -> "seven")).isEqualTo("seven");
+        assertThat(map.computeIfAbsent(7L, key -> "other")).isEqualTo("seven");
+        assertThat(map.size()).isEqualTo(1);
+    }
+}
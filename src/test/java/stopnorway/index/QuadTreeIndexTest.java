@@ -0,0 +1,75 @@
+package stopnorway.index;
+
+import org.junit.jupiter.api.Test;
+import stopnorway.geo.Box;
+import stopnorway.geo.PointSequence;
+import stopnorway.geo.Points;
+import stopnorway.geo.Scale;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuadTreeIndexTest {
+
+    @Test
+    void findsEverythingTheFinestGridFinds() {
+        List<PointSequence> legs = legs(new Random(42L));
+        QuadTreeIndex<PointSequence> quadTree = new QuadTreeIndex<>(Scale.DEFAULT, legs, PointSequence::cellCodes, 16);
+        GridIndex<PointSequence> grid = new GridIndex<>(
+                quadTree.getFinestScale(),
+                legs,
+                leg -> leg.cellCodes(quadTree.getFinestScale()));
+
+        Random random = new Random(7L);
+        for (int i = 0; i < 200; i++) {
+            double size = i % 2 == 0 ? 0.002d : 0.2d;
+            Box query = box(random, size);
+            assertThat(quadTree.candidates(List.of(query))).containsAll(grid.candidates(List.of(query)));
+        }
+    }
+
+    @Test
+    void mergesSparseCellsAndKeepsDenseOnes() {
+        List<PointSequence> legs = legs(new Random(42L));
+        QuadTreeIndex<PointSequence> adaptive = new QuadTreeIndex<>(Scale.DEFAULT, legs, PointSequence::cellCodes, 16);
+        QuadTreeIndex<PointSequence> merged =
+                new QuadTreeIndex<>(Scale.DEFAULT, legs, PointSequence::cellCodes, legs.size());
+        GridIndex<PointSequence> finest = new GridIndex<>(
+                adaptive.getFinestScale(),
+                legs,
+                leg -> leg.cellCodes(adaptive.getFinestScale()));
+
+        assertThat(merged.size()).isLessThan(adaptive.size());
+        assertThat(adaptive.size()).isLessThan(finest.size());
+
+        Box central = Points.point(59.911d, 10.751d).box(Points.point(59.912d, 10.752d));
+        assertThat(adaptive.candidates(List.of(central)).size())
+                .isLessThan(merged.candidates(List.of(central)).size());
+    }
+
+    private static List<PointSequence> legs(Random random) {
+        return Stream.concat(
+                IntStream.range(0, 2000).mapToObj(i -> leg(random, 59.91d, 10.75d, 0.02d)),
+                IntStream.range(0, 200).mapToObj(i -> leg(random, 69.0d, 18.0d, 2.0d))
+        ).collect(Collectors.toList());
+    }
+
+    private static PointSequence leg(Random random, double lat, double lon, double spread) {
+        double startLat = lat + random.nextGaussian() * spread;
+        double startLon = lon + random.nextGaussian() * spread;
+        return PointSequence.of(
+                Points.point(startLat, startLon),
+                Points.point(startLat + random.nextDouble() * 0.005d, startLon + random.nextDouble() * 0.005d));
+    }
+
+    private static Box box(Random random, double size) {
+        double lat = 59.85d + random.nextDouble() * 0.12d;
+        double lon = 10.65d + random.nextDouble() * 0.2d;
+        return Points.point(lat, lon).box(Points.point(lat + size, lon + size));
+    }
+}
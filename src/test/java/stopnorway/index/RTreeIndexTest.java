@@ -0,0 +1,69 @@
+package stopnorway.index;
+
+import org.junit.jupiter.api.Test;
+import stopnorway.geo.Box;
+import stopnorway.geo.Points;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RTreeIndexTest {
+
+    @Test
+    void matchesLinearScan() {
+        Random random = new Random(42L);
+        List<Box> boxes = IntStream.range(0, 2000)
+                .mapToObj(i -> box(random, 0.01d))
+                .collect(Collectors.toList());
+        RTreeIndex<Box> index = new RTreeIndex<>(boxes, Stream::of, 8);
+
+        assertThat(index.size()).isEqualTo(2000);
+        assertThat(index.depth()).isGreaterThan(2);
+        for (int i = 0; i < 200; i++) {
+            Box query = box(random, 0.05d);
+            assertThat(index.candidates(List.of(query)))
+                    .containsExactlyInAnyOrderElementsOf(boxes.stream()
+                                                                 .filter(box -> intersects(box, query))
+                                                                 .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void returnsItemsOnceForSeveralEntries() {
+        Box west = Points.point(59.9d, 10.6d).box(Points.point(59.95d, 10.65d));
+        Box east = Points.point(59.9d, 10.8d).box(Points.point(59.95d, 10.85d));
+        RTreeIndex<String> index = new RTreeIndex<>(
+                List.of("both", "west"),
+                item -> item.equals("both") ? Stream.of(west, east) : Stream.of(west));
+
+        assertThat(index.candidates(List.of(west, east))).containsExactly("both", "west");
+        assertThat(index.candidates(List.of(east))).containsExactly("both");
+        assertThat(index.candidates(List.of(Points.point(60.5d, 11.0d).box(Points.point(60.6d, 11.1d)))))
+                .isEmpty();
+    }
+
+    @Test
+    void handlesEmptyIndex() {
+        RTreeIndex<Box> index = new RTreeIndex<>(List.of(), Stream::of);
+
+        assertThat(index.candidates(List.of(Points.NORWAY_BOX))).isEmpty();
+    }
+
+    private static Box box(Random random, double maxSize) {
+        double lat = 59.7d + random.nextDouble() * 0.5d;
+        double lon = 10.4d + random.nextDouble() * 0.8d;
+        return Points.point(lat, lon).box(Points.point(
+                lat + random.nextDouble() * maxSize,
+                lon + random.nextDouble() * maxSize));
+    }
+
+    private static boolean intersects(Box box, Box query) {
+        return box.min().intLat() <= query.max().intLat() && query.min().intLat() <= box.max().intLat() &&
+                box.min().intLon() <= query.max().intLon() && query.min().intLon() <= box.max().intLon();
+    }
+}
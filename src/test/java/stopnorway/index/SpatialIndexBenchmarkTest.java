@@ -0,0 +1,109 @@
+package stopnorway.index;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import stopnorway.geo.Box;
+import stopnorway.geo.Point;
+import stopnorway.geo.PointSequence;
+import stopnorway.geo.Points;
+import stopnorway.geo.Scale;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@Disabled
+class SpatialIndexBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SpatialIndexBenchmarkTest.class);
+
+    private static final int ITEMS = 50_000;
+
+    private static final int QUERIES = 2_000;
+
+    @Test
+    void gridVersusTrees() {
+        Random random = new Random(42L);
+        List<List<Point>> legs = IntStream.range(0, ITEMS)
+                .mapToObj(i -> leg(random))
+                .collect(Collectors.toList());
+        for (double querySize: new double[] { 0.001d, 0.01d, 0.1d }) {
+            List<Box> queries = IntStream.range(0, QUERIES)
+                    .mapToObj(i -> {
+                        Point point = point(random);
+                        return point.box(Points.point(point.lat() + querySize, point.lon() + querySize));
+                    })
+                    .collect(Collectors.toList());
+            for (int round = 0; round < 5; round++) {
+                Instant gridStart = Instant.now();
+                SpatialIndex<List<Point>> grid = new GridIndex<>(
+                        Scale.DEFAULT,
+                        legs,
+                        leg -> PointSequence.of(leg).cellCodes(Scale.DEFAULT));
+                Instant rtreeStart = Instant.now();
+                SpatialIndex<List<Point>> rtree = new RTreeIndex<>(
+                        legs,
+                        leg -> Stream.of(leg.get(0).box(leg.get(leg.size() - 1))));
+                Instant quadTreeStart = Instant.now();
+                SpatialIndex<List<Point>> quadTree = new QuadTreeIndex<>(
+                        Scale.DEFAULT,
+                        legs,
+                        (leg, scale) -> PointSequence.of(leg).cellCodes(scale));
+                Instant built = Instant.now();
+                log.info(
+                        "Built #{}: grid {} ({} cells), rtree {} ({} entries), quadtree {} ({} cells)",
+                        round + 1,
+                        Duration.between(gridStart, rtreeStart),
+                        grid.size(),
+                        Duration.between(rtreeStart, quadTreeStart),
+                        rtree.size(),
+                        Duration.between(quadTreeStart, built),
+                        quadTree.size());
+                query("grid", querySize, round, grid, queries);
+                query("rtree", querySize, round, rtree, queries);
+                query("quadtree", querySize, round, quadTree, queries);
+            }
+        }
+    }
+
+    private static void query(
+            String name,
+            double querySize,
+            int round,
+            SpatialIndex<List<Point>> index,
+            List<Box> queries
+    ) {
+        Instant start = Instant.now();
+        long hits = 0;
+        for (Box query: queries) {
+            hits += index.candidates(List.of(query)).size();
+        }
+        Duration time = Duration.between(start, Instant.now());
+        log.info(
+                "{} {} #{}: {} for {} queries, {}us/query, {} candidates",
+                name,
+                querySize,
+                round + 1,
+                time,
+                queries.size(),
+                time.toNanos() / queries.size() / 1000,
+                hits);
+    }
+
+    private static List<Point> leg(Random random) {
+        Point start = point(random);
+        return IntStream.range(0, 10)
+                .mapToObj(i -> Points.point(start.lat() + i * 0.0005d, start.lon() + i * 0.0008d))
+                .collect(Collectors.toList());
+    }
+
+    private static Point point(Random random) {
+        return Points.point(59.7d + random.nextGaussian() * 0.1d, 10.7d + random.nextGaussian() * 0.15d);
+    }
+}